@@ -0,0 +1,47 @@
+package io.github.tap30.hiss;
+
+import org.intellij.lang.annotations.Identifier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Classes annotated using this will have a single hash of several fields calculated on encryption;
+ * so lookups on a combination of fields (e.g. national code and tenant) need one index.
+ * <br>
+ * The hash is calculated on plain contents before the fields are encrypted, and is left untouched
+ * if any of the fields is already encrypted. Use {@link Hiss#hashComposite(java.util.List)} and its variants
+ * to calculate values for lookups.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+@Repeatable(CompositeHashes.class)
+public @interface CompositeHash {
+    /**
+     * @return names of <code>String</code> fields whose contents are hashed together, in order;
+     * they are usually annotated with {@link Encrypted}.
+     */
+    String[] fields();
+
+    /**
+     * @return name of the field in which the hash will be put.
+     */
+    @Identifier
+    String hashFieldName();
+
+    /**
+     * @return format of the hash; see {@link Encrypted#hashFormat()}.
+     * {@link Encrypted.HashFormat#RAW} hashes need a <code>byte[]</code> hash field.
+     */
+    Encrypted.HashFormat hashFormat() default Encrypted.HashFormat.DEFAULT;
+
+    /**
+     * @return number of bytes of the hash to be kept; see {@link Encrypted#hashLength()}.
+     */
+    int hashLength() default 0;
+}
@@ -10,6 +10,10 @@ import java.lang.annotation.Target;
 
 /**
  * Fields annotated using this will be encrypted.
+ * <br>
+ * The field may be a <code>String</code>, or a <code>byte[]</code> which is encrypted into binary format
+ * (see {@link Hiss#encryptBinary(byte[])}); the latter supports neither pattern, deterministic encryption,
+ * {@link HashFormat#COMPACT} hash format, additional hashes nor search tokens.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
@@ -21,6 +25,30 @@ public @interface Encrypted {
     @Language("regexp")
     String pattern() default "";
 
+    /**
+     * @return whether to encrypt content deterministically, so same content always results in same encrypted content
+     * and the encrypted content itself can be used for equality search; hashing is skipped in this case.
+     * <br>
+     * Deterministic algorithm and key are configured using
+     * <code>defaultDeterministicEncryptionAlgorithm</code> and <code>defaultDeterministicEncryptionKeyId</code>
+     * of {@link io.github.tap30.hiss.properties.HissProperties}.
+     * Note that deterministic encryption reveals which contents are equal.
+     */
+    boolean deterministic() default false;
+
+    /**
+     * @return whether to compress content before encryption; compression is only applied to content
+     * longer than <code>compressionThreshold</code> of {@link io.github.tap30.hiss.properties.HissProperties}
+     * and only kept if it makes the encrypted content shorter.
+     * <br>
+     * {@link Compression#DEFAULT} means <code>compressionEnabled</code> of
+     * {@link io.github.tap30.hiss.properties.HissProperties} decides.
+     * Deterministically encrypted content is never compressed.
+     * Note that length of compressed content depends on the content itself; do not enable compression for
+     * fields mixing secret and attacker controlled parts.
+     */
+    Compression compression() default Compression.DEFAULT;
+
     /**
      * @return that should we calculate and store hash of content.
      * @see #hashFieldName()
@@ -37,4 +65,95 @@ public @interface Encrypted {
      */
     @Identifier
     String hashFieldName() default "";
+
+    /**
+     * @return name of the field in which hashes of content under <code>additionalHashingSchemes</code> of
+     * {@link io.github.tap30.hiss.properties.HissProperties} will be put, in the configured order and in the same
+     * format and length as the hash field; empty or null values mean additional hashes are not stored.
+     * <br>
+     * The field must be a <code>List&lt;String&gt;</code>, or a <code>List&lt;byte[]&gt;</code> if hash format is
+     * {@link HashFormat#RAW}. Use this to write hashes of both new and old schemes while migrating to a new
+     * hashing key or algorithm.
+     */
+    @Identifier
+    String additionalHashesFieldName() default "";
+
+    /**
+     * @return format of the hash put in hash field; see {@link HashFormat}.
+     */
+    HashFormat hashFormat() default HashFormat.DEFAULT;
+
+    /**
+     * @return number of bytes of the hash to be kept; zero means the full hash (32 bytes for HMAC-SHA256).
+     * Truncated hashes must be at least 8 bytes; 16 bytes is enough for blind indexes of most tables,
+     * but shorter hashes make unequal contents more likely to share a hash, so lookups should verify
+     * the decrypted content.
+     */
+    int hashLength() default 0;
+
+    /**
+     * @return name of the field in which search tokens of content will be put; empty or null values mean
+     * search tokens are not calculated. The field must be a <code>List&lt;String&gt;</code>, stored so that
+     * the datastore can index its elements (e.g. a PostgreSQL array with a GIN index).
+     * <br>
+     * Search tokens are keyed hashes of parts of content (see {@link SearchTokenType}) allowing searches
+     * without decryption; use {@link Hiss#searchTokens(Class, String, String)} to get tokens of a query.
+     * Tokens are 8 bytes long, so matched rows should be verified by decrypting them.
+     * Note that tokens reveal which contents share prefixes or n-grams.
+     */
+    @Identifier
+    String searchTokensFieldName() default "";
+
+    /**
+     * @return kind of search tokens; see {@link #searchTokensFieldName()}.
+     */
+    SearchTokenType searchTokenType() default SearchTokenType.PREFIX;
+
+    /**
+     * @return length of the shortest prefix in characters for {@link SearchTokenType#PREFIX},
+     * and length of n-grams for {@link SearchTokenType#NGRAM}; queries must be at least this long.
+     */
+    int searchTokenMinLength() default 3;
+
+    /**
+     * @return number of leading characters of content which search tokens are calculated on; bounds the number
+     * of tokens to <code>searchTokenMaxLength - searchTokenMinLength + 1</code>.
+     */
+    int searchTokenMaxLength() default 32;
+
+    enum HashFormat {
+        /**
+         * Hashes are formatted like encrypted contents; e.g. <code>#$$#{hmac-sha256:default_key}{...}#$$#</code>.
+         * This is the only format supporting <code>pattern</code>.
+         */
+        DEFAULT,
+        /**
+         * Hashes are URL-safe base64 without padding, whose first 4 characters identify algorithm and key;
+         * e.g. a 16-byte hash is 26 characters.
+         */
+        COMPACT,
+        /**
+         * Hashes are 3 bytes identifying algorithm and key followed by the hash itself; the hash field must be
+         * of type <code>byte[]</code>.
+         */
+        RAW
+    }
+
+    enum SearchTokenType {
+        /**
+         * Tokens of prefixes, from <code>searchTokenMinLength</code> characters up to
+         * <code>searchTokenMaxLength</code> characters; for "starts with" searches.
+         */
+        PREFIX,
+        /**
+         * Tokens of distinct substrings of <code>searchTokenMinLength</code> characters; for "contains" searches.
+         */
+        NGRAM
+    }
+
+    enum Compression {
+        DEFAULT,
+        ENABLED,
+        DISABLED
+    }
 }
@@ -0,0 +1,313 @@
+package io.github.tap30.hiss;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Finds encrypted (or hashed) parts of content, formatted as <code>#$$#{algorithm:keyId}{content}#$$#</code>;
+ * e.g. <code>#$$#{aes-128-gcm:default_key}{P4KYuz1zmvJC+vDIR4ej9bKX+e2uAapg040b1cLYxtjBx9RShwUbRFpUcQ==}#$$#</code>,
+ * or, if looked for, in compact format, <code>#$2{content}#</code> where content is unpadded base64url of the tag
+ * identifying a loaded algorithm and key followed by encrypted bytes;
+ * e.g. <code>#$2ZbOnP4KYuz1zmvJC-vDIR4ej9bKX-e2uAapg040b1cLYxtg#</code>.
+ * <br>
+ * Parts in default format are found exactly as <code>Pattern.compile("#\\$\\$#\\{(.*?):(.*?)}\\{(.+?)}#\\$\\$#").matcher(content).find()</code>
+ * finds them, in a single pass over content and without allocation: algorithm is up to the first colon, key ID is up to
+ * the first <code>}{</code> after it, content is up to the first <code>}#$$#</code> after that (and not empty),
+ * and none of them contain a line terminator.
+ * <br>
+ * If an attempt fails, every later attempt before the next line terminator fails too, since it could only find
+ * the same or later delimiters; so scanning continues after the line terminator. Likewise, a failed compact attempt
+ * continues after its base64url characters. Each format is scanned on its own, and the earlier part is found first.
+ */
+final class EncryptedContentScanner {
+
+    static final String START = "#$$#{";
+    static final String END = "}#$$#";
+    private static final String END_MARK = "#$$#";
+    static final String COMPACT_START = "#$2";
+    static final char COMPACT_END = '#';
+    /**
+     * Tag (4 characters) and at least one encrypted byte (2 characters).
+     */
+    static final int MIN_COMPACT_CONTENT_LENGTH = 6;
+
+    private final String content;
+    /**
+     * Tells whether a tag belongs to a loaded algorithm and key; null means compact format is not looked for.
+     */
+    private final IntPredicate compactTags;
+    /**
+     * Where to look for the next part in each format, and the next start marker found after there (-1 if none;
+     * -2 if not looked up yet); markers of one format are not looked up again for each part of the other.
+     */
+    private int position;
+    private int compactPosition;
+    private int nextStart = -2;
+    private int nextCompactStart = -2;
+    private boolean compact;
+    private int start;
+    private int colon;
+    private int separator;
+    private int end;
+
+    /**
+     * Scans for parts in default format only.
+     */
+    EncryptedContentScanner(String content) {
+        this(content, null);
+    }
+
+    /**
+     * @param compactTags tells whether a tag belongs to a loaded algorithm and key; compact parts having other tags
+     *                    are not taken for encrypted. Null means compact format is not looked for.
+     */
+    EncryptedContentScanner(String content, IntPredicate compactTags) {
+        this.content = content;
+        this.compactTags = compactTags;
+        if (compactTags == null) {
+            nextCompactStart = -1;
+        }
+    }
+
+    /**
+     * Finds the next encrypted part after the previous one.
+     *
+     * @return false if there is no more encrypted part.
+     */
+    boolean find() {
+        while (true) {
+            nextStart = nextIndexOf(START, nextStart, position);
+            nextCompactStart = nextIndexOf(COMPACT_START, nextCompactStart, compactPosition);
+            if (nextStart < 0 && nextCompactStart < 0) {
+                return false;
+            }
+            if (nextCompactStart < 0 || (nextStart >= 0 && nextStart < nextCompactStart)) {
+                var result = match(content, nextStart, this);
+                if (result < 0) {
+                    position = -result - 1;
+                    continue;
+                }
+                compact = false;
+            } else {
+                var result = matchCompact(content, nextCompactStart, compactTags, this);
+                if (result < 0) {
+                    compactPosition = -result - 1;
+                    continue;
+                }
+                compact = true;
+            }
+            position = Math.max(position, end);
+            compactPosition = Math.max(compactPosition, end);
+            return true;
+        }
+    }
+
+    /**
+     * @return whether the found part is in compact format; only {@link #encodedContent()} is valid for it.
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @return whether the content is exactly one encrypted part; valid after {@link #find()} returned true.
+     */
+    boolean isWhole() {
+        return start == 0 && end == content.length();
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    String algorithm() {
+        return content.substring(start + START.length(), colon);
+    }
+
+    String keyId() {
+        return content.substring(colon + 1, separator);
+    }
+
+    /**
+     * @return encoded encrypted content between key ID and end; or, in compact format, between start and end.
+     */
+    String encodedContent() {
+        if (compact) {
+            return content.substring(start + COMPACT_START.length(), end - 1);
+        }
+        return content.substring(separator + 2, end - END.length());
+    }
+
+    /**
+     * Tells whether content has an encrypted part in default format, without allocating.
+     */
+    static boolean contains(String content) {
+        return containsDefault(content);
+    }
+
+    /**
+     * Tells whether content has an encrypted part in either format, without allocating; formats can be looked for
+     * independently since a failed attempt in one format skips nothing of the other.
+     *
+     * @param compactTags see {@link #EncryptedContentScanner(String, IntPredicate)}.
+     */
+    static boolean contains(String content, IntPredicate compactTags) {
+        return containsDefault(content) || (compactTags != null && containsCompact(content, compactTags));
+    }
+
+    private static boolean containsCompact(String content, IntPredicate compactTags) {
+        var position = 0;
+        while (true) {
+            var candidate = content.indexOf(COMPACT_START, position);
+            if (candidate < 0) {
+                return false;
+            }
+            var result = matchCompact(content, candidate, compactTags, null);
+            if (result >= 0) {
+                return true;
+            }
+            position = -result - 1;
+        }
+    }
+
+    private static boolean containsDefault(String content) {
+        var position = 0;
+        while (true) {
+            var candidate = content.indexOf(START, position);
+            if (candidate < 0) {
+                return false;
+            }
+            var result = match(content, candidate, null);
+            if (result >= 0) {
+                return true;
+            }
+            position = -result - 1;
+        }
+    }
+
+    /**
+     * Tries to match an encrypted part starting at start, where {@link #START} is.
+     *
+     * @param scanner receives delimiter positions on match; may be null.
+     * @return end of the match; or <code>-(next + 1)</code> where next is where the next attempt may succeed.
+     */
+    private static int match(String content, int start, EncryptedContentScanner scanner) {
+        var length = content.length();
+        var i = start + START.length();
+        for (; i < length; i++) {
+            var c = content.charAt(i);
+            if (c == ':') {
+                break;
+            }
+            if (isLineTerminator(c)) {
+                return -(i + 2);
+            }
+        }
+        var colon = i;
+        for (i = colon + 1; i + 1 < length; i++) {
+            var c = content.charAt(i);
+            if (c == '}' && content.charAt(i + 1) == '{') {
+                break;
+            }
+            if (isLineTerminator(c)) {
+                return -(i + 2);
+            }
+        }
+        var separator = i;
+        if (separator + 2 >= length) {
+            return -(length + 1);
+        }
+        if (isLineTerminator(content.charAt(separator + 2))) {
+            return -(separator + 3);
+        }
+        for (i = separator + 3; i + END.length() <= length; i++) {
+            var c = content.charAt(i);
+            if (c == '}' && content.startsWith(END_MARK, i + 1)) {
+                if (scanner != null) {
+                    scanner.start = start;
+                    scanner.colon = colon;
+                    scanner.separator = separator;
+                    scanner.end = i + END.length();
+                }
+                return i + END.length();
+            }
+            if (isLineTerminator(c)) {
+                return -(i + 2);
+            }
+        }
+        return -(length + 1);
+    }
+
+    /**
+     * Tries to match a compact encrypted part starting at start, where {@link #COMPACT_START} is;
+     * base64url characters must follow up to {@link #COMPACT_END}, the first four of which encode a known tag.
+     *
+     * @param scanner receives positions on match; may be null.
+     * @return end of the match; or <code>-(next + 1)</code> where next is where the next attempt may succeed.
+     */
+    private static int matchCompact(String content,
+                                    int start,
+                                    IntPredicate compactTags,
+                                    EncryptedContentScanner scanner) {
+        var length = content.length();
+        var i = start + COMPACT_START.length();
+        while (i < length && isBase64UrlCharacter(content.charAt(i))) {
+            i++;
+        }
+        var contentLength = i - start - COMPACT_START.length();
+        if (i == length || content.charAt(i) != COMPACT_END
+            || contentLength < MIN_COMPACT_CONTENT_LENGTH || contentLength % 4 == 1
+            || !compactTags.test(decodeTag(content, start + COMPACT_START.length()))) {
+            // No start marker can be among base64url characters
+            return -(i + 1);
+        }
+        if (scanner != null) {
+            scanner.start = start;
+            scanner.end = i + 1;
+        }
+        return i + 1;
+    }
+
+    private int nextIndexOf(String marker, int next, int position) {
+        return next == -1 || next >= position ? next : content.indexOf(marker, position);
+    }
+
+    /**
+     * @return the tag encoded by four base64url characters at offset, as {@link HissHasher#tagToInt} reads it.
+     */
+    private static int decodeTag(String content, int offset) {
+        var tag = 0;
+        for (var i = offset; i < offset + 4; i++) {
+            tag = tag << 6 | decodeBase64UrlCharacter(content.charAt(i));
+        }
+        return tag;
+    }
+
+    private static int decodeBase64UrlCharacter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 26;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 52;
+        }
+        return c == '-' ? 62 : 63;
+    }
+
+    private static boolean isBase64UrlCharacter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    /**
+     * @return whether the character is a line terminator, which <code>.</code> does not match in regex.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+}
@@ -1,9 +1,20 @@
 package io.github.tap30.hiss;
 
+import io.github.tap30.hiss.utils.ExpiringCache;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 public class Hiss {
 
@@ -45,6 +56,38 @@ public class Hiss {
         }
     }
 
+    /**
+     * Encrypts the provided content with default deterministic key and algorithm;
+     * same content always results in same encrypted content, so the result can be used for equality search
+     * on fields annotated with <code>@Encrypted(deterministic = true)</code>.
+     *
+     * @param content the content to be encrypted.
+     * @return encrypted content or null if the content is null.
+     * @throws IllegalStateException if deterministic encryption is not configured.
+     */
+    public String encryptDeterministic(@Nullable String content) {
+        return encryptDeterministic(content, "");
+    }
+
+    /**
+     * Encrypts parts of the provided content which match with the provided pattern
+     * with default deterministic key and algorithm.
+     *
+     * @param content the content to be encrypted.
+     * @param pattern the pattern in regex format; null or empty pattern means to match all.
+     * @return encrypted content or null if the content is null.
+     * @throws IllegalStateException if deterministic encryption is not configured.
+     */
+    public String encryptDeterministic(@Nullable String content, @Language("regexp") @Nullable String pattern) {
+        try {
+            return hissEncryptor.encryptDeterministic(content, pattern);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Decrypts the provided content; if the content is encrypted partially (with pattern),
      * only the encrypted parts will be decrypted.
@@ -62,6 +105,175 @@ public class Hiss {
         }
     }
 
+    /**
+     * Encrypts the provided content with default key and default algorithm into binary format;
+     * for stores having binary columns, it saves base64 and the textual envelope. The result starts with
+     * a header identifying format version, algorithm and key, so configured keys and algorithms
+     * will be used for decryption.
+     *
+     * @param content the content to be encrypted.
+     * @return encrypted content or null if the content is null; empty or already encrypted content is returned as is.
+     */
+    public byte[] encryptBinary(@Nullable byte[] content) {
+        try {
+            return hissEncryptor.encryptBinary(content, Encrypted.Compression.DEFAULT);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decrypts the provided content, which is encrypted using {@link #encryptBinary(byte[])}.
+     *
+     * @param content the content to be decrypted.
+     * @return decrypted content or null if the content is null; content without binary header, or whose header names
+     * no loaded algorithm and key, is returned as is.
+     */
+    public byte[] decryptBinary(@Nullable byte[] content) {
+        try {
+            return hissEncryptor.decryptBinary(content);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Buffer variant of {@link #encryptBinary(byte[])}; remaining bytes of the content are consumed.
+     *
+     * @return a new buffer holding encrypted content or null if the content is null.
+     */
+    public ByteBuffer encryptBinary(@Nullable ByteBuffer content) {
+        return content != null ? ByteBuffer.wrap(encryptBinary(toArray(content))) : null;
+    }
+
+    /**
+     * Buffer variant of {@link #decryptBinary(byte[])}; remaining bytes of the content are consumed.
+     *
+     * @return a new buffer holding decrypted content or null if the content is null.
+     */
+    public ByteBuffer decryptBinary(@Nullable ByteBuffer content) {
+        return content != null ? ByteBuffer.wrap(decryptBinary(toArray(content))) : null;
+    }
+
+    /**
+     * Encrypts each of the provided contents with default key and default algorithm;
+     * each result is what {@link #encrypt(String)} returns for the content.
+     * <br>
+     * Contents are processed in the calling thread; see {@link #encryptAll(List, Executor)} to split them.
+     *
+     * @param contents the contents to be encrypted; may contain nulls.
+     * @return encrypted contents in the same order; null for null contents.
+     * @throws RuntimeException wrapping the first failure, as {@link #encrypt(String)} does.
+     */
+    public List<String> encryptAll(List<String> contents) {
+        return encryptAll(contents, null);
+    }
+
+    /**
+     * Variant of {@link #encryptAll(List)} which splits large batches into chunks run by the executor;
+     * see {@link #decryptAll(List, Executor)} for failures.
+     *
+     * @param executor runs chunks of contents; null means to process them in the calling thread.
+     */
+    public List<String> encryptAll(List<String> contents, @Nullable Executor executor) {
+        return Collections.unmodifiableList(Arrays.asList(encryptAll(toArray(contents), executor)));
+    }
+
+    /**
+     * Array variant of {@link #encryptAll(List)}.
+     */
+    public String[] encryptAll(String[] contents) {
+        return encryptAll(contents, null);
+    }
+
+    /**
+     * Array variant of {@link #encryptAll(List, Executor)}.
+     */
+    public String[] encryptAll(String[] contents, @Nullable Executor executor) {
+        return HissBatch.apply(contents, content -> hissEncryptor.encrypt(content, ""), executor);
+    }
+
+    /**
+     * Decrypts each of the provided contents; each result is what {@link #decrypt(String)} returns for the content.
+     * <br>
+     * Contents are processed in the calling thread; see {@link #decryptAll(List, Executor)} to split them.
+     *
+     * @param contents the contents to be decrypted; may contain nulls.
+     * @return decrypted contents in the same order; null for null contents.
+     * @throws RuntimeException wrapping the first failure, as {@link #decrypt(String)} does.
+     */
+    public List<String> decryptAll(List<String> contents) {
+        return decryptAll(contents, null);
+    }
+
+    /**
+     * Variant of {@link #decryptAll(List)} which splits large batches into chunks run by the executor,
+     * e.g. one dedicated to crypto work; Hiss never uses a shared pool on its own.
+     *
+     * @param executor runs chunks of contents; null means to process them in the calling thread.
+     * @throws RuntimeException wrapping the failure of the earliest failing content, after all chunks are done;
+     *                          failures of other chunks are suppressed by it.
+     */
+    public List<String> decryptAll(List<String> contents, @Nullable Executor executor) {
+        return Collections.unmodifiableList(Arrays.asList(decryptAll(toArray(contents), executor)));
+    }
+
+    /**
+     * Array variant of {@link #decryptAll(List)}.
+     */
+    public String[] decryptAll(String[] contents) {
+        return decryptAll(contents, null);
+    }
+
+    /**
+     * Array variant of {@link #decryptAll(List, Executor)}.
+     */
+    public String[] decryptAll(String[] contents, @Nullable Executor executor) {
+        return HissBatch.apply(contents, hissEncryptor::decrypt, executor);
+    }
+
+    /**
+     * Wraps the output in a stream which encrypts written content with default key and default algorithm
+     * in chunks; memory usage is bounded by chunk size regardless of content size.
+     * <br>
+     * The returned stream must be closed to write the final chunk; closing it closes the output too.
+     * Algorithm name and key ID are written at the beginning of the output, so configured keys and algorithms
+     * will be used for decryption.
+     *
+     * @param output the stream to which encrypted content will be written.
+     * @return the encrypting stream.
+     */
+    public OutputStream encryptingStream(OutputStream output) {
+        return hissEncryptor.encryptingStream(output);
+    }
+
+    /**
+     * Wraps the input, which is written using {@link #encryptingStream(OutputStream)}, in a stream which
+     * decrypts content chunk by chunk as it arrives.
+     * <br>
+     * Reads throw {@link java.io.IOException} if the content is tampered with or truncated.
+     *
+     * @param input the stream from which encrypted content will be read.
+     * @return the decrypting stream.
+     */
+    public InputStream decryptingStream(InputStream input) {
+        return hissEncryptor.decryptingStream(input);
+    }
+
+    /**
+     * Channel variant of {@link #encryptingStream(OutputStream)}.
+     */
+    public WritableByteChannel encryptingChannel(WritableByteChannel channel) {
+        return Channels.newChannel(encryptingStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Channel variant of {@link #decryptingStream(InputStream)}.
+     */
+    public ReadableByteChannel decryptingChannel(ReadableByteChannel channel) {
+        return Channels.newChannel(decryptingStream(Channels.newInputStream(channel)));
+    }
+
     /**
      * Hashes the provided content with default key and default algorithm.
      *
@@ -88,6 +300,295 @@ public class Hiss {
         }
     }
 
+    /**
+     * Hashes the provided content with default key and default algorithm and keeps the first bytes of the hash;
+     * matches hashes of fields annotated with <code>@Encrypted(hashLength = length)</code>.
+     *
+     * @param content the content to be hashed.
+     * @param length  number of bytes of the hash to be kept; zero means full hash.
+     * @return hashed content or null if the content is null.
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash.
+     */
+    public String hash(@Nullable String content, int length) {
+        try {
+            return hissHasher.hash(content, "", length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Hashes the provided content in {@link Encrypted.HashFormat#COMPACT} format;
+     * matches hashes of fields annotated with <code>@Encrypted(hashFormat = COMPACT, hashLength = length)</code>.
+     *
+     * @param content the content to be hashed.
+     * @param length  number of bytes of the hash to be kept; zero means full hash.
+     * @return hashed content or null if the content is null.
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash,
+     *                                  or if the content is encrypted; as there is nothing to return in place of
+     *                                  a hash in this format, such content is rejected rather than hashed.
+     */
+    public String hashCompact(@Nullable String content, int length) {
+        try {
+            return hissHasher.hashCompact(content, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Hashes the provided content in {@link Encrypted.HashFormat#RAW} format;
+     * matches hashes of fields annotated with <code>@Encrypted(hashFormat = RAW, hashLength = length)</code>.
+     *
+     * @param content the content to be hashed.
+     * @param length  number of bytes of the hash to be kept; zero means full hash.
+     * @return hash bytes or null if the content is null.
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash,
+     *                                  or if the content is encrypted; as there is nothing to return in place of
+     *                                  a hash in this format, such content is rejected rather than hashed.
+     */
+    public byte[] hashRaw(@Nullable String content, int length) {
+        try {
+            return hissHasher.hashToBytes(content, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Hashes the provided contents together with default key and default algorithm;
+     * matches hashes of classes annotated with <code>@CompositeHash</code> over fields having these contents,
+     * in the same order.
+     * <br>
+     * Contents are length-prefixed before hashing, so e.g. <code>["ab", "c"]</code> and <code>["a", "bc"]</code>
+     * have different hashes; null and empty contents are told apart too.
+     *
+     * @param contents the contents to be hashed; may contain nulls.
+     * @return hashed content or null if the contents is null.
+     * @throws IllegalArgumentException if contents are empty.
+     */
+    public String hashComposite(@Nullable List<String> contents) {
+        return hashComposite(contents, 0);
+    }
+
+    /**
+     * Truncated variant of {@link #hashComposite(List)}; see {@link #hash(String, int)}.
+     *
+     * @throws IllegalArgumentException if contents are empty or length is between zero and 8 or longer than the hash.
+     */
+    public String hashComposite(@Nullable List<String> contents, int length) {
+        try {
+            return hissHasher.hashComposite(contents, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Encrypted.HashFormat#COMPACT} variant of {@link #hashComposite(List)}.
+     *
+     * @throws IllegalArgumentException if contents are empty or length is between zero and 8 or longer than the hash.
+     */
+    public String hashCompositeCompact(@Nullable List<String> contents, int length) {
+        try {
+            return hissHasher.hashCompositeCompact(contents, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Encrypted.HashFormat#RAW} variant of {@link #hashComposite(List)}.
+     *
+     * @throws IllegalArgumentException if contents are empty or length is between zero and 8 or longer than the hash.
+     */
+    public byte[] hashCompositeRaw(@Nullable List<String> contents, int length) {
+        try {
+            return hissHasher.hashCompositeToBytes(contents, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Hashes the provided content under the default hashing scheme and each of <code>additionalHashingSchemes</code>
+     * of {@link io.github.tap30.hiss.properties.HissProperties}; useful for lookups (e.g. SQL <code>IN</code>)
+     * while stored hashes are a mix of old and new schemes during key or algorithm rotation.
+     *
+     * @param content the content to be hashed.
+     * @return hashes in the order of schemes, default first; each is what {@link #hash(String)} returns
+     * under that scheme.
+     */
+    public List<String> hashes(@Nullable String content) {
+        return hashes(content, 0);
+    }
+
+    /**
+     * Truncated variant of {@link #hashes(String)}; see {@link #hash(String, int)}.
+     *
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash.
+     */
+    public List<String> hashes(@Nullable String content, int length) {
+        try {
+            return hissHasher.hashes(content, "", length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Encrypted.HashFormat#COMPACT} variant of {@link #hashes(String)}; see {@link #hashCompact(String, int)}.
+     *
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash,
+     *                                  or if the content is encrypted.
+     */
+    public List<String> hashesCompact(@Nullable String content, int length) {
+        try {
+            return hissHasher.hashesCompact(content, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Encrypted.HashFormat#RAW} variant of {@link #hashes(String)}; see {@link #hashRaw(String, int)}.
+     *
+     * @throws IllegalArgumentException if length is between zero and 8 or longer than the hash,
+     *                                  or if the content is encrypted.
+     */
+    public List<byte[]> hashesRaw(@Nullable String content, int length) {
+        try {
+            return hissHasher.hashesToBytes(content, length);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Tells whether the stored hash is the hash of the provided content; the algorithm and key the stored hash
+     * identifies are used, so hashes of non-default (e.g. rotated) keys are verified too.
+     * <br>
+     * The stored hash may be in {@link Encrypted.HashFormat#DEFAULT} (without pattern) or
+     * {@link Encrypted.HashFormat#COMPACT} format and may be truncated. Hash bytes are compared in constant time,
+     * which is also cheaper than formatting the content's hash and comparing strings.
+     *
+     * @param content    the plain content.
+     * @param storedHash the stored hash.
+     * @return <code>false</code> if either is null or empty or the stored hash is not recognized;
+     * e.g. it is encrypted content or its algorithm or key is not loaded/supported.
+     */
+    public boolean matchesHash(@Nullable String content, @Nullable String storedHash) {
+        try {
+            return hissHasher.matchesHash(content, storedHash);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link Encrypted.HashFormat#RAW} variant of {@link #matchesHash(String, String)}.
+     */
+    public boolean matchesHash(@Nullable String content, @Nullable byte[] storedHash) {
+        try {
+            return hissHasher.matchesHash(content, storedHash);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Hashes each of the provided contents with default key and default algorithm;
+     * each result is what {@link #hash(String)} returns for the content.
+     * <br>
+     * Contents are processed in the calling thread; see {@link #hashAll(List, Executor)} to split them.
+     *
+     * @param contents the contents to be hashed; may contain nulls.
+     * @return hashed contents in the same order; null for null contents.
+     * @throws RuntimeException wrapping the first failure, as {@link #hash(String)} does.
+     */
+    public List<String> hashAll(List<String> contents) {
+        return hashAll(contents, null);
+    }
+
+    /**
+     * Variant of {@link #hashAll(List)} which splits large batches into chunks run by the executor;
+     * see {@link #decryptAll(List, Executor)} for failures.
+     *
+     * @param executor runs chunks of contents; null means to process them in the calling thread.
+     */
+    public List<String> hashAll(List<String> contents, @Nullable Executor executor) {
+        return Collections.unmodifiableList(Arrays.asList(hashAll(toArray(contents), executor)));
+    }
+
+    /**
+     * Array variant of {@link #hashAll(List)}.
+     */
+    public String[] hashAll(String[] contents) {
+        return hashAll(contents, null);
+    }
+
+    /**
+     * Array variant of {@link #hashAll(List, Executor)}.
+     */
+    public String[] hashAll(String[] contents, @Nullable Executor executor) {
+        return HissBatch.apply(contents, content -> hissHasher.hash(content, ""), executor);
+    }
+
+    /**
+     * Calculates search tokens of the query for a field annotated with
+     * <code>@Encrypted(searchTokensFieldName = ...)</code>, using the field's search token settings.
+     * <br>
+     * For {@link Encrypted.SearchTokenType#PREFIX}, contents starting with the query have the only returned token
+     * among their tokens; for {@link Encrypted.SearchTokenType#NGRAM}, contents containing the query have all
+     * returned tokens. Matches may be false positives, so verify them after decryption.
+     *
+     * @param clazz     the class declaring the field.
+     * @param fieldName the name of the field.
+     * @param query     the searched content.
+     * @return search tokens of the query.
+     * @throws IllegalArgumentException if the field has no search tokens or the query is shorter than
+     *                                  <code>searchTokenMinLength</code>.
+     */
+    public List<String> searchTokens(Class<?> clazz, String fieldName, String query) {
+        try {
+            return hissObjectEncryptor.searchQueryTokens(clazz, fieldName, query);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns hit/miss counters of the hash cache, enabled by <code>hashCacheMaxSize</code>
+     * of {@link io.github.tap30.hiss.properties.HissProperties}; all zero if caching is disabled.
+     */
+    public ExpiringCache.Statistics getHashCacheStatistics() {
+        return hissHasher.getCacheStatistics();
+    }
+
     /**
      * Tells whether the provider content is encrypted.
      *
@@ -98,6 +599,17 @@ public class Hiss {
         return hissEncryptor.isEncrypted(content);
     }
 
+    /**
+     * Tells whether the provided content is encrypted using {@link #encryptBinary(byte[])}
+     * with a loaded algorithm and key.
+     *
+     * @param content the content.
+     * @return <code>true</code> if the content is encrypted.
+     */
+    public boolean isEncryptedBinary(@Nullable byte[] content) {
+        return hissEncryptor.isEncryptedBinary(content);
+    }
+
     /**
      * Tells whether the provider content is hashed.
      *
@@ -126,4 +638,14 @@ public class Hiss {
         hissObjectEncryptor.decryptObject(object);
     }
 
+    private static String[] toArray(List<String> contents) {
+        return Objects.requireNonNull(contents).toArray(new String[0]);
+    }
+
+    private static byte[] toArray(ByteBuffer content) {
+        var bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return bytes;
+    }
+
 }
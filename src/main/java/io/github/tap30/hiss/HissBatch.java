@@ -0,0 +1,96 @@
+package io.github.tap30.hiss;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Applies a single-value operation on a batch of values; in the calling thread unless an executor is given,
+ * in which case batches having more than {@link #CHUNK_SIZE} values are split into chunks run by the executor.
+ * <br>
+ * Failures are reported as single-value methods of {@link Hiss} report them: a {@link RuntimeException}
+ * wrapping what the operation threw.
+ */
+final class HissBatch {
+
+    static final int CHUNK_SIZE = 256;
+
+    private HissBatch() {
+    }
+
+    /**
+     * @return results in the same order as contents; null contents result in null.
+     * @throws RuntimeException wrapping the first failure, as calling the operation one by one would.
+     */
+    static String[] apply(String[] contents, Operation operation) {
+        return apply(contents, operation, null);
+    }
+
+    /**
+     * @param executor runs chunks of contents; null means to run all of them in the calling thread.
+     * @return results in the same order as contents; null contents result in null.
+     * @throws RuntimeException wrapping the failure of the earliest failing content; all chunks are waited for,
+     *                          and failures of other chunks are added to it as suppressed.
+     */
+    static String[] apply(String[] contents, Operation operation, Executor executor) {
+        Objects.requireNonNull(contents);
+        Objects.requireNonNull(operation);
+        var results = new String[contents.length];
+        if (executor == null || contents.length <= CHUNK_SIZE) {
+            try {
+                apply(contents, operation, results, 0, contents.length);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return results;
+        }
+        var chunks = new ArrayList<CompletableFuture<Void>>();
+        for (var from = 0; from < contents.length; from += CHUNK_SIZE) {
+            var start = from;
+            var end = Math.min(from + CHUNK_SIZE, contents.length);
+            chunks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    apply(contents, operation, results, start, end);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        RuntimeException failure = null;
+        for (var chunk : chunks) {
+            try {
+                chunk.join();
+            } catch (CompletionException | CancellationException e) {
+                var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (failure == null) {
+                    failure = new RuntimeException(cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    private static void apply(String[] contents,
+                              Operation operation,
+                              String[] results,
+                              int from,
+                              int to) throws Exception {
+        for (var i = from; i < to; i++) {
+            results[i] = operation.apply(contents[i]);
+        }
+    }
+
+    @FunctionalInterface
+    interface Operation {
+        String apply(String content) throws Exception;
+    }
+
+}
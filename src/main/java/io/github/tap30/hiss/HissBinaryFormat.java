@@ -0,0 +1,59 @@
+package io.github.tap30.hiss;
+
+/**
+ * Binary format of encrypted content; an alternative to the textual envelope for stores having binary columns.
+ * <pre>
+ * envelope: magic 0xff 'H' (2) | version (1) | tag (3) | encrypted (compression flag (1) | content)
+ * </pre>
+ * Tag is {@link HissHasher#createTag(String, String)} of algorithm and key, as in compact textual format.
+ * Plain bytes may start with any byte, magic included; so a header alone doesn't tell content is encrypted
+ * unless its tag is known as well, and compression is told by an explicit flag rather than by the first byte
+ * of content: {@link #RAW} or {@link #COMPRESSED}, the latter being {@link HissCompressor#MARKER} which starts
+ * compressed content anyway. The flag is encrypted alongside content, so changing it is detected.
+ */
+final class HissBinaryFormat {
+
+    static final byte[] MAGIC = {(byte) 0xff, 'H'};
+    static final byte VERSION = 1;
+    static final int TAG_OFFSET = MAGIC.length + 1;
+    static final int HEADER_LENGTH = TAG_OFFSET + HissHasher.TAG_LENGTH;
+    static final byte RAW = 0;
+    static final byte COMPRESSED = HissCompressor.MARKER;
+
+    private HissBinaryFormat() {
+    }
+
+    static byte[] createHeader(byte[] tag) {
+        var header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        System.arraycopy(tag, 0, header, TAG_OFFSET, HissHasher.TAG_LENGTH);
+        return header;
+    }
+
+    /**
+     * @return whether content starts with magic and version and has encrypted bytes after the header;
+     * the tag is not checked.
+     */
+    static boolean hasHeader(byte[] content) {
+        return content.length > HEADER_LENGTH
+               && content[0] == MAGIC[0]
+               && content[1] == MAGIC[1]
+               && content[MAGIC.length] == VERSION;
+    }
+
+    static int getTag(byte[] content) {
+        return HissHasher.tagToInt(content, TAG_OFFSET);
+    }
+
+    /**
+     * @return content prefixed with {@link #RAW} flag.
+     */
+    static byte[] flagRaw(byte[] content) {
+        var flagged = new byte[content.length + 1];
+        flagged[0] = RAW;
+        System.arraycopy(content, 0, flagged, 1, content.length);
+        return flagged;
+    }
+
+}
@@ -0,0 +1,143 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.utils.ObjectPool;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses content using raw DEFLATE before encryption.
+ * <br>
+ * Compressed content is prefixed with {@link #MARKER}. Being a byte which never appears in UTF-8 encoded text,
+ * the marker alone tells compressed text apart, and as it is encrypted alongside content, the compression flag
+ * of the envelope is authenticated and removing or adding it is detected. Binary content may start with any byte,
+ * so {@link HissBinaryFormat} flags raw content explicitly rather than relying on the marker.
+ * <br>
+ * Decompressed content is bounded by a maximum length, so that a small crafted payload which still passes
+ * decryption (e.g. under an unauthenticated algorithm or a leaked key) can't exhaust memory; content longer than
+ * that is never compressed, so whatever is compressed can be decompressed.
+ */
+class HissCompressor {
+
+    static final int DEFAULT_THRESHOLD = 1024;
+    static final int DEFAULT_MAX_LENGTH = 16 * 1024 * 1024;
+    static final byte MARKER = (byte) 0xff;
+
+    private final boolean enabledByDefault;
+    private final int threshold;
+    private final int maxLength;
+    private final ObjectPool<Deflater> deflaters = new ObjectPool<>();
+    private final ObjectPool<Inflater> inflaters = new ObjectPool<>();
+
+    /**
+     * @param enabledByDefault whether to compress when {@link Encrypted.Compression#DEFAULT} is requested.
+     * @param threshold        minimum length of content in bytes to be compressed.
+     */
+    HissCompressor(boolean enabledByDefault, int threshold) {
+        this(enabledByDefault, threshold, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param maxLength maximum length of content in bytes to be compressed, and of decompressed content.
+     */
+    HissCompressor(boolean enabledByDefault, int threshold, int maxLength) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Compression threshold must not be negative: " + threshold);
+        }
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("Compression max length must be positive: " + maxLength);
+        }
+        this.enabledByDefault = enabledByDefault;
+        this.threshold = threshold;
+        this.maxLength = maxLength;
+    }
+
+    static HissCompressor disabled() {
+        return new HissCompressor(false, DEFAULT_THRESHOLD);
+    }
+
+    boolean isEnabled(Encrypted.Compression compression) {
+        switch (compression) {
+            case ENABLED:
+                return true;
+            case DISABLED:
+                return false;
+            default:
+                return enabledByDefault;
+        }
+    }
+
+    /**
+     * @return marker followed by compressed content, or null if content is shorter than threshold,
+     * longer than max length, or compression does not make it shorter.
+     */
+    byte[] compress(byte[] content) {
+        if (content.length < threshold || content.length == 0 || content.length > maxLength) {
+            return null;
+        }
+        var deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            // Only results shorter than content are kept, so the output never needs to grow.
+            var output = new byte[content.length];
+            output[0] = MARKER;
+            var length = 1;
+            while (!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            return deflater.finished() && length < content.length ? Arrays.copyOf(output, length) : null;
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+    }
+
+    /**
+     * @return whether content is output of {@link #compress(byte[])}; valid for UTF-8 encoded text only.
+     */
+    static boolean isCompressed(byte[] content) {
+        return content.length > 0 && content[0] == MARKER;
+    }
+
+    /**
+     * @throws DataFormatException if content is malformed, or decompresses to more than max length.
+     */
+    byte[] decompress(byte[] content) throws DataFormatException {
+        if (!isCompressed(content)) {
+            throw new IllegalArgumentException("Content is not compressed");
+        }
+        var inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(content, 1, content.length - 1);
+            var output = new ByteArrayOutputStream((int) Math.min((long) content.length * 4, maxLength));
+            var buffer = new byte[Math.min(Math.max(content.length * 4, 256), 64 * 1024)];
+            while (!inflater.finished()) {
+                // One byte past max length is enough to tell content is too long
+                var length = inflater.inflate(buffer, 0,
+                        (int) Math.min(buffer.length, (long) maxLength - output.size() + 1));
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Compressed content is truncated");
+                }
+                if (output.size() + length > maxLength) {
+                    throw new DataFormatException("Decompressed content is longer than " + maxLength + " bytes");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+    }
+
+}
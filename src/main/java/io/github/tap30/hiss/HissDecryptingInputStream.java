@@ -0,0 +1,160 @@
+package io.github.tap30.hiss;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import static io.github.tap30.hiss.HissStreamFormat.*;
+
+/**
+ * Reads a stream in {@link HissStreamFormat} and decrypts it chunk by chunk.
+ * <br>
+ * Content of a chunk is returned only after the chunk is decrypted and verified;
+ * an {@link IOException} is thrown if the stream is malformed, tampered with or truncated.
+ * Not thread-safe.
+ */
+class HissDecryptingInputStream extends InputStream {
+
+    private final DataInputStream input;
+    private final BiFunction<String, String, HissEncryptor.EncryptionContext> contextResolver;
+    private HissEncryptor.EncryptionContext context;
+    private int chunkSize;
+    private byte[] streamId;
+    private byte[] encryptedChunk;
+    private byte[] chunk;
+    private int chunkPosition;
+    private int chunkLength;
+    private long chunkIndex;
+    private boolean finalChunkRead;
+
+    /**
+     * @param contextResolver resolves context by algorithm name and key ID of stream header.
+     */
+    HissDecryptingInputStream(InputStream input,
+                              BiFunction<String, String, HissEncryptor.EncryptionContext> contextResolver) {
+        this.input = new DataInputStream(Objects.requireNonNull(input));
+        this.contextResolver = Objects.requireNonNull(contextResolver);
+    }
+
+    @Override
+    public int read() throws IOException {
+        var b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (chunkPosition == chunkLength) {
+            if (finalChunkRead || !readChunk()) {
+                return -1;
+            }
+        }
+        var length = Math.min(len, chunkLength - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, b, off, length);
+        chunkPosition += length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return chunkLength - chunkPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * @return false if there is no more chunk.
+     */
+    private boolean readChunk() throws IOException {
+        if (context == null) {
+            readHeader();
+        }
+
+        int encryptedLength;
+        try {
+            encryptedLength = input.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Encrypted stream is truncated; final chunk is missing", e);
+        }
+        if (encryptedLength < 0 || encryptedLength > encryptedChunk.length) {
+            throw new IOException("Invalid encrypted chunk length: " + encryptedLength);
+        }
+        input.readFully(encryptedChunk, 0, encryptedLength);
+
+        int length;
+        try {
+            length = HissStreamFormat.decrypt(context.getEncryptor(), encryptedChunk, encryptedLength, chunk);
+        } catch (Exception e) {
+            throw new IOException("Could not decrypt chunk " + chunkIndex, e);
+        }
+        if (length < CHUNK_PREFIX_LENGTH
+            || length > CHUNK_PREFIX_LENGTH + chunkSize
+            || !Arrays.equals(chunk, 0, STREAM_ID_LENGTH, streamId, 0, STREAM_ID_LENGTH)
+            || readLong(chunk, STREAM_ID_LENGTH) != chunkIndex) {
+            throw new IOException("Chunk " + chunkIndex + " does not belong to this position of the stream");
+        }
+        chunkIndex++;
+        finalChunkRead = chunk[STREAM_ID_LENGTH + Long.BYTES] == 1;
+        chunkPosition = CHUNK_PREFIX_LENGTH;
+        chunkLength = length;
+        return true;
+    }
+
+    private void readHeader() throws IOException {
+        var magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not an encrypted stream");
+        }
+        var version = input.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported encrypted stream version: " + version);
+        }
+        var header = new byte[input.readUnsignedShort()];
+        input.readFully(header);
+        var algorithmAndKeyId = new String(header, StandardCharsets.UTF_8);
+        var separatorIndex = algorithmAndKeyId.indexOf(':');
+        if (separatorIndex < 0) {
+            throw new IOException("Invalid encrypted stream header: " + algorithmAndKeyId);
+        }
+        streamId = new byte[STREAM_ID_LENGTH];
+        input.readFully(streamId);
+        chunkSize = input.readInt();
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IOException("Invalid chunk size: " + chunkSize);
+        }
+
+        try {
+            context = contextResolver.apply(
+                    algorithmAndKeyId.substring(0, separatorIndex),
+                    algorithmAndKeyId.substring(separatorIndex + 1));
+        } catch (RuntimeException e) {
+            throw new IOException("Could not resolve encryption context of stream", e);
+        }
+        encryptedChunk = new byte[getMaxEncryptedChunkLength(context.getEncryptor(), chunkSize)];
+        // Decrypting into buffers needs room for what encryptor reports; e.g. including GCM tag.
+        var maxDecryptedLength = context.getEncryptor().getMaxDecryptedLength(encryptedChunk.length);
+        chunk = new byte[Math.max(CHUNK_PREFIX_LENGTH + chunkSize, maxDecryptedLength)];
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+}
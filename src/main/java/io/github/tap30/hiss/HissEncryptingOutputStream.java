@@ -0,0 +1,139 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static io.github.tap30.hiss.HissStreamFormat.*;
+
+/**
+ * Encrypts written content in chunks and writes them in {@link HissStreamFormat} to the underlying stream.
+ * <br>
+ * Content is buffered up to a chunk; {@link #flush()} writes buffered content as a (shorter) chunk,
+ * and {@link #close()} writes the final chunk which must be called to produce a decryptable stream.
+ * Not thread-safe.
+ */
+class HissEncryptingOutputStream extends OutputStream {
+
+    private final DataOutputStream output;
+    private final HissEncryptor.EncryptionContext context;
+    private final int chunkSize;
+    private final byte[] streamId = new byte[STREAM_ID_LENGTH];
+    private final byte[] chunk;
+    private final byte[] encryptedChunk;
+    private int chunkLength = CHUNK_PREFIX_LENGTH;
+    private long chunkIndex;
+    private boolean headerWritten;
+    private boolean closed;
+
+    HissEncryptingOutputStream(OutputStream output, HissEncryptor.EncryptionContext context) {
+        this(output, context, DEFAULT_CHUNK_SIZE);
+    }
+
+    HissEncryptingOutputStream(OutputStream output, HissEncryptor.EncryptionContext context, int chunkSize) {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        }
+        this.output = new DataOutputStream(Objects.requireNonNull(output));
+        this.context = Objects.requireNonNull(context);
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[CHUNK_PREFIX_LENGTH + chunkSize];
+        this.encryptedChunk = new byte[getMaxEncryptedChunkLength(context.getEncryptor(), chunkSize)];
+        DrbgNonceGenerator.getInstance().nextNonce(streamId, 0, streamId.length);
+        System.arraycopy(streamId, 0, chunk, 0, streamId.length);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            // A full chunk is written only when more content arrives, as the last chunk must be flagged final.
+            if (chunkLength == chunk.length) {
+                writeChunk(false);
+            }
+            var length = Math.min(len, chunk.length - chunkLength);
+            System.arraycopy(b, off, chunk, chunkLength, length);
+            chunkLength += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (chunkLength > CHUNK_PREFIX_LENGTH) {
+            writeChunk(false);
+        }
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            writeChunk(true);
+            output.flush();
+        } finally {
+            closed = true;
+            output.close();
+        }
+    }
+
+    private void writeChunk(boolean isFinal) throws IOException {
+        writeHeaderIfNeeded();
+        writeLong(chunk, STREAM_ID_LENGTH, chunkIndex++);
+        chunk[STREAM_ID_LENGTH + Long.BYTES] = (byte) (isFinal ? 1 : 0);
+        int encryptedLength;
+        try {
+            encryptedLength = HissStreamFormat.encrypt(context.getEncryptor(), chunk, chunkLength, encryptedChunk);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not encrypt chunk", e);
+        }
+        output.writeInt(encryptedLength);
+        output.write(encryptedChunk, 0, encryptedLength);
+        chunkLength = CHUNK_PREFIX_LENGTH;
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        var header = (context.getAlgorithmName() + ":" + context.getKeyId()).getBytes(StandardCharsets.UTF_8);
+        output.write(MAGIC);
+        output.writeByte(VERSION);
+        output.writeShort(header.length);
+        output.write(header);
+        output.write(streamId);
+        output.writeInt(chunkSize);
+        headerWritten = true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+}
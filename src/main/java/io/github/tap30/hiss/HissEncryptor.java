@@ -1,128 +1,561 @@
 package io.github.tap30.hiss;
 
 import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.KeyedEncryptor;
 import io.github.tap30.hiss.key.Key;
+import io.github.tap30.hiss.utils.ExpiringCache;
 import io.github.tap30.hiss.utils.StringUtils;
 import lombok.Value;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 class HissEncryptor {
 
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
     /**
-     * Group 1 is algorithm name; group 2 is key ID; group 3 is base64 encoded encrypted content
-     * Example: #$$#{aes-128-gcm:default_key}{P4KYuz1zmvJC+vDIR4ej9bKX+e2uAapg040b1cLYxtjBx9RShwUbRFpUcQ==}#$$#
+     * Prefixes base64 encoded bytes of compressed content; e.g. <code>#$$#{aes-128-gcm:default_key}{deflate:...}#$$#</code>
      */
-    private static final Pattern ENCTYPTED_CONTENT_PATTERN = Pattern.compile("#\\$\\$#\\{(.*?):(.*?)}\\{(.+?)}#\\$\\$#");
-    private static final Charset CHARSET = StandardCharsets.UTF_8;
+    private static final String COMPRESSED_PREFIX = "deflate:";
+    private static final String END = "}#$$#";
+    private static final String COMPACT_END = String.valueOf(EncryptedContentScanner.COMPACT_END);
+    private static final Base64.Encoder COMPACT_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    /**
+     * Formatted contents up to this length are written into a per-thread buffer; longer ones into a new one.
+     */
+    private static final int MAX_FORMAT_BUFFER_LENGTH = 4096;
+    private static final ThreadLocal<byte[]> FORMAT_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[MAX_FORMAT_BUFFER_LENGTH]);
+    /**
+     * Compiled ad-hoc patterns, e.g. passed to {@link Hiss#encrypt(String, String)};
+     * bounded since callers may pass arbitrary patterns. Annotation patterns are compiled once per class instead.
+     */
+    private static final ExpiringCache<String, Pattern> PATTERN_CACHE =
+            new ExpiringCache<>(256, Duration.ofHours(1));
 
-    private final Map<String, Encryptor> encryptors;
-    private final Map<String, Key> keys;
-    private final String defaultEncryptionAlgorithm;
-    private final String defaultEncryptionKeyId;
+    /**
+     * Algorithm name to key ID to context; resolved once on instantiation.
+     */
+    private final Map<String, Map<String, EncryptionContext>> contexts;
+    /**
+     * Tag to contexts having it; more than one on tag collision.
+     */
+    private final Map<Integer, List<EncryptionContext>> contextsByTag;
+    private final EncryptionContext defaultContext;
+    /**
+     * Null if deterministic encryption is not configured.
+     */
+    private final EncryptionContext deterministicContext;
+    private final HissCompressor compressor;
+    private final boolean compactEnvelopeEnabled;
+    /**
+     * Tells whether a tag belongs to a loaded algorithm and key; content in compact format having other tags
+     * is neither taken for encrypted nor decrypted. Compact content is read whether or not it is written.
+     */
+    private final IntPredicate compactTags;
 
     public HissEncryptor(Map<String, Encryptor> encryptors,
                          Map<String, Key> keys,
                          String defaultEncryptionAlgorithm,
                          String defaultEncryptionKeyId) {
-        this.encryptors = Objects.requireNonNull(encryptors);
-        this.keys = Objects.requireNonNull(keys);
-        this.defaultEncryptionAlgorithm = StringUtils.requireNonBlank(defaultEncryptionAlgorithm);
-        this.defaultEncryptionKeyId = StringUtils.requireNonBlank(defaultEncryptionKeyId);
+        this(encryptors, keys, defaultEncryptionAlgorithm, defaultEncryptionKeyId, null, null);
+    }
+
+    public HissEncryptor(Map<String, Encryptor> encryptors,
+                         Map<String, Key> keys,
+                         String defaultEncryptionAlgorithm,
+                         String defaultEncryptionKeyId,
+                         String deterministicEncryptionAlgorithm,
+                         String deterministicEncryptionKeyId) {
+        this(encryptors, keys, defaultEncryptionAlgorithm, defaultEncryptionKeyId,
+                deterministicEncryptionAlgorithm, deterministicEncryptionKeyId, HissCompressor.disabled());
+    }
+
+    public HissEncryptor(Map<String, Encryptor> encryptors,
+                         Map<String, Key> keys,
+                         String defaultEncryptionAlgorithm,
+                         String defaultEncryptionKeyId,
+                         String deterministicEncryptionAlgorithm,
+                         String deterministicEncryptionKeyId,
+                         HissCompressor compressor) {
+        this(encryptors, keys, defaultEncryptionAlgorithm, defaultEncryptionKeyId,
+                deterministicEncryptionAlgorithm, deterministicEncryptionKeyId, compressor, false);
+    }
+
+    /**
+     * @param compactEnvelopeEnabled whether to encrypt in compact format, <code>#$2{content}#</code>;
+     *                               deterministic encryption keeps the default format.
+     */
+    public HissEncryptor(Map<String, Encryptor> encryptors,
+                         Map<String, Key> keys,
+                         String defaultEncryptionAlgorithm,
+                         String defaultEncryptionKeyId,
+                         String deterministicEncryptionAlgorithm,
+                         String deterministicEncryptionKeyId,
+                         HissCompressor compressor,
+                         boolean compactEnvelopeEnabled) {
+        Objects.requireNonNull(encryptors);
+        Objects.requireNonNull(keys);
+        StringUtils.requireNonBlank(defaultEncryptionAlgorithm);
+        StringUtils.requireNonBlank(defaultEncryptionKeyId);
+        this.contexts = createContexts(encryptors, keys);
+        var contextsByTag = new HashMap<Integer, List<EncryptionContext>>();
+        contexts.values().forEach(algorithmContexts -> algorithmContexts.values().forEach(context ->
+                contextsByTag.computeIfAbsent(context.getTag(), t -> new ArrayList<>()).add(context)));
+        this.contextsByTag = Map.copyOf(contextsByTag);
+        this.defaultContext = getContext(defaultEncryptionAlgorithm, defaultEncryptionKeyId);
+        this.deterministicContext = StringUtils.hasText(deterministicEncryptionKeyId)
+                ? getContext(StringUtils.requireNonBlank(deterministicEncryptionAlgorithm), deterministicEncryptionKeyId)
+                : null;
+        this.compressor = Objects.requireNonNull(compressor);
+        this.compactEnvelopeEnabled = compactEnvelopeEnabled;
+        this.compactTags = this.contextsByTag::containsKey;
     }
 
     public String encrypt(String content, String pattern) throws Exception {
+        return encrypt(content, pattern, Encrypted.Compression.DEFAULT);
+    }
+
+    /**
+     * @param compression whether to compress content before encryption; see {@link Encrypted#compression()}.
+     */
+    public String encrypt(String content, String pattern, Encrypted.Compression compression) throws Exception {
+        return encryptMatching(content, compilePattern(pattern), compression);
+    }
+
+    /**
+     * Variant of {@link #encrypt(String, String, Encrypted.Compression)} taking a compiled pattern;
+     * named apart so that passing null pattern to the former stays unambiguous.
+     *
+     * @param pattern null means to encrypt whole content.
+     */
+    public String encryptMatching(String content, Pattern pattern, Encrypted.Compression compression)
+            throws Exception {
+        return encrypt(defaultContext, content, pattern, compressor.isEnabled(compression), compactEnvelopeEnabled);
+    }
+
+    /**
+     * Encrypts UTF-8 bytes of plain content with default key and algorithm; the result is what
+     * {@link #encrypt(String, String, Encrypted.Compression)} returns for the content without pattern.
+     * Checking whether content is already encrypted is up to the caller.
+     */
+    String encryptBytes(byte[] contentBytes, Encrypted.Compression compression) throws Exception {
+        return encrypt(defaultContext, contentBytes, compressor.isEnabled(compression), compactEnvelopeEnabled);
+    }
+
+    /**
+     * Encrypts using deterministic algorithm and key; same content always results in same encrypted content.
+     *
+     * @throws IllegalStateException if deterministic encryption is not configured.
+     */
+    public String encryptDeterministic(String content, String pattern) throws Exception {
+        return encryptDeterministicMatching(content, compilePattern(pattern));
+    }
+
+    /**
+     * Variant of {@link #encryptDeterministic(String, String)} taking a compiled pattern.
+     *
+     * @param pattern null means to encrypt whole content.
+     */
+    public String encryptDeterministicMatching(String content, Pattern pattern) throws Exception {
+        if (deterministicContext == null) {
+            throw new IllegalStateException("Deterministic encryption is not configured; "
+                                            + "set default deterministic encryption key ID");
+        }
+        return encrypt(deterministicContext, content, pattern, false, false);
+    }
+
+    private String encrypt(EncryptionContext context,
+                           String content,
+                           Pattern pattern,
+                           boolean compressionEnabled,
+                           boolean compact) throws Exception {
         if (!StringUtils.hasText(content) || isEncrypted(content)) {
             return content;
         }
 
-        var encryptorAndKey = getEncryptorAndKey(defaultEncryptionAlgorithm, defaultEncryptionKeyId);
-
-        if (StringUtils.hasText(pattern)) {
-            StringBuilder result = new StringBuilder();
-            Matcher matcher = Pattern.compile(pattern).matcher(content);
+        if (pattern != null) {
+            StringBuilder result = null;
+            Matcher matcher = pattern.matcher(content);
+            var tail = 0;
 
             while (matcher.find()) {
                 var partToBeEncrypted = matcher.group();
-                var encryptedContent = encrypt(encryptorAndKey, partToBeEncrypted);
-                matcher.appendReplacement(result, Matcher.quoteReplacement(encryptedContent));
+                var encryptedContent = encrypt(context, partToBeEncrypted, compressionEnabled, compact);
+                if (result == null) {
+                    result = new StringBuilder(content.length() - partToBeEncrypted.length()
+                                               + encryptedContent.length());
+                }
+                result.append(content, tail, matcher.start()).append(encryptedContent);
+                tail = matcher.end();
             }
-            matcher.appendTail(result);
 
-            return result.toString();
+            return result != null ? result.append(content, tail, content.length()).toString() : content;
         } else {
-            return encrypt(encryptorAndKey, content);
+            return encrypt(context, content, compressionEnabled, compact);
         }
     }
 
     public String decrypt(String content) throws Exception {
-        if (!StringUtils.hasText(content) || !isEncrypted(content)) {
+        if (!StringUtils.hasText(content)) {
             return content;
         }
 
-        var result = new StringBuilder();
+        var scanner = new EncryptedContentScanner(content, compactTags);
+        if (!scanner.find()) {
+            return content;
+        }
+        if (scanner.isWhole()) {
+            return decrypt(scanner);
+        }
 
-        var matcher = ENCTYPTED_CONTENT_PATTERN.matcher(content);
-        while (matcher.find()) {
-            var algorithm = matcher.group(1);
-            var keyId = matcher.group(2);
-            var encryptedContent = matcher.group(3);
+        var result = new StringBuilder(content.length());
+        var tail = 0;
+        do {
+            result.append(content, tail, scanner.start()).append(decrypt(scanner));
+            tail = scanner.end();
+        } while (scanner.find());
+        result.append(content, tail, content.length());
 
-            var decryptedContent = decrypt(getEncryptorAndKey(algorithm, keyId), encryptedContent);
-            matcher.appendReplacement(result, Matcher.quoteReplacement(decryptedContent));
+        return result.toString();
+    }
+
+    /**
+     * Encrypts content with default key and algorithm into {@link HissBinaryFormat}.
+     *
+     * @param compression whether to compress content before encryption; see {@link Encrypted#compression()}.
+     * @return null for null content, and content itself if it is empty or already encrypted.
+     */
+    public byte[] encryptBinary(byte[] content, Encrypted.Compression compression) throws Exception {
+        if (content == null || content.length == 0 || isEncryptedBinary(content)) {
+            return content;
         }
-        matcher.appendTail(result);
+        var compressedBytes = compressor.isEnabled(compression) ? compressor.compress(content) : null;
+        // Compressed bytes start with the marker, which is their flag
+        var plainBytes = compressedBytes != null ? compressedBytes : HissBinaryFormat.flagRaw(content);
+        var encryptor = defaultContext.getEncryptor();
+        var header = defaultContext.getBinaryHeader();
+        var maxEncryptedLength = encryptor.getMaxEncryptedLength(plainBytes.length);
+        if (maxEncryptedLength < 0) {
+            var encryptedBytes = encryptor.encrypt(plainBytes);
+            var result = Arrays.copyOf(header, header.length + encryptedBytes.length);
+            System.arraycopy(encryptedBytes, 0, result, header.length, encryptedBytes.length);
+            return result;
+        }
+        // Encrypted bytes are written right after the header, so nothing is copied unless the bound is loose
+        var result = Arrays.copyOf(header, header.length + maxEncryptedLength);
+        var encryptedLength = encryptor.encrypt(ByteBuffer.wrap(plainBytes),
+                ByteBuffer.wrap(result, header.length, maxEncryptedLength));
+        return encryptedLength == maxEncryptedLength ? result : Arrays.copyOf(result, header.length + encryptedLength);
+    }
 
-        return result.toString();
+    /**
+     * Decrypts content in {@link HissBinaryFormat}.
+     *
+     * @return null for null content, and content itself if it is not {@link #isEncryptedBinary(byte[]) encrypted};
+     * i.e. if it has no binary header or its tag belongs to no loaded algorithm and key.
+     * @throws IllegalArgumentException if compression flag of content is unknown.
+     */
+    public byte[] decryptBinary(byte[] content) throws Exception {
+        if (!isEncryptedBinary(content)) {
+            return content;
+        }
+        var decryptedBytes = decryptTagged(content, HissBinaryFormat.TAG_OFFSET);
+        if (decryptedBytes.length > 0 && decryptedBytes[0] == HissBinaryFormat.COMPRESSED) {
+            return compressor.decompress(decryptedBytes);
+        }
+        if (decryptedBytes.length > 0 && decryptedBytes[0] == HissBinaryFormat.RAW) {
+            return Arrays.copyOfRange(decryptedBytes, 1, decryptedBytes.length);
+        }
+        throw new IllegalArgumentException("Compression flag of encrypted content is unknown");
+    }
+
+    /**
+     * @return whether content is in {@link HissBinaryFormat} and its tag belongs to a loaded algorithm and key;
+     * checking the tag as well makes plain bytes being taken for encrypted ones unlikely.
+     */
+    public boolean isEncryptedBinary(byte[] content) {
+        return content != null
+               && HissBinaryFormat.hasHeader(content)
+               && contextsByTag.containsKey(HissBinaryFormat.getTag(content));
+    }
+
+    /**
+     * @return a stream which encrypts with default key and algorithm in chunks and writes to output;
+     * see {@link HissEncryptingOutputStream}.
+     */
+    public OutputStream encryptingStream(OutputStream output) {
+        return new HissEncryptingOutputStream(Objects.requireNonNull(output), defaultContext);
+    }
+
+    /**
+     * @return a stream which decrypts what {@link #encryptingStream(OutputStream)} has written to input.
+     */
+    public InputStream decryptingStream(InputStream input) {
+        return new HissDecryptingInputStream(Objects.requireNonNull(input), this::getContext);
     }
 
+    /**
+     * @return whether content has an encrypted part, in default format or in compact format with a known tag.
+     */
     public boolean isEncrypted(String content) {
-        return isHavingEncryptedContentPattern(content);
+        return EncryptedContentScanner.contains(content, compactTags);
+    }
+
+    /**
+     * @return the beginning of encrypted content up to the encoded bytes; e.g. <code>#$$#{aes-128-gcm:default_key}{</code>
+     */
+    static String formatHeader(String algorithmName, String keyId) {
+        return "#$$#{" + algorithmName + ":" + keyId + "}{";
+    }
+
+    static String formatEncryptedBytes(String header, byte[] bytes) {
+        return formatEncryptedBytes(header, "", bytes);
     }
 
-    static String formatEncryptedBytes(String algorithmName, String keyId, byte[] bytes) {
-        var base64Encoded = Base64.getEncoder().encodeToString(bytes);
-        return "#$$#{" + algorithmName + ":" + keyId + "}{" + base64Encoded + "}#$$#";
+    static String formatEncryptedBytes(String header, String prefix, byte[] bytes) {
+        return format(header, prefix, bytes, Base64.getEncoder(), END);
+    }
+
+    /**
+     * @param compactHeader start marker followed by encoded tag; e.g. <code>#$2ZbOn</code>
+     * @return <code>#$2{tag}{bytes}#</code> where bytes are base64url encoded without padding.
+     */
+    static String formatCompactEncryptedBytes(String compactHeader, byte[] bytes) {
+        return format(compactHeader, "", bytes, COMPACT_ENCODER, COMPACT_END);
+    }
+
+    /**
+     * @return the beginning of encrypted content in compact format up to the encoded bytes; e.g. <code>#$2ZbOn</code>
+     */
+    static String formatCompactHeader(String algorithmName, String keyId) {
+        return EncryptedContentScanner.COMPACT_START
+               + COMPACT_ENCODER.encodeToString(HissHasher.createTag(algorithmName, keyId));
+    }
+
+    /**
+     * Writes header, prefix, base64 encoded bytes and end into one buffer whose length is known beforehand;
+     * apart from the resulting string, nothing is allocated unless the result is long.
+     */
+    private static String format(String header, String prefix, byte[] bytes, Base64.Encoder encoder, String end) {
+        if (!isLatin1(header) || !isLatin1(prefix)) {
+            return header + prefix + encoder.encodeToString(bytes) + end;
+        }
+        var start = header.length() + prefix.length();
+        // Padded length; the encoder tells the actual one
+        var maxLength = start + (bytes.length + 2) / 3 * 4 + end.length();
+        var buffer = maxLength <= MAX_FORMAT_BUFFER_LENGTH ? FORMAT_BUFFER.get() : new byte[maxLength];
+        // The encoder writes at the beginning of buffer; so encoded bytes are moved after header and prefix
+        var encodedLength = encoder.encode(bytes, buffer);
+        System.arraycopy(buffer, 0, buffer, start, encodedLength);
+        writeLatin1(header, buffer, 0);
+        writeLatin1(prefix, buffer, header.length());
+        writeLatin1(end, buffer, start + encodedLength);
+        return new String(buffer, 0, start + encodedLength + end.length(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isLatin1(String text) {
+        for (var i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xff) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeLatin1(String text, byte[] buffer, int offset) {
+        for (var i = 0; i < text.length(); i++) {
+            buffer[offset + i] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * @return the compiled pattern, cached; or null if pattern has no text, meaning to match all.
+     * @throws java.util.regex.PatternSyntaxException if pattern is invalid.
+     */
+    static Pattern compilePattern(String pattern) {
+        if (!StringUtils.hasText(pattern)) {
+            return null;
+        }
+        var compiledPattern = PATTERN_CACHE.get(pattern);
+        if (compiledPattern == null) {
+            compiledPattern = Pattern.compile(pattern);
+            PATTERN_CACHE.put(pattern, compiledPattern);
+        }
+        return compiledPattern;
     }
 
+    /**
+     * @return whether content has an encrypted (or hashed) part in default format.
+     */
     static boolean isHavingEncryptedContentPattern(String content) {
-        return ENCTYPTED_CONTENT_PATTERN.matcher(content).find();
+        return EncryptedContentScanner.contains(content);
     }
 
-    private String encrypt(EncryptorAndKey encryptorAndKey, String content) throws Exception {
-        var encryptor = encryptorAndKey.getEncryptor();
-        var key = encryptorAndKey.getKey();
+    private String encrypt(EncryptionContext context,
+                           String content,
+                           boolean compressionEnabled,
+                           boolean compact) throws Exception {
+        return encrypt(context, content.getBytes(CHARSET), compressionEnabled, compact);
+    }
 
-        var contentBytes = content.getBytes(CHARSET);
-        var encryptedBytes = encryptor.encrypt(key.getKey(), contentBytes);
-        return formatEncryptedBytes(encryptor.getName(), key.getId(), encryptedBytes);
+    /**
+     * @param compact whether to format in compact format; which, having no compression prefix, relies on
+     *                the encrypted compression marker alone.
+     */
+    private String encrypt(EncryptionContext context,
+                           byte[] contentBytes,
+                           boolean compressionEnabled,
+                           boolean compact) throws Exception {
+        var compressedBytes = compressionEnabled ? compressor.compress(contentBytes) : null;
+        if (compact) {
+            var encryptedBytes = context.getEncryptor().encrypt(compressedBytes != null ? compressedBytes : contentBytes);
+            return formatCompactEncryptedBytes(context.getCompactHeader(), encryptedBytes);
+        }
+        if (compressedBytes != null) {
+            var encryptedBytes = context.getEncryptor().encrypt(compressedBytes);
+            return formatEncryptedBytes(context.getHeader(), COMPRESSED_PREFIX, encryptedBytes);
+        }
+        var encryptedBytes = context.getEncryptor().encrypt(contentBytes);
+        return formatEncryptedBytes(context.getHeader(), encryptedBytes);
     }
 
-    private String decrypt(EncryptorAndKey encryptorAndKey, String content) throws Exception {
-        var encryptor = encryptorAndKey.getEncryptor();
-        var key = encryptorAndKey.getKey();
+    private String decrypt(EncryptedContentScanner scanner) throws Exception {
+        if (scanner.isCompact()) {
+            return decryptCompact(scanner.encodedContent());
+        }
+        return decrypt(getContext(scanner.algorithm(), scanner.keyId()), scanner.encodedContent());
+    }
 
-        var contentBytes = Base64.getDecoder().decode(content);
-        var decryptedBytes = encryptor.decrypt(key.getKey(), contentBytes);
+    /**
+     * Decrypts content in compact format, whose encoded bytes are the tag followed by encrypted bytes.
+     */
+    private String decryptCompact(String content) throws Exception {
+        var decryptedBytes = decryptTagged(Base64.getUrlDecoder().decode(content), 0);
+        if (HissCompressor.isCompressed(decryptedBytes)) {
+            decryptedBytes = compressor.decompress(decryptedBytes);
+        }
         return new String(decryptedBytes, CHARSET);
     }
 
-    private EncryptorAndKey getEncryptorAndKey(String algorithmName, String keyId) {
-        var encryptor = Objects.requireNonNull(encryptors.get(algorithmName), "Algorithm not supported: " + algorithmName);
-        var key = Objects.requireNonNull(keys.get(keyId), "Key not found: " + keyId);
-        return new EncryptorAndKey(encryptor, key);
+    /**
+     * Decrypts bytes following the tag at offset, trying each context having the tag in turn.
+     */
+    private byte[] decryptTagged(byte[] content, int offset) throws Exception {
+        var tag = HissHasher.tagToInt(content, offset);
+        var candidates = contextsByTag.get(tag);
+        if (candidates == null) {
+            throw new NullPointerException("Algorithm and key not found for tag: " + Integer.toHexString(tag));
+        }
+        var encryptedOffset = offset + HissHasher.TAG_LENGTH;
+        byte[] decryptedBytes = null;
+        for (var i = 0; decryptedBytes == null; i++) {
+            try {
+                decryptedBytes = decrypt(candidates.get(i).getEncryptor(), content, encryptedOffset);
+            } catch (Exception e) {
+                if (i == candidates.size() - 1) {
+                    throw e;
+                }
+            }
+        }
+        return decryptedBytes;
+    }
+
+    /**
+     * Decrypts bytes of content from offset on, without copying them first if encryptor reports its lengths.
+     */
+    private static byte[] decrypt(KeyedEncryptor encryptor, byte[] content, int offset) throws Exception {
+        var length = content.length - offset;
+        var maxDecryptedLength = encryptor.getMaxDecryptedLength(length);
+        if (maxDecryptedLength < 0) {
+            return encryptor.decrypt(Arrays.copyOfRange(content, offset, content.length));
+        }
+        var output = new byte[maxDecryptedLength];
+        var decryptedLength = encryptor.decrypt(ByteBuffer.wrap(content, offset, length), ByteBuffer.wrap(output));
+        return decryptedLength == output.length ? output : Arrays.copyOf(output, decryptedLength);
+    }
+
+    /**
+     * Decompresses content having compression prefix; the prefix must agree with the encrypted compression marker.
+     */
+    private String decrypt(EncryptionContext context, String content) throws Exception {
+        var compressed = content.startsWith(COMPRESSED_PREFIX);
+        var contentBytes = Base64.getDecoder().decode(compressed ? content.substring(COMPRESSED_PREFIX.length()) : content);
+        var decryptedBytes = context.getEncryptor().decrypt(contentBytes);
+        if (compressed != HissCompressor.isCompressed(decryptedBytes)) {
+            throw new IllegalArgumentException("Compression flag of encrypted content does not match its content");
+        }
+        if (compressed) {
+            decryptedBytes = compressor.decompress(decryptedBytes);
+        }
+        return new String(decryptedBytes, CHARSET);
+    }
+
+    private EncryptionContext getContext(String algorithmName, String keyId) {
+        var algorithmContexts = contexts.get(algorithmName);
+        if (algorithmContexts == null) {
+            throw new NullPointerException("Algorithm not supported: " + algorithmName);
+        }
+        var context = algorithmContexts.get(keyId);
+        if (context == null) {
+            throw new NullPointerException("Key not found: " + keyId);
+        }
+        return context;
+    }
+
+    private static Map<String, Map<String, EncryptionContext>> createContexts(Map<String, Encryptor> encryptors,
+                                                                              Map<String, Key> keys) {
+        var contexts = new HashMap<String, Map<String, EncryptionContext>>();
+        encryptors.forEach((algorithmName, encryptor) -> {
+            var algorithmContexts = new HashMap<String, EncryptionContext>();
+            keys.forEach((keyId, key) -> algorithmContexts.put(keyId, new EncryptionContext(
+                    algorithmName,
+                    keyId,
+                    encryptor.withKey(key.getKey()),
+                    formatHeader(encryptor.getName(), key.getId()),
+                    formatCompactHeader(encryptor.getName(), key.getId()),
+                    HissBinaryFormat.createHeader(HissHasher.createTag(encryptor.getName(), key.getId()))
+            )));
+            contexts.put(algorithmName, Map.copyOf(algorithmContexts));
+        });
+        return Map.copyOf(contexts);
     }
 
     @Value
-    private static class EncryptorAndKey {
-        Encryptor encryptor;
-        Key key;
+    static class EncryptionContext {
+        /**
+         * Algorithm name and key ID by which this context is looked up.
+         */
+        String algorithmName;
+        String keyId;
+        KeyedEncryptor encryptor;
+        String header;
+        /**
+         * Start marker followed by encoded tag identifying algorithm and key; see {@link #formatCompactHeader}.
+         */
+        String compactHeader;
+        /**
+         * See {@link HissBinaryFormat}.
+         */
+        byte[] binaryHeader;
+
+        int getTag() {
+            return HissBinaryFormat.getTag(binaryHeader);
+        }
     }
 
 }
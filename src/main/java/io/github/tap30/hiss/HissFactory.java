@@ -3,16 +3,21 @@ package io.github.tap30.hiss;
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import io.github.tap30.hiss.encryptor.Encryptor;
 import io.github.tap30.hiss.encryptor.impl.AesCbcPkcs5PaddingEncryptor;
+import io.github.tap30.hiss.encryptor.impl.AesGcm96Encryptor;
 import io.github.tap30.hiss.encryptor.impl.AesGcmNoPaddingEncryptor;
+import io.github.tap30.hiss.encryptor.impl.AesSivEncryptor;
+import io.github.tap30.hiss.encryptor.impl.ChaCha20Poly1305Encryptor;
 import io.github.tap30.hiss.encryptor.impl.TapsiAesCbcEncryptor;
 import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
 import io.github.tap30.hiss.hasher.Hasher;
 import io.github.tap30.hiss.hasher.impl.HmacSha256Hasher;
+import io.github.tap30.hiss.hasher.impl.HmacSha512t256Hasher;
 import io.github.tap30.hiss.hasher.impl.TapsiHmacSha256Hasher;
 import io.github.tap30.hiss.key.KeyHashGenerator;
 import io.github.tap30.hiss.properties.HissProperties;
 import io.github.tap30.hiss.properties.HissPropertiesProvider;
 import io.github.tap30.hiss.properties.HissPropertiesValidator;
+import io.github.tap30.hiss.provider.CryptoProviderProber;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -70,17 +75,31 @@ public class HissFactory {
         var keyHashGenerator = keyHashGeneratorProvider.get();
         new HissPropertiesValidator(keyHashGenerator, encryptorsMap, hashersMap).validate(hissProperties);
 
+        if (hissProperties.isCryptoProviderProbingEnabled()) {
+            probeCryptoProviders(encryptorsMap, hashersMap);
+        }
+
         var hissEncryptor = new HissEncryptor(
                 encryptorsMap,
                 hissProperties.getKeys(),
                 hissProperties.getDefaultEncryptionAlgorithm(),
-                hissProperties.getDefaultEncryptionKeyId()
+                hissProperties.getDefaultEncryptionKeyId(),
+                hissProperties.getDefaultDeterministicEncryptionAlgorithm(),
+                hissProperties.getDefaultDeterministicEncryptionKeyId(),
+                new HissCompressor(hissProperties.isCompressionEnabled(),
+                        hissProperties.getCompressionThreshold(),
+                        hissProperties.getCompressionMaxLength()),
+                hissProperties.isCompactEnvelopeEnabled()
         );
         var hissHasher = new HissHasher(
                 hashersMap,
                 hissProperties.getKeys(),
                 hissProperties.getDefaultHashingAlgorithm(),
-                hissProperties.getDefaultHashingKeyId()
+                hissProperties.getDefaultHashingKeyId(),
+                hissProperties.getAdditionalHashingSchemes(),
+                hissProperties.getHashCacheMaxSize(),
+                hissProperties.getHashCacheTtl(),
+                hissEncryptor::isEncrypted
         );
         var hissObjectEncryptor = new HissObjectEncryptor(hissEncryptor, hissHasher);
 
@@ -98,6 +117,9 @@ public class HissFactory {
         encryptors.add(new AesGcmNoPaddingEncryptor());
         encryptors.add(new TapsiAesCbcEncryptor());
         encryptors.add(new TapsiAesGcmEncryptor());
+        encryptors.add(new AesGcm96Encryptor());
+        encryptors.add(new AesSivEncryptor());
+        encryptors.add(new ChaCha20Poly1305Encryptor());
         encryptors = Collections.unmodifiableSet(encryptors);
         return encryptors;
     }
@@ -106,10 +128,16 @@ public class HissFactory {
         hashers = new HashSet<>(hashers);
         hashers.add(new HmacSha256Hasher());
         hashers.add(new TapsiHmacSha256Hasher());
+        hashers.add(new HmacSha512t256Hasher());
         hashers = Collections.unmodifiableSet(hashers);
         return hashers;
     }
 
+    private static void probeCryptoProviders(Map<String, Encryptor> encryptors, Map<String, Hasher> hashers) {
+        var report = new CryptoProviderProber().probe(encryptors.values(), hashers.values());
+        logger.log(Level.INFO, "Crypto providers probed:\n{0}", report.format());
+    }
+
     private static void logInitializingHiss(HissProperties hissProperties,
                                             Map<String, Encryptor> encryptors,
                                             Map<String, Hasher> hashers) {
@@ -119,14 +147,32 @@ public class HissFactory {
                         "  Default Encryption Algorithm: {2}\n" +
                         "  Default Hashing Key ID: {3}\n" +
                         "  Default Hashing Algorithm: {4}\n" +
-                        "  Encryptors: {5}\n" +
-                        "  Hashers: {6}\n",
+                        "  Additional Hashing Schemes: {5}\n" +
+                        "  Default Deterministic Encryption Key ID: {6}\n" +
+                        "  Default Deterministic Encryption Algorithm: {7}\n" +
+                        "  Compression Enabled: {8}\n" +
+                        "  Compression Threshold: {9}\n" +
+                        "  Compression Max Length: {10}\n" +
+                        "  Compact Envelope Enabled: {11}\n" +
+                        "  Hash Cache Max Size: {12}\n" +
+                        "  Hash Cache TTL: {13}\n" +
+                        "  Encryptors: {14}\n" +
+                        "  Hashers: {15}\n",
                 new Object[]{
                         hissProperties.getKeys().keySet(),
                         hissProperties.getDefaultEncryptionKeyId(),
                         hissProperties.getDefaultEncryptionAlgorithm(),
                         hissProperties.getDefaultHashingKeyId(),
                         hissProperties.getDefaultHashingAlgorithm(),
+                        hissProperties.getAdditionalHashingSchemes(),
+                        hissProperties.getDefaultDeterministicEncryptionKeyId(),
+                        hissProperties.getDefaultDeterministicEncryptionAlgorithm(),
+                        hissProperties.isCompressionEnabled(),
+                        String.valueOf(hissProperties.getCompressionThreshold()),
+                        String.valueOf(hissProperties.getCompressionMaxLength()),
+                        hissProperties.isCompactEnvelopeEnabled(),
+                        String.valueOf(hissProperties.getHashCacheMaxSize()),
+                        hissProperties.getHashCacheTtl(),
                         encryptors.keySet(),
                         hashers.keySet()
                 });
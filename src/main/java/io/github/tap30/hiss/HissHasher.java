@@ -1,70 +1,769 @@
 package io.github.tap30.hiss;
 
 import io.github.tap30.hiss.hasher.Hasher;
+import io.github.tap30.hiss.hasher.KeyedHasher;
 import io.github.tap30.hiss.key.Key;
+import io.github.tap30.hiss.properties.HashingScheme;
+import io.github.tap30.hiss.utils.ExpiringCache;
 import io.github.tap30.hiss.utils.StringUtils;
+import lombok.Value;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 class HissHasher {
 
     private static final Charset CHARSET = StandardCharsets.UTF_8;
+    /**
+     * Length of the tag identifying algorithm and key in compact and raw hashes; 3 bytes are 4 base64 characters.
+     */
+    static final int TAG_LENGTH = 3;
+    /**
+     * Minimum length of truncated hashes in bytes.
+     */
+    static final int MIN_HASH_LENGTH = 8;
+    private static final Base64.Encoder COMPACT_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final String HASH_END = "}#$$#";
+    /**
+     * Length of search tokens' hashes in bytes.
+     */
+    static final int SEARCH_TOKEN_HASH_LENGTH = 8;
+    /**
+     * Search tokens are hashed with a key derived from the hashing key by hashing this;
+     * so tokens differ from hashes of same contents.
+     */
+    private static final byte[] SEARCH_TOKEN_KEY_INFO = "hiss-search-tokens".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Composite hashes are hashed with a key derived from the hashing key by hashing this; so no single content,
+     * whatever its bytes, has the hash of a composite.
+     */
+    private static final byte[] COMPOSITE_HASH_KEY_INFO = "hiss-composite-hashes".getBytes(StandardCharsets.US_ASCII);
 
-    private final Map<String, Hasher> hashers;
-    private final Map<String, Key> keys;
-    private final String defaultHashingAlgorithm;
-    private final String defaultHashingKeyId;
+    /**
+     * Algorithm name to key ID to context; resolved once on instantiation.
+     */
+    private final Map<String, Map<String, HashingContext>> contexts;
+    /**
+     * Contexts by header and by tag, to verify hashes of any loaded algorithm and key.
+     */
+    private final Map<String, HashingContext> contextsByHeader;
+    private final Map<Integer, List<HashingContext>> contextsByTag;
+    private final HashingContext defaultContext;
+    private final Hasher defaultHasher;
+    /**
+     * Bound to the key derived for search tokens; created on first use.
+     */
+    private volatile KeyedHasher searchTokenHasher;
+    /**
+     * Bound to the key derived for composite hashes; created on first use.
+     */
+    private volatile KeyedHasher compositeHasher;
+    /**
+     * Default context's header, prefixed so cached composite hashes are told apart from hashes of single contents.
+     */
+    private final String compositeCacheScope;
+    /**
+     * Default context followed by contexts of additional hashing schemes, in the configured order.
+     */
+    private final List<HashingContext> allContexts;
+    /**
+     * Null if hash caching is disabled.
+     */
+    private final ExpiringCache<HashCacheKey, byte[]> cache;
+    private final Predicate<String> encryptedContentDetector;
 
     public HissHasher(Map<String, Hasher> hashers,
                       Map<String, Key> keys,
                       String defaultHashingAlgorithm,
                       String defaultHashingKeyId) {
-        this.hashers = Objects.requireNonNull(hashers);
-        this.keys = Objects.requireNonNull(keys);
-        this.defaultHashingAlgorithm = StringUtils.requireNonBlank(defaultHashingAlgorithm);
-        this.defaultHashingKeyId = StringUtils.requireNonBlank(defaultHashingKeyId);
+        this(hashers, keys, defaultHashingAlgorithm, defaultHashingKeyId, List.of(), 0, null);
+    }
+
+    /**
+     * @param additionalHashingSchemes schemes whose hashes are calculated alongside default ones by
+     *                                 {@link #hashes(String, String, int)} and its variants.
+     * @param cacheMaxSize             maximum number of cached hashes; zero disables caching.
+     * @param cacheTtl                 time to live of cached hashes; required if caching is enabled.
+     */
+    public HissHasher(Map<String, Hasher> hashers,
+                      Map<String, Key> keys,
+                      String defaultHashingAlgorithm,
+                      String defaultHashingKeyId,
+                      List<HashingScheme> additionalHashingSchemes,
+                      int cacheMaxSize,
+                      Duration cacheTtl) {
+        this(hashers, keys, defaultHashingAlgorithm, defaultHashingKeyId, additionalHashingSchemes,
+                cacheMaxSize, cacheTtl, HissEncryptor::isHavingEncryptedContentPattern);
+    }
+
+    /**
+     * @param encryptedContentDetector tells whether content is encrypted, in which case it is not hashed;
+     *                                 e.g. {@link HissEncryptor#isEncrypted(String)}, to skip content in compact
+     *                                 format if enabled.
+     */
+    public HissHasher(Map<String, Hasher> hashers,
+                      Map<String, Key> keys,
+                      String defaultHashingAlgorithm,
+                      String defaultHashingKeyId,
+                      List<HashingScheme> additionalHashingSchemes,
+                      int cacheMaxSize,
+                      Duration cacheTtl,
+                      Predicate<String> encryptedContentDetector) {
+        Objects.requireNonNull(hashers);
+        Objects.requireNonNull(keys);
+        StringUtils.requireNonBlank(defaultHashingAlgorithm);
+        StringUtils.requireNonBlank(defaultHashingKeyId);
+        this.contexts = createContexts(hashers, keys);
+        var contextsByHeader = new HashMap<String, HashingContext>();
+        var contextsByTag = new HashMap<Integer, List<HashingContext>>();
+        contexts.values().forEach(algorithmContexts -> algorithmContexts.values().forEach(context -> {
+            contextsByHeader.put(context.getHeader(), context);
+            contextsByTag.computeIfAbsent(tagToInt(context.getTag(), 0), t -> new ArrayList<>()).add(context);
+        }));
+        this.contextsByHeader = Map.copyOf(contextsByHeader);
+        this.contextsByTag = Map.copyOf(contextsByTag);
+        this.defaultContext = getContext(defaultHashingAlgorithm, defaultHashingKeyId);
+        this.defaultHasher = hashers.get(defaultHashingAlgorithm);
+        this.compositeCacheScope = "composite:" + defaultContext.getHeader();
+        this.encryptedContentDetector = Objects.requireNonNull(encryptedContentDetector);
+        var allContexts = new ArrayList<HashingContext>();
+        allContexts.add(defaultContext);
+        for (var scheme : Objects.requireNonNull(additionalHashingSchemes)) {
+            allContexts.add(getContext(scheme.getAlgorithm(), scheme.getKeyId()));
+        }
+        this.allContexts = List.copyOf(allContexts);
+        this.cache = cacheMaxSize > 0 ? new ExpiringCache<>(cacheMaxSize, Objects.requireNonNull(cacheTtl)) : null;
     }
 
     public String hash(String content, String pattern) throws Exception {
-        if (!StringUtils.hasText(content) || HissEncryptor.isHavingEncryptedContentPattern(content)) {
+        return hash(content, pattern, 0);
+    }
+
+    /**
+     * @param length length of hash in bytes to be kept; zero means full hash.
+     */
+    public String hash(String content, String pattern, int length) throws Exception {
+        return hashMatching(content, HissEncryptor.compilePattern(pattern), length);
+    }
+
+    /**
+     * Variant of {@link #hash(String, String, int)} taking a compiled pattern; named apart so that passing null
+     * pattern to the former stays unambiguous.
+     *
+     * @param pattern null means to hash whole content.
+     */
+    public String hashMatching(String content, Pattern pattern, int length) throws Exception {
+        checkLength(length);
+        if (!StringUtils.hasText(content) || encryptedContentDetector.test(content)) {
             return content;
         }
+        return hash(defaultContext, content, pattern, length);
+    }
+
+    /**
+     * Hashes bytes of plain content; for UTF-8 bytes, the result is what {@link #hash(String, String, int)} returns
+     * for the content without pattern. Checking whether content is already hashed is up to the caller.
+     */
+    String hashBytes(byte[] contentBytes, int length) throws Exception {
+        checkLength(length);
+        var hash = truncate(calculateHash(defaultContext, contentBytes), length);
+        return HissEncryptor.formatEncryptedBytes(defaultContext.getHeader(), hash);
+    }
+
+    /**
+     * Raw variant of {@link #hashBytes(byte[], int)}; see {@link #hashToBytes(String, int)}.
+     */
+    byte[] hashBytesToBytes(byte[] contentBytes, int length) throws Exception {
+        checkLength(length);
+        return hashToBytes(defaultContext, contentBytes, length);
+    }
+
+    /**
+     * Hashes content under default and additional hashing schemes; converts content to bytes once
+     * unless there is a pattern.
+     *
+     * @return hashes in the order of schemes, default first; each is what {@link #hash(String, String, int)}
+     * returns under that scheme.
+     */
+    public List<String> hashes(String content, String pattern, int length) throws Exception {
+        return hashesMatching(content, HissEncryptor.compilePattern(pattern), length);
+    }
+
+    /**
+     * Variant of {@link #hashes(String, String, int)} taking a compiled pattern.
+     *
+     * @param pattern null means to hash whole content.
+     */
+    public List<String> hashesMatching(String content, Pattern pattern, int length) throws Exception {
+        checkLength(length);
+        if (!StringUtils.hasText(content) || encryptedContentDetector.test(content)) {
+            return Collections.nCopies(allContexts.size(), content);
+        }
+        var hashes = new String[allContexts.size()];
+        if (pattern != null) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = hash(allContexts.get(i), content, pattern, length);
+            }
+        } else {
+            var contentBytes = content.getBytes(CHARSET);
+            for (int i = 0; i < hashes.length; i++) {
+                var context = allContexts.get(i);
+                var hash = truncate(calculateHash(context, contentBytes), length);
+                hashes[i] = HissEncryptor.formatEncryptedBytes(context.getHeader(), hash);
+            }
+        }
+        return Arrays.asList(hashes);
+    }
+
+    /**
+     * Hashes into URL-safe unpadded base64 of {@link #hashToBytes(String, int)};
+     * the first 4 characters identify algorithm and key.
+     *
+     * @param length length of hash in bytes to be kept; zero means full hash.
+     * @throws IllegalArgumentException if content is encrypted; see {@link #hashToBytes(String, int)}.
+     */
+    public String hashCompact(String content, int length) throws Exception {
+        if (!StringUtils.hasText(content)) {
+            return content;
+        }
+        return COMPACT_ENCODER.encodeToString(hashToBytes(content, length));
+    }
+
+    /**
+     * Hashes into {@link #TAG_LENGTH} bytes identifying algorithm and key followed by the (truncated) hash.
+     *
+     * @param length length of hash in bytes to be kept; zero means full hash.
+     * @return null for null content and empty array for empty content.
+     * @throws IllegalArgumentException if content is encrypted; unlike {@link #hash(String, String, int)},
+     *                                  which returns such content as is, there is nothing to return in place of
+     *                                  a hash in this format, and hashing ciphertext would silently give a hash
+     *                                  which matches nothing.
+     */
+    public byte[] hashToBytes(String content, int length) throws Exception {
+        checkLength(length);
+        if (content == null) {
+            return null;
+        }
+        if (content.isEmpty()) {
+            return new byte[0];
+        }
+        requireNotEncrypted(content);
+        return hashToBytes(defaultContext, content.getBytes(CHARSET), length);
+    }
+
+    /**
+     * Compact variant of {@link #hashes(String, String, int)}; see {@link #hashCompact(String, int)}.
+     */
+    public List<String> hashesCompact(String content, int length) throws Exception {
+        var bytes = hashesToBytes(content, length);
+        var hashes = new String[bytes.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = StringUtils.hasText(content) ? COMPACT_ENCODER.encodeToString(bytes.get(i)) : content;
+        }
+        return Arrays.asList(hashes);
+    }
+
+    /**
+     * Raw variant of {@link #hashes(String, String, int)}; see {@link #hashToBytes(String, int)}.
+     *
+     * @throws IllegalArgumentException if content is encrypted.
+     */
+    public List<byte[]> hashesToBytes(String content, int length) throws Exception {
+        checkLength(length);
+        var hashes = new byte[allContexts.size()][];
+        if (content != null) {
+            if (!content.isEmpty()) {
+                requireNotEncrypted(content);
+            }
+            var contentBytes = content.getBytes(CHARSET);
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = content.isEmpty() ? new byte[0] : hashToBytes(allContexts.get(i), contentBytes, length);
+            }
+        }
+        return Arrays.asList(hashes);
+    }
 
-        var hasher = Objects.requireNonNull(hashers.get(defaultHashingAlgorithm),
-                "Algorithm not supported: " + defaultHashingAlgorithm);
-        var key = Objects.requireNonNull(keys.get(defaultHashingKeyId),
-                "Key not found: " + defaultHashingKeyId);
+    /**
+     * Hashes contents together in one pass over {@link #encodeComposite(List)}; the result is in the default format.
+     *
+     * @param length length of hash in bytes to be kept; zero means full hash.
+     * @return null if contents is null.
+     */
+    public String hashComposite(List<String> contents, int length) throws Exception {
+        checkLength(length);
+        if (contents == null) {
+            return null;
+        }
+        var hash = truncate(calculateCompositeHash(contents), length);
+        return HissEncryptor.formatEncryptedBytes(defaultContext.getHeader(), hash);
+    }
+
+    /**
+     * Compact variant of {@link #hashComposite(List, int)}; see {@link #hashCompact(String, int)}.
+     */
+    public String hashCompositeCompact(List<String> contents, int length) throws Exception {
+        var bytes = hashCompositeToBytes(contents, length);
+        return bytes != null ? COMPACT_ENCODER.encodeToString(bytes) : null;
+    }
+
+    /**
+     * Raw variant of {@link #hashComposite(List, int)}; see {@link #hashToBytes(String, int)}.
+     */
+    public byte[] hashCompositeToBytes(List<String> contents, int length) throws Exception {
+        checkLength(length);
+        if (contents == null) {
+            return null;
+        }
+        return prependTag(defaultContext.getTag(), truncate(calculateCompositeHash(contents), length));
+    }
 
-        if (StringUtils.hasText(pattern)) {
-            StringBuilder result = new StringBuilder();
-            Matcher matcher = Pattern.compile(pattern).matcher(content);
+    /**
+     * Calculates search tokens of content to be stored; see {@link Encrypted#searchTokensFieldName()}.
+     * <br>
+     * Content is converted to UTF-8 once and prefix tokens are hashed in one pass over its bytes.
+     *
+     * @return tokens in compact format; empty if content is null or shorter than min length.
+     */
+    public List<String> searchTokens(String content,
+                                     Encrypted.SearchTokenType type,
+                                     int minLength,
+                                     int maxLength) throws Exception {
+        checkSearchTokenLengths(minLength, maxLength);
+        if (content == null || content.isEmpty()) {
+            return List.of();
+        }
+        var contentBytes = content.getBytes(CHARSET);
+        var boundaries = getCharacterBoundaries(contentBytes, maxLength);
+        var characters = boundaries.length - 1;
+        if (characters < minLength) {
+            return List.of();
+        }
+        var hasher = getSearchTokenHasher();
+        if (type == Encrypted.SearchTokenType.PREFIX) {
+            var hashes = hasher.hashPrefixes(contentBytes, Arrays.copyOfRange(boundaries, minLength, characters + 1));
+            var tokens = new String[hashes.length];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = formatSearchToken(hashes[i]);
+            }
+            return List.of(tokens);
+        }
+        var tokens = new LinkedHashSet<String>();
+        for (int i = 0; i + minLength <= characters; i++) {
+            var start = boundaries[i];
+            tokens.add(formatSearchToken(hasher.hash(contentBytes, start, boundaries[i + minLength] - start)));
+        }
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * Calculates search tokens of a query; matching contents have the only token for {@link Encrypted.SearchTokenType#PREFIX}
+     * and all tokens for {@link Encrypted.SearchTokenType#NGRAM}.
+     * Prefix queries longer than max length are truncated.
+     *
+     * @throws IllegalArgumentException if query is null or shorter than min length.
+     */
+    public List<String> searchQueryTokens(String query,
+                                          Encrypted.SearchTokenType type,
+                                          int minLength,
+                                          int maxLength) throws Exception {
+        checkSearchTokenLengths(minLength, maxLength);
+        if (query == null || query.codePointCount(0, query.length()) < minLength) {
+            throw new IllegalArgumentException("Search query must be at least " + minLength + " characters");
+        }
+        if (type == Encrypted.SearchTokenType.PREFIX) {
+            var characters = Math.min(maxLength, query.codePointCount(0, query.length()));
+            var prefix = query.substring(0, query.offsetByCodePoints(0, characters));
+            return List.of(formatSearchToken(getSearchTokenHasher().hash(prefix.getBytes(CHARSET))));
+        }
+        return searchTokens(query, type, minLength, maxLength);
+    }
+
+    /**
+     * Tells whether the hash is of the content, using the algorithm and key the hash identifies;
+     * the hash may be in {@link Encrypted.HashFormat#DEFAULT} format (without pattern) or
+     * {@link Encrypted.HashFormat#COMPACT} format and may be truncated.
+     * <br>
+     * Compares hash bytes in constant time rather than formatting the content's hash.
+     *
+     * @return false if the content or hash is null or empty or the hash is not recognized; e.g. it is encrypted
+     * content or its algorithm or key is not loaded.
+     */
+    public boolean matchesHash(String content, String hash) throws Exception {
+        if (!StringUtils.hasText(content) || !StringUtils.hasText(hash)) {
+            return false;
+        }
+        if (!hash.startsWith("#$$#{")) {
+            return matchesHash(content, decode(Base64.getUrlDecoder(), hash));
+        }
+        var headerEnd = hash.indexOf("}{");
+        if (headerEnd < 0 || !hash.endsWith(HASH_END) || headerEnd + 2 > hash.length() - HASH_END.length()) {
+            return false;
+        }
+        var context = getContextByHeader(hash, headerEnd + 2);
+        if (context == null) {
+            return false;
+        }
+        var expectedHash = decode(Base64.getDecoder(), hash.substring(headerEnd + 2, hash.length() - HASH_END.length()));
+        return expectedHash != null && matchesHash(context, content.getBytes(CHARSET), expectedHash, 0);
+    }
+
+    /**
+     * Tells whether the hash, in {@link Encrypted.HashFormat#RAW} format, is of the content;
+     * see {@link #matchesHash(String, String)}.
+     */
+    public boolean matchesHash(String content, byte[] hash) throws Exception {
+        if (content == null || content.isEmpty() || hash == null || hash.length <= TAG_LENGTH) {
+            return false;
+        }
+        var candidates = contextsByTag.get(tagToInt(hash, 0));
+        if (candidates == null) {
+            return false;
+        }
+        var contentBytes = content.getBytes(CHARSET);
+        for (var context : candidates) {
+            if (matchesHash(context, contentBytes, hash, TAG_LENGTH)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isHashed(String content) {
+        return HissEncryptor.isHavingEncryptedContentPattern(content);
+    }
+
+    /**
+     * @return statistics of hash cache; all zero if caching is disabled.
+     */
+    public ExpiringCache.Statistics getCacheStatistics() {
+        return cache != null ? cache.getStatistics() : new ExpiringCache.Statistics(0, 0, 0, 0);
+    }
+
+    private String hash(HashingContext context, String content, Pattern pattern, int length) throws Exception {
+        if (pattern != null) {
+            StringBuilder result = null;
+            Matcher matcher = pattern.matcher(content);
+            var tail = 0;
 
             while (matcher.find()) {
                 var partToBeEncrypted = matcher.group();
-                var hashedContent = hash(hasher, key, partToBeEncrypted);
-                matcher.appendReplacement(result, Matcher.quoteReplacement(hashedContent));
+                var hashedContent = hash(context, partToBeEncrypted, length);
+                if (result == null) {
+                    result = new StringBuilder(content.length() - partToBeEncrypted.length()
+                                               + hashedContent.length());
+                }
+                result.append(content, tail, matcher.start()).append(hashedContent);
+                tail = matcher.end();
             }
-            matcher.appendTail(result);
 
-            return result.toString();
+            return result != null ? result.append(content, tail, content.length()).toString() : content;
         } else {
-            return hash(hasher, key, content);
+            return hash(context, content, length);
         }
     }
 
-    public boolean isHashed(String content) {
-        return HissEncryptor.isHavingEncryptedContentPattern(content);
+    private String hash(HashingContext context, String content, int length) throws Exception {
+        var hash = truncate(calculateHash(context, content.getBytes(CHARSET)), length);
+        return HissEncryptor.formatEncryptedBytes(context.getHeader(), hash);
     }
 
-    private String hash(Hasher hasher, Key key, String content) throws Exception {
-        var contentBytes = content.getBytes(CHARSET);
-        var hash = hasher.hash(key.getKey(), contentBytes);
-        return HissEncryptor.formatEncryptedBytes(hasher.getName(), key.getId(), hash);
+    private byte[] hashToBytes(HashingContext context, byte[] contentBytes, int length) throws Exception {
+        return prependTag(context.getTag(), truncate(calculateHash(context, contentBytes), length));
+    }
+
+    private static byte[] prependTag(byte[] tag, byte[] hash) {
+        var bytes = Arrays.copyOf(tag, tag.length + hash.length);
+        System.arraycopy(hash, 0, bytes, tag.length, hash.length);
+        return bytes;
+    }
+
+    /**
+     * Returns full hash of content, from cache if enabled; the returned array must not be modified.
+     */
+    private byte[] calculateHash(HashingContext context, byte[] contentBytes) throws Exception {
+        return calculateHash(context.getHasher(), context.getHeader(), contentBytes);
+    }
+
+    /**
+     * Returns full hash of contents encoded by {@link #encodeComposite(List)} using the derived key;
+     * cached apart from hashes of single contents.
+     */
+    private byte[] calculateCompositeHash(List<String> contents) throws Exception {
+        return calculateHash(getCompositeHasher(), compositeCacheScope, encodeComposite(contents));
+    }
+
+    /**
+     * @param cacheScope tells apart cached hashes of same content calculated by different hashers.
+     */
+    private byte[] calculateHash(KeyedHasher hasher, String cacheScope, byte[] contentBytes) throws Exception {
+        if (cache == null) {
+            return hasher.hash(contentBytes);
+        }
+        var cacheKey = new HashCacheKey(cacheScope, contentBytes);
+        var hash = cache.get(cacheKey);
+        if (hash == null) {
+            hash = hasher.hash(contentBytes);
+            cache.put(cacheKey.copy(), hash);
+        }
+        return hash;
+    }
+
+    private KeyedHasher getCompositeHasher() throws Exception {
+        var compositeHasher = this.compositeHasher;
+        if (compositeHasher == null) {
+            compositeHasher = defaultHasher.withKey(defaultContext.getHasher().hash(COMPOSITE_HASH_KEY_INFO));
+            this.compositeHasher = compositeHasher;
+        }
+        return compositeHasher;
+    }
+
+    private KeyedHasher getSearchTokenHasher() throws Exception {
+        var searchTokenHasher = this.searchTokenHasher;
+        if (searchTokenHasher == null) {
+            searchTokenHasher = defaultHasher.withKey(defaultContext.getHasher().hash(SEARCH_TOKEN_KEY_INFO));
+            this.searchTokenHasher = searchTokenHasher;
+        }
+        return searchTokenHasher;
+    }
+
+    private String formatSearchToken(byte[] hash) {
+        var tag = defaultContext.getTag();
+        var bytes = Arrays.copyOf(tag, tag.length + SEARCH_TOKEN_HASH_LENGTH);
+        System.arraycopy(hash, 0, bytes, tag.length, SEARCH_TOKEN_HASH_LENGTH);
+        return COMPACT_ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * @return byte offsets of the first characters (code points) of UTF-8 content, up to max characters,
+     * followed by the offset after the last one.
+     */
+    private static int[] getCharacterBoundaries(byte[] content, int maxCharacters) {
+        var boundaries = new int[Math.min(content.length, maxCharacters) + 1];
+        var characters = 0;
+        for (int i = 0; i < content.length; i++) {
+            if ((content[i] & 0xc0) != 0x80) {
+                if (characters == maxCharacters) {
+                    boundaries[characters] = i;
+                    return boundaries;
+                }
+                boundaries[characters++] = i;
+            }
+        }
+        boundaries[characters] = content.length;
+        return characters + 1 == boundaries.length ? boundaries : Arrays.copyOf(boundaries, characters + 1);
+    }
+
+    static void checkSearchTokenLengths(int minLength, int maxLength) {
+        if (minLength < 1 || maxLength < minLength) {
+            throw new IllegalArgumentException("Search token lengths must satisfy 1 <= min <= max: "
+                                               + minLength + ", " + maxLength);
+        }
+    }
+
+    /**
+     * Compares the expected hash, starting at offset, with the (possibly truncated) hash of content
+     * in time independent of where they differ.
+     */
+    private boolean matchesHash(HashingContext context,
+                                byte[] contentBytes,
+                                byte[] expectedHash,
+                                int offset) throws Exception {
+        var length = expectedHash.length - offset;
+        var hash = calculateHash(context, contentBytes);
+        if (length > hash.length || (length < hash.length && length < MIN_HASH_LENGTH)) {
+            return false;
+        }
+        var difference = 0;
+        for (int i = 0; i < length; i++) {
+            difference |= hash[i] ^ expectedHash[offset + i];
+        }
+        return difference == 0;
+    }
+
+    /**
+     * Looks up the context of the hash's header; default and additional contexts are matched in place first.
+     */
+    private HashingContext getContextByHeader(String hash, int headerLength) {
+        for (var context : allContexts) {
+            var header = context.getHeader();
+            if (header.length() == headerLength && hash.startsWith(header)) {
+                return context;
+            }
+        }
+        return contextsByHeader.get(hash.substring(0, headerLength));
+    }
+
+    private static byte[] decode(Base64.Decoder decoder, String content) {
+        try {
+            return decoder.decode(content);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static int tagToInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 16 | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff);
+    }
+
+    private HashingContext getContext(String algorithmName, String keyId) {
+        var algorithmContexts = contexts.get(algorithmName);
+        if (algorithmContexts == null) {
+            throw new NullPointerException("Algorithm not supported: " + algorithmName);
+        }
+        var context = algorithmContexts.get(keyId);
+        if (context == null) {
+            throw new NullPointerException("Key not found: " + keyId);
+        }
+        return context;
+    }
+
+    private static Map<String, Map<String, HashingContext>> createContexts(Map<String, Hasher> hashers,
+                                                                           Map<String, Key> keys) {
+        var contexts = new HashMap<String, Map<String, HashingContext>>();
+        hashers.forEach((algorithmName, hasher) -> {
+            var algorithmContexts = new HashMap<String, HashingContext>();
+            keys.forEach((keyId, key) -> algorithmContexts.put(keyId, new HashingContext(
+                    hasher.withKey(key.getKey()),
+                    HissEncryptor.formatHeader(hasher.getName(), key.getId()),
+                    createTag(hasher.getName(), key.getId())
+            )));
+            contexts.put(algorithmName, Map.copyOf(algorithmContexts));
+        });
+        return Map.copyOf(contexts);
+    }
+
+    private void requireNotEncrypted(String content) {
+        if (encryptedContentDetector.test(content)) {
+            throw new IllegalArgumentException("Encrypted content can't be hashed in compact or raw format");
+        }
+    }
+
+    private static byte[] truncate(byte[] hash, int length) {
+        if (length == 0 || length == hash.length) {
+            return hash;
+        }
+        if (length > hash.length) {
+            throw new IllegalArgumentException("Hash length " + length + " is longer than hash: " + hash.length);
+        }
+        return Arrays.copyOf(hash, length);
+    }
+
+    /**
+     * Encodes contents unambiguously: number of contents, then each content's length in UTF-8 bytes followed by
+     * the bytes; numbers are 4-byte big-endian and null contents have length -1 and no bytes.
+     *
+     * @throws IllegalArgumentException if contents are empty.
+     */
+    static byte[] encodeComposite(List<String> contents) {
+        if (contents.isEmpty()) {
+            throw new IllegalArgumentException("Composite hash contents are empty");
+        }
+        var contentsBytes = new byte[contents.size()][];
+        var length = 4;
+        for (int i = 0; i < contentsBytes.length; i++) {
+            var content = contents.get(i);
+            contentsBytes[i] = content != null ? content.getBytes(CHARSET) : null;
+            length += 4 + (content != null ? contentsBytes[i].length : 0);
+        }
+        var buffer = ByteBuffer.allocate(length).putInt(contentsBytes.length);
+        for (var contentBytes : contentsBytes) {
+            if (contentBytes == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(contentBytes.length).put(contentBytes);
+            }
+        }
+        return buffer.array();
+    }
+
+    static void checkLength(int length) {
+        if (length != 0 && length < MIN_HASH_LENGTH) {
+            throw new IllegalArgumentException("Hash length must be zero (full hash) or at least "
+                                               + MIN_HASH_LENGTH + " bytes: " + length);
+        }
+    }
+
+    /**
+     * @return first {@link #TAG_LENGTH} bytes of SHA-256 of <code>algorithm:keyId</code>.
+     */
+    static byte[] createTag(String algorithmName, String keyId) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                    .digest((algorithmName + ":" + keyId).getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, TAG_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Identifies a hash by algorithm and key (using the context's header, prefixed for composite hashes)
+     * and content bytes;
+     * content is kept as UTF-8 bytes rather than the {@link String} passed by callers.
+     * <br>
+     * Lookups use content as passed, while stored keys hold a copy of it; callers may reuse or clear
+     * their arrays (e.g. binary fields replaced by ciphertext) without corrupting the cache.
+     */
+    private static final class HashCacheKey {
+        private final String header;
+        private final byte[] content;
+        private final int hashCode;
+
+        HashCacheKey(String header, byte[] content) {
+            this(header, content, 31 * header.hashCode() + Arrays.hashCode(content));
+        }
+
+        private HashCacheKey(String header, byte[] content, int hashCode) {
+            this.header = header;
+            this.content = content;
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * @return key holding a copy of content, to be stored in the cache.
+         */
+        HashCacheKey copy() {
+            return new HashCacheKey(header, content.clone(), hashCode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HashCacheKey)) return false;
+            var that = (HashCacheKey) o;
+            return hashCode == that.hashCode && header.equals(that.header) && Arrays.equals(content, that.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    @Value
+    private static class HashingContext {
+        KeyedHasher hasher;
+        String header;
+        /**
+         * Identifies algorithm and key in compact and raw hashes.
+         */
+        byte[] tag;
     }
 
 }
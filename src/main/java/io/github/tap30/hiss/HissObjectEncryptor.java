@@ -3,20 +3,23 @@ package io.github.tap30.hiss;
 import io.github.tap30.hiss.utils.ReflectionUtils;
 import io.github.tap30.hiss.utils.StringUtils;
 import lombok.Value;
-import org.intellij.lang.annotations.Language;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 class HissObjectEncryptor {
 
     private static final Logger logger = Logger.getLogger(HissObjectEncryptor.class.getName());
-    private static final Map<Class<?>, ClassDescription> CLASSES_DESCRIPTION_CACHE = new HashMap<>();
+    private static final Map<Class<?>, ClassDescription> CLASSES_DESCRIPTION_CACHE = new ConcurrentHashMap<>();
 
     private final HissEncryptor hissEncryptor;
     private final HissHasher hissHasher;
@@ -35,61 +38,307 @@ class HissObjectEncryptor {
         this.decryptFields(domainObject);
     }
 
+    /**
+     * @return search tokens of the query for the field; see {@link HissHasher#searchQueryTokens}.
+     * @throws IllegalArgumentException if the field does not exist or has no search tokens field.
+     */
+    public List<String> searchQueryTokens(Class<?> clazz, String fieldName, String query) throws Exception {
+        var encryptedAnnotation = ReflectionUtils.getAllFields(clazz).stream()
+                .filter(field -> field.getName().equals(fieldName))
+                .map(field -> field.getDeclaredAnnotation(Encrypted.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .filter(annotation -> StringUtils.hasText(annotation.searchTokensFieldName()))
+                .orElseThrow(() -> new IllegalArgumentException("Field " + clazz.getName() + "." + fieldName
+                                                                + " is not encrypted with search tokens"));
+        return this.hissHasher.searchQueryTokens(query, encryptedAnnotation.searchTokenType(),
+                encryptedAnnotation.searchTokenMinLength(), encryptedAnnotation.searchTokenMaxLength());
+    }
+
     private void encryptFields(Object object) {
-        this.processFields(object, this::encryptField);
+        this.processFields(object, this::hashComposites, this::encryptField);
     }
 
     private void decryptFields(Object object) {
-        this.processFields(object, this::decryptField);
+        this.processFields(object, (o, classDescription) -> {}, this::decryptField);
     }
 
+    /**
+     * @param objectProcessor is called on each object before its fields are processed.
+     */
     private void processFields(Object object,
+                               BiConsumer<Object, ClassDescription> objectProcessor,
                                BiConsumer<Object, FieldAnnotatedWithEncrypted> processor) {
         if (object == null) return;
 
         var classDescription = getClassDescription(object.getClass());
+        objectProcessor.accept(object, classDescription);
         for (var field : classDescription.getFieldsAnnotatedWithEncrypted()) {
             processor.accept(object, field);
         }
         for (var field : classDescription.getFieldsAnnotatedWithEncryptedInside()) {
-            this.processFieldsAnnotatedWithEncryptedInside(object, field, processor);
+            this.processFieldsAnnotatedWithEncryptedInside(object, field, objectProcessor, processor);
         }
     }
 
     private void processFieldsAnnotatedWithEncryptedInside(Object object,
                                                            FieldAnnotatedWithEncryptedInside fieldAnnotatedWithEncryptedInside,
+                                                           BiConsumer<Object, ClassDescription> objectProcessor,
                                                            BiConsumer<Object, FieldAnnotatedWithEncrypted> processor) {
         var fieldContent = fieldAnnotatedWithEncryptedInside.getField().getContent(object);
         if (fieldContent instanceof Iterable<?>) {
-            ((Iterable<?>) fieldContent).forEach(item -> this.processFields(item, processor));
+            ((Iterable<?>) fieldContent).forEach(item -> this.processFields(item, objectProcessor, processor));
         } else if (fieldContent instanceof Map<?, ?>) {
-            ((Map<?, ?>) fieldContent).forEach((k, v) -> this.processFields(v, processor));
+            ((Map<?, ?>) fieldContent).forEach((k, v) -> this.processFields(v, objectProcessor, processor));
         } else {
-            this.processFields(fieldContent, processor);
+            this.processFields(fieldContent, objectProcessor, processor);
+        }
+    }
+
+    /**
+     * Calculates composite hashes on plain contents, so it must be called before fields are encrypted.
+     */
+    private void hashComposites(Object object, ClassDescription classDescription) {
+        for (var compositeHashField : classDescription.getCompositeHashFields()) {
+            try {
+                hashComposite(object, compositeHashField);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void hashComposite(Object object, CompositeHashField compositeHashField) throws Exception {
+        var contents = new ArrayList<String>(compositeHashField.getContentFields().size());
+        for (var contentField : compositeHashField.getContentFields()) {
+            var content = contentField.getContent(object);
+            if (content != null && this.hissEncryptor.isEncrypted(content)) {
+                return;
+            }
+            contents.add(content);
+        }
+        var compositeHash = compositeHashField.getCompositeHash();
+        switch (compositeHash.hashFormat()) {
+            case COMPACT:
+                var compactHash = this.hissHasher.hashCompositeCompact(contents, compositeHash.hashLength());
+                compositeHashField.getHashField().setContent(object, compactHash);
+                break;
+            case RAW:
+                var rawHash = this.hissHasher.hashCompositeToBytes(contents, compositeHash.hashLength());
+                compositeHashField.getRawHashField().setContent(object, rawHash);
+                break;
+            default:
+                var hash = this.hissHasher.hashComposite(contents, compositeHash.hashLength());
+                compositeHashField.getHashField().setContent(object, hash);
         }
     }
 
     private void encryptField(Object object, FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted) {
         try {
+            if (fieldAnnotatedWithEncrypted.getBinaryContentField() != null) {
+                encryptBinaryField(object, fieldAnnotatedWithEncrypted);
+                return;
+            }
             var content = fieldAnnotatedWithEncrypted.getContentField().getContent(object);
             if (content == null) {
                 return;
             }
-            @Language("regexp")
-            var pattern = fieldAnnotatedWithEncrypted.getEncryptedAnnotation().pattern();
-            var encryptedContent = this.hissEncryptor.encrypt(content, pattern);
+            var pattern = fieldAnnotatedWithEncrypted.getPattern();
+            if (fieldAnnotatedWithEncrypted.getEncryptedAnnotation().deterministic()) {
+                var encryptedContent = this.hissEncryptor.encryptDeterministicMatching(content, pattern);
+                fieldAnnotatedWithEncrypted.getContentField().setContent(object, encryptedContent);
+                return;
+            }
+            if (fieldAnnotatedWithEncrypted.getSearchTokensField() != null) {
+                searchTokensField(object, fieldAnnotatedWithEncrypted, content);
+            }
+            var compression = fieldAnnotatedWithEncrypted.getEncryptedAnnotation().compression();
+            if (isEncryptedAndHashedAtOnce(fieldAnnotatedWithEncrypted)) {
+                encryptAndHashField(object, fieldAnnotatedWithEncrypted, content, pattern, compression);
+                return;
+            }
+            var encryptedContent = this.hissEncryptor.encryptMatching(content, pattern, compression);
             fieldAnnotatedWithEncrypted.getContentField().setContent(object, encryptedContent);
             if (fieldAnnotatedWithEncrypted.getEncryptedAnnotation().hashingEnabled()) {
-                var hashedContent = this.hissHasher.hash(content, pattern);
-                fieldAnnotatedWithEncrypted.getHashField().setContent(object, hashedContent);
+                hashField(object, fieldAnnotatedWithEncrypted, content, pattern);
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Encrypts content into {@link HissBinaryFormat} without converting it to string; hashes are calculated
+     * on content bytes as they are, and are left untouched if the content is already encrypted.
+     */
+    private void encryptBinaryField(Object object, FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted)
+            throws Exception {
+        var content = fieldAnnotatedWithEncrypted.getBinaryContentField().getContent(object);
+        if (content == null || this.hissEncryptor.isEncryptedBinary(content)) {
+            return;
+        }
+        var encryptedAnnotation = fieldAnnotatedWithEncrypted.getEncryptedAnnotation();
+        var encryptedContent = this.hissEncryptor.encryptBinary(content, encryptedAnnotation.compression());
+        fieldAnnotatedWithEncrypted.getBinaryContentField().setContent(object, encryptedContent);
+        if (fieldAnnotatedWithEncrypted.getHashField() != null) {
+            var hashedContent = content.length == 0
+                    ? ""
+                    : this.hissHasher.hashBytes(content, encryptedAnnotation.hashLength());
+            fieldAnnotatedWithEncrypted.getHashField().setContent(object, hashedContent);
+        } else if (fieldAnnotatedWithEncrypted.getRawHashField() != null) {
+            var rawHash = content.length == 0
+                    ? new byte[0]
+                    : this.hissHasher.hashBytesToBytes(content, encryptedAnnotation.hashLength());
+            fieldAnnotatedWithEncrypted.getRawHashField().setContent(object, rawHash);
+        }
+    }
+
+    /**
+     * Compact and raw hashes and additional hashes are calculated separately; they don't support patterns
+     * or are calculated under several hashing schemes.
+     */
+    private static boolean isEncryptedAndHashedAtOnce(FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted) {
+        var encryptedAnnotation = fieldAnnotatedWithEncrypted.getEncryptedAnnotation();
+        return encryptedAnnotation.hashingEnabled()
+               && encryptedAnnotation.hashFormat() == Encrypted.HashFormat.DEFAULT
+               && fieldAnnotatedWithEncrypted.getHashField() != null
+               && fieldAnnotatedWithEncrypted.getAdditionalHashesField() == null;
+    }
+
+    /**
+     * Does what encrypting and then hashing content does, in one pass: content is checked for being encrypted
+     * once, the pattern is matched once, and each matched part is converted to bytes once
+     * and fed to both the encryptor and the hasher.
+     */
+    private void encryptAndHashField(Object object,
+                                     FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted,
+                                     String content,
+                                     Pattern pattern,
+                                     Encrypted.Compression compression) throws Exception {
+        var hashLength = fieldAnnotatedWithEncrypted.getEncryptedAnnotation().hashLength();
+        String encryptedContent;
+        String hashedContent;
+        if (!StringUtils.hasText(content) || this.hissEncryptor.isEncrypted(content)) {
+            encryptedContent = content;
+            hashedContent = content;
+        } else if (pattern == null) {
+            var contentBytes = content.getBytes(StandardCharsets.UTF_8);
+            encryptedContent = this.hissEncryptor.encryptBytes(contentBytes, compression);
+            hashedContent = this.hissHasher.hashBytes(contentBytes, hashLength);
+        } else {
+            StringBuilder encryptedResult = null;
+            StringBuilder hashedResult = null;
+            var matcher = pattern.matcher(content);
+            var tail = 0;
+            while (matcher.find()) {
+                var partBytes = matcher.group().getBytes(StandardCharsets.UTF_8);
+                var encryptedPart = this.hissEncryptor.encryptBytes(partBytes, compression);
+                var hashedPart = this.hissHasher.hashBytes(partBytes, hashLength);
+                if (encryptedResult == null) {
+                    var unmatchedLength = content.length() - (matcher.end() - matcher.start());
+                    encryptedResult = new StringBuilder(unmatchedLength + encryptedPart.length());
+                    hashedResult = new StringBuilder(unmatchedLength + hashedPart.length());
+                }
+                encryptedResult.append(content, tail, matcher.start()).append(encryptedPart);
+                hashedResult.append(content, tail, matcher.start()).append(hashedPart);
+                tail = matcher.end();
+            }
+            encryptedContent = encryptedResult != null
+                    ? encryptedResult.append(content, tail, content.length()).toString()
+                    : content;
+            hashedContent = hashedResult != null
+                    ? hashedResult.append(content, tail, content.length()).toString()
+                    : content;
+        }
+        fieldAnnotatedWithEncrypted.getContentField().setContent(object, encryptedContent);
+        fieldAnnotatedWithEncrypted.getHashField().setContent(object, hashedContent);
+    }
+
+    /**
+     * Search tokens are calculated on plain content, so they are left untouched if the content is already encrypted.
+     */
+    private void searchTokensField(Object object,
+                                   FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted,
+                                   String content) throws Exception {
+        if (this.hissEncryptor.isEncrypted(content)) {
+            return;
+        }
+        var encryptedAnnotation = fieldAnnotatedWithEncrypted.getEncryptedAnnotation();
+        var searchTokens = this.hissHasher.searchTokens(content, encryptedAnnotation.searchTokenType(),
+                encryptedAnnotation.searchTokenMinLength(), encryptedAnnotation.searchTokenMaxLength());
+        fieldAnnotatedWithEncrypted.getSearchTokensField().setContent(object, searchTokens);
+    }
+
+    /**
+     * Compact and raw hashes can't be told apart from plain content, so they are left untouched
+     * if the content is already encrypted.
+     */
+    private void hashField(Object object,
+                           FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted,
+                           String content,
+                           Pattern pattern) throws Exception {
+        var encryptedAnnotation = fieldAnnotatedWithEncrypted.getEncryptedAnnotation();
+        var hashFormat = encryptedAnnotation.hashFormat();
+        if (hashFormat != Encrypted.HashFormat.DEFAULT && this.hissEncryptor.isEncrypted(content)) {
+            return;
+        }
+        if (fieldAnnotatedWithEncrypted.getAdditionalHashesField() != null) {
+            hashFieldWithAdditionalHashes(object, fieldAnnotatedWithEncrypted, content, pattern);
+            return;
+        }
+        switch (hashFormat) {
+            case COMPACT:
+                var compactHash = this.hissHasher.hashCompact(content, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getHashField().setContent(object, compactHash);
+                break;
+            case RAW:
+                var rawHash = this.hissHasher.hashToBytes(content, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getRawHashField().setContent(object, rawHash);
+                break;
+            default:
+                var hashedContent = this.hissHasher.hashMatching(content, pattern, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getHashField().setContent(object, hashedContent);
+        }
+    }
+
+    /**
+     * Hashes content under all hashing schemes at once; the default hash goes to the hash field and the others
+     * to the additional hashes field.
+     */
+    private void hashFieldWithAdditionalHashes(Object object,
+                                               FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted,
+                                               String content,
+                                               Pattern pattern) throws Exception {
+        var encryptedAnnotation = fieldAnnotatedWithEncrypted.getEncryptedAnnotation();
+        switch (encryptedAnnotation.hashFormat()) {
+            case COMPACT:
+                var compactHashes = this.hissHasher.hashesCompact(content, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getHashField().setContent(object, compactHashes.get(0));
+                fieldAnnotatedWithEncrypted.getAdditionalHashesField().setContent(object,
+                        List.copyOf(compactHashes.subList(1, compactHashes.size())));
+                break;
+            case RAW:
+                var rawHashes = this.hissHasher.hashesToBytes(content, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getRawHashField().setContent(object, rawHashes.get(0));
+                fieldAnnotatedWithEncrypted.getAdditionalHashesField().setContent(object,
+                        List.copyOf(rawHashes.subList(1, rawHashes.size())));
+                break;
+            default:
+                var hashes = this.hissHasher.hashesMatching(content, pattern, encryptedAnnotation.hashLength());
+                fieldAnnotatedWithEncrypted.getHashField().setContent(object, hashes.get(0));
+                fieldAnnotatedWithEncrypted.getAdditionalHashesField().setContent(object,
+                        List.copyOf(hashes.subList(1, hashes.size())));
+        }
+    }
+
     private void decryptField(Object object, FieldAnnotatedWithEncrypted fieldAnnotatedWithEncrypted) {
         try {
+            var binaryContentField = fieldAnnotatedWithEncrypted.getBinaryContentField();
+            if (binaryContentField != null) {
+                binaryContentField.setContent(object,
+                        this.hissEncryptor.decryptBinary(binaryContentField.getContent(object)));
+                return;
+            }
             var content = fieldAnnotatedWithEncrypted.getContentField().getContent(object);
             var decryptedContent = this.hissEncryptor.decrypt(content);
             fieldAnnotatedWithEncrypted.getContentField().setContent(object, decryptedContent);
@@ -99,8 +348,9 @@ class HissObjectEncryptor {
     }
 
     private static ClassDescription getClassDescription(Class<?> clazz) {
-        if (CLASSES_DESCRIPTION_CACHE.containsKey(clazz)) {
-            return CLASSES_DESCRIPTION_CACHE.get(clazz);
+        var cachedClassDescription = CLASSES_DESCRIPTION_CACHE.get(clazz);
+        if (cachedClassDescription != null) {
+            return cachedClassDescription;
         }
 
         var fieldsAnnotatedWithEncrypted = new ArrayList<FieldAnnotatedWithEncrypted>();
@@ -110,7 +360,13 @@ class HissObjectEncryptor {
             getFieldAnnotatedWithEncryptedInside(clazz, field).ifPresent(fieldsAnnotatedWithEncryptedInside::add);
         }
 
-        var classDescription = new ClassDescription(fieldsAnnotatedWithEncrypted, fieldsAnnotatedWithEncryptedInside);
+        var compositeHashFields = new ArrayList<CompositeHashField>();
+        for (var compositeHash : clazz.getAnnotationsByType(CompositeHash.class)) {
+            compositeHashFields.add(getCompositeHashField(clazz, compositeHash));
+        }
+
+        var classDescription = new ClassDescription(fieldsAnnotatedWithEncrypted, fieldsAnnotatedWithEncryptedInside,
+                compositeHashFields);
         CLASSES_DESCRIPTION_CACHE.put(clazz, classDescription);
         if (CLASSES_DESCRIPTION_CACHE.size() > 10000) {
             logger.log(Level.WARNING, "{0} classes are cached", CLASSES_DESCRIPTION_CACHE.size());
@@ -122,9 +378,27 @@ class HissObjectEncryptor {
     getFieldAnnotatedWithEncrypted(Class<?> clazz, Field field) {
         var encryptedAnnotation = field.getDeclaredAnnotation(Encrypted.class);
         if (encryptedAnnotation != null) {
-            var contentField = new StringField(clazz, field.getName());
-            var hashField = getHashField(clazz, field, encryptedAnnotation);
-            return Optional.of(new FieldAnnotatedWithEncrypted(encryptedAnnotation, contentField, hashField));
+            validateEncryptedAnnotation(clazz, field, encryptedAnnotation);
+            var binary = field.getType() == byte[].class;
+            if (binary) {
+                validateEncryptedAnnotationOfBinaryField(clazz, field, encryptedAnnotation);
+            }
+            var pattern = compilePattern(clazz, field, encryptedAnnotation);
+            var contentField = binary ? null : new StringField(clazz, field.getName());
+            var binaryContentField = binary ? new BytesField(clazz, field.getName()) : null;
+            var hashFieldName = getHashFieldName(field, encryptedAnnotation);
+            var raw = encryptedAnnotation.hashFormat() == Encrypted.HashFormat.RAW;
+            var hashField = hashFieldName != null && !raw ? new StringField(clazz, hashFieldName) : null;
+            var rawHashField = hashFieldName != null && raw ? new BytesField(clazz, hashFieldName) : null;
+            var additionalHashesField = hashFieldName != null
+                                        && StringUtils.hasText(encryptedAnnotation.additionalHashesFieldName())
+                    ? new ListField(clazz, encryptedAnnotation.additionalHashesFieldName())
+                    : null;
+            var searchTokensField = StringUtils.hasText(encryptedAnnotation.searchTokensFieldName())
+                    ? new ListField(clazz, encryptedAnnotation.searchTokensFieldName())
+                    : null;
+            return Optional.of(new FieldAnnotatedWithEncrypted(encryptedAnnotation, pattern, contentField,
+                    binaryContentField, hashField, rawHashField, additionalHashesField, searchTokensField));
         } else {
             return Optional.empty();
         }
@@ -140,21 +414,94 @@ class HissObjectEncryptor {
         }
     }
 
-    private static StringField getHashField(Class<?> clazz, Field field, Encrypted encryptedAnnotation) {
-        if (encryptedAnnotation.hashingEnabled()) {
+    private static CompositeHashField getCompositeHashField(Class<?> clazz, CompositeHash compositeHash) {
+        if (compositeHash.fields().length == 0 || !StringUtils.hasText(compositeHash.hashFieldName())) {
+            throw new IllegalArgumentException("Composite hash of " + clazz.getName()
+                                               + " must have fields and hash field name");
+        }
+        HissHasher.checkLength(compositeHash.hashLength());
+        var contentFields = new ArrayList<StringField>();
+        for (var fieldName : compositeHash.fields()) {
+            contentFields.add(new StringField(clazz, fieldName));
+        }
+        var raw = compositeHash.hashFormat() == Encrypted.HashFormat.RAW;
+        return new CompositeHashField(
+                compositeHash,
+                List.copyOf(contentFields),
+                raw ? null : new StringField(clazz, compositeHash.hashFieldName()),
+                raw ? new BytesField(clazz, compositeHash.hashFieldName()) : null
+        );
+    }
+
+    private static String getHashFieldName(Field field, Encrypted encryptedAnnotation) {
+        if (encryptedAnnotation.hashingEnabled() && !encryptedAnnotation.deterministic()) {
             if (StringUtils.hasText(encryptedAnnotation.hashFieldName())) {
-                return new StringField(clazz, encryptedAnnotation.hashFieldName());
+                return encryptedAnnotation.hashFieldName();
             } else {
-                return new StringField(clazz, "hashed" + StringUtils.capitalizeFirstLetter(field.getName()));
+                return "hashed" + StringUtils.capitalizeFirstLetter(field.getName());
             }
         }
         return null;
     }
 
+    private static void validateEncryptedAnnotation(Class<?> clazz, Field field, Encrypted encryptedAnnotation) {
+        if (encryptedAnnotation.hashFormat() != Encrypted.HashFormat.DEFAULT
+                && StringUtils.hasText(encryptedAnnotation.pattern())) {
+            throw new IllegalArgumentException("Field " + clazz.getName() + "." + field.getName()
+                                               + " has pattern; only DEFAULT hash format supports patterns");
+        }
+        HissHasher.checkLength(encryptedAnnotation.hashLength());
+        if (StringUtils.hasText(encryptedAnnotation.searchTokensFieldName())) {
+            HissHasher.checkSearchTokenLengths(encryptedAnnotation.searchTokenMinLength(),
+                    encryptedAnnotation.searchTokenMaxLength());
+        }
+    }
+
+    /**
+     * Binary fields are encrypted whole and not deterministically; and hashed only in default or raw format.
+     */
+    private static void validateEncryptedAnnotationOfBinaryField(Class<?> clazz,
+                                                                 Field field,
+                                                                 Encrypted encryptedAnnotation) {
+        if (StringUtils.hasText(encryptedAnnotation.pattern())
+                || encryptedAnnotation.deterministic()
+                || encryptedAnnotation.hashFormat() == Encrypted.HashFormat.COMPACT
+                || StringUtils.hasText(encryptedAnnotation.additionalHashesFieldName())
+                || StringUtils.hasText(encryptedAnnotation.searchTokensFieldName())) {
+            throw new IllegalArgumentException("Field " + clazz.getName() + "." + field.getName()
+                                               + " is byte[]; it supports neither pattern, deterministic encryption,"
+                                               + " compact hash format, additional hashes nor search tokens");
+        }
+    }
+
+    private static Pattern compilePattern(Class<?> clazz, Field field, Encrypted encryptedAnnotation) {
+        if (!StringUtils.hasText(encryptedAnnotation.pattern())) {
+            return null;
+        }
+        try {
+            return Pattern.compile(encryptedAnnotation.pattern());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Field " + clazz.getName() + "." + field.getName()
+                                               + " has invalid pattern: " + e.getDescription(), e);
+        }
+    }
+
     @Value
     private static class ClassDescription {
         List<FieldAnnotatedWithEncrypted> fieldsAnnotatedWithEncrypted;
         List<FieldAnnotatedWithEncryptedInside> fieldsAnnotatedWithEncryptedInside;
+        List<CompositeHashField> compositeHashFields;
+    }
+
+    @Value
+    private static class CompositeHashField {
+        CompositeHash compositeHash;
+        List<StringField> contentFields;
+        StringField hashField;
+        /**
+         * Set instead of hash field if hash format is {@link Encrypted.HashFormat#RAW}.
+         */
+        BytesField rawHashField;
     }
 
     @Value
@@ -165,8 +512,28 @@ class HissObjectEncryptor {
     @Value
     private static class FieldAnnotatedWithEncrypted {
         Encrypted encryptedAnnotation;
+        /**
+         * Compiled pattern of the annotation; null if it has none.
+         */
+        Pattern pattern;
         StringField contentField;
+        /**
+         * Set instead of content field if the field is <code>byte[]</code>.
+         */
+        BytesField binaryContentField;
         StringField hashField;
+        /**
+         * Set instead of hash field if hash format is {@link Encrypted.HashFormat#RAW}.
+         */
+        BytesField rawHashField;
+        /**
+         * Null unless additional hashes field name is set.
+         */
+        ListField additionalHashesField;
+        /**
+         * Null unless search tokens field name is set.
+         */
+        ListField searchTokensField;
     }
 
     private static class StringField {
@@ -193,6 +560,47 @@ class HissObjectEncryptor {
         }
     }
 
+    private static class BytesField {
+        private final Method getter;
+        private final Method setter;
+
+        public BytesField(Class<?> clazz, String fieldName) {
+            this.getter = ReflectionUtils.getMethod(clazz,
+                    "get" + StringUtils.capitalizeFirstLetter(fieldName));
+            this.setter = ReflectionUtils.getMethod(clazz,
+                    "set" + StringUtils.capitalizeFirstLetter(fieldName), byte[].class);
+        }
+
+        public byte[] getContent(Object object) {
+            return ReflectionUtils.invokeSupplierMethod(object, getter, byte[].class);
+        }
+
+        public void setContent(Object object, byte[] content) {
+            try {
+                setter.invoke(object, (Object) content);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class ListField {
+        private final Method setter;
+
+        public ListField(Class<?> clazz, String fieldName) {
+            this.setter = ReflectionUtils.getMethod(clazz,
+                    "set" + StringUtils.capitalizeFirstLetter(fieldName), List.class);
+        }
+
+        public void setContent(Object object, List<?> content) {
+            try {
+                setter.invoke(object, content);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     private static class ReadOnlyObjectField {
         private final Method getter;
 
@@ -0,0 +1,83 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.KeyedEncryptor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary format of encrypted streams; written by {@link HissEncryptingOutputStream}
+ * and read by {@link HissDecryptingInputStream}.
+ * <pre>
+ * stream: header | chunk ... | final chunk
+ * header: magic "HISS" (4) | version (1) | header length (2) | "algorithm:keyId" in UTF-8 | stream ID (16) | chunk size (4)
+ * chunk:  encrypted length (4) | encrypted (stream ID (16) | chunk index (8) | final flag (1) | data (up to chunk size))
+ * </pre>
+ * Each chunk is encrypted separately, so memory usage is bounded by chunk size and decryption starts
+ * as soon as the first chunk arrives. Binding stream ID, index and final flag to each chunk lets decryption
+ * detect chunks being reordered, dropped, truncated or spliced from other streams,
+ * given the algorithm is authenticated (e.g. AES-GCM).
+ */
+final class HissStreamFormat {
+
+    static final byte[] MAGIC = "HISS".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+    static final int STREAM_ID_LENGTH = 16;
+    static final int CHUNK_PREFIX_LENGTH = STREAM_ID_LENGTH + Long.BYTES + 1;
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    /**
+     * Upper bound of what encryptors, whose encrypted length is unknown, add to each chunk.
+     */
+    static final int MAX_ENCRYPTION_OVERHEAD = 1024;
+
+    private HissStreamFormat() {
+    }
+
+    /**
+     * @return the maximum length of an encrypted chunk.
+     */
+    static int getMaxEncryptedChunkLength(KeyedEncryptor encryptor, int chunkSize) {
+        var plainLength = CHUNK_PREFIX_LENGTH + chunkSize;
+        var maxEncryptedLength = encryptor.getMaxEncryptedLength(plainLength);
+        return maxEncryptedLength >= 0 ? maxEncryptedLength : plainLength + MAX_ENCRYPTION_OVERHEAD;
+    }
+
+    /**
+     * Encrypts the content buffer into output using buffers if encryptor reports its lengths,
+     * falling back to arrays otherwise.
+     *
+     * @return number of written bytes.
+     */
+    static int encrypt(KeyedEncryptor encryptor, byte[] content, int contentLength, byte[] output) throws Exception {
+        if (encryptor.getMaxEncryptedLength(contentLength) >= 0) {
+            return encryptor.encrypt(ByteBuffer.wrap(content, 0, contentLength), ByteBuffer.wrap(output));
+        }
+        var encrypted = encryptor.encrypt(Arrays.copyOf(content, contentLength));
+        if (encrypted.length > output.length) {
+            throw new IllegalStateException("Encrypted chunk is longer than " + output.length + " bytes");
+        }
+        System.arraycopy(encrypted, 0, output, 0, encrypted.length);
+        return encrypted.length;
+    }
+
+    /**
+     * Decrypts the content buffer into output, using buffers if encryptor reports its lengths.
+     *
+     * @return number of written bytes.
+     */
+    static int decrypt(KeyedEncryptor encryptor, byte[] content, int contentLength, byte[] output) throws Exception {
+        var maxDecryptedLength = encryptor.getMaxDecryptedLength(contentLength);
+        if (maxDecryptedLength >= 0 && maxDecryptedLength <= output.length) {
+            return encryptor.decrypt(ByteBuffer.wrap(content, 0, contentLength), ByteBuffer.wrap(output));
+        }
+        var decrypted = encryptor.decrypt(Arrays.copyOf(content, contentLength));
+        if (decrypted.length > output.length) {
+            throw new IllegalStateException("Decrypted chunk is longer than chunk size");
+        }
+        System.arraycopy(decrypted, 0, output, 0, decrypted.length);
+        return decrypted.length;
+    }
+
+}
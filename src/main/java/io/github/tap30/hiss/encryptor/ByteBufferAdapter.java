@@ -0,0 +1,29 @@
+package io.github.tap30.hiss.encryptor;
+
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts array based operations to the buffer based API of {@link Encryptor} and {@link KeyedEncryptor}.
+ */
+class ByteBufferAdapter {
+
+    static int apply(ArrayOperation operation, ByteBuffer content, ByteBuffer output) throws Exception {
+        var contentBytes = new byte[content.remaining()];
+        content.duplicate().get(contentBytes);
+        var result = operation.apply(contentBytes);
+        if (output.remaining() < result.length) {
+            throw new ShortBufferException("Output buffer is too short; needed " + result.length
+                                           + " bytes but " + output.remaining() + " bytes remained");
+        }
+        content.position(content.limit());
+        output.put(result);
+        return result.length;
+    }
+
+    @FunctionalInterface
+    interface ArrayOperation {
+        byte[] apply(byte[] content) throws Exception;
+    }
+
+}
@@ -1,5 +1,8 @@
 package io.github.tap30.hiss.encryptor;
 
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+
 public interface Encryptor {
     /**
      * Encrypts content using key.
@@ -21,4 +24,94 @@ public interface Encryptor {
      * @return encryptor name.
      */
     String getName();
+
+    /**
+     * Encrypts remaining bytes of content using key and writes the result into output.
+     * <br>
+     * On success, position of content is advanced to its limit and position of output by number of written bytes.
+     * Both heap and direct buffers are accepted.
+     * <br>
+     * The default implementation copies content into an array and delegates to {@link #encrypt(byte[], byte[])};
+     * override it to avoid copies.
+     * @return number of bytes written into output.
+     * @throws ShortBufferException if output does not have enough remaining space;
+     *                              see {@link #getMaxEncryptedLength(int)}.
+     */
+    default int encrypt(byte[] key, ByteBuffer content, ByteBuffer output) throws Exception {
+        return ByteBufferAdapter.apply(c -> encrypt(key, c), content, output);
+    }
+
+    /**
+     * Decrypts remaining bytes of content using key and writes the result into output.
+     * <br>
+     * On success, position of content is advanced to its limit and position of output by number of written bytes.
+     * Both heap and direct buffers are accepted.
+     * <br>
+     * The default implementation copies content into an array and delegates to {@link #decrypt(byte[], byte[])};
+     * override it to avoid copies.
+     * @return number of bytes written into output.
+     * @throws ShortBufferException if output does not have enough remaining space;
+     *                              see {@link #getMaxDecryptedLength(int)}.
+     */
+    default int decrypt(byte[] key, ByteBuffer content, ByteBuffer output) throws Exception {
+        return ByteBufferAdapter.apply(c -> decrypt(key, c), content, output);
+    }
+
+    /**
+     * @return the maximum length of encrypted content having given length; <code>-1</code> if unknown.
+     */
+    default int getMaxEncryptedLength(int contentLength) {
+        return -1;
+    }
+
+    /**
+     * @return the maximum length of plain content decrypted from encrypted content having given length;
+     * <code>-1</code> if unknown.
+     */
+    default int getMaxDecryptedLength(int encryptedContentLength) {
+        return -1;
+    }
+
+    /**
+     * Binds this encryptor to a key.
+     * <br>
+     * Hiss calls this once per loaded key upon instantiation and uses the returned object for all
+     * encryptions and decryptions with that key; override it to prepare key dependent state ahead of time.
+     * <br>
+     * The default implementation delegates to methods of this encryptor having key parameter.
+     * @return the encryptor bound to the key.
+     */
+    default KeyedEncryptor withKey(byte[] key) {
+        return new KeyedEncryptor() {
+            @Override
+            public byte[] encrypt(byte[] content) throws Exception {
+                return Encryptor.this.encrypt(key, content);
+            }
+
+            @Override
+            public byte[] decrypt(byte[] content) throws Exception {
+                return Encryptor.this.decrypt(key, content);
+            }
+
+            @Override
+            public int encrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+                return Encryptor.this.encrypt(key, content, output);
+            }
+
+            @Override
+            public int decrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+                return Encryptor.this.decrypt(key, content, output);
+            }
+
+            @Override
+            public int getMaxEncryptedLength(int contentLength) {
+                return Encryptor.this.getMaxEncryptedLength(contentLength);
+            }
+
+            @Override
+            public int getMaxDecryptedLength(int encryptedContentLength) {
+                return Encryptor.this.getMaxDecryptedLength(encryptedContentLength);
+            }
+        };
+    }
 }
@@ -0,0 +1,54 @@
+package io.github.tap30.hiss.encryptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link Encryptor} bound to a key.
+ *
+ * @see Encryptor#withKey(byte[])
+ */
+public interface KeyedEncryptor {
+    /**
+     * Encrypts content using the bound key.
+     * @return encrypted content.
+     */
+    byte[] encrypt(byte[] content) throws Exception;
+
+    /**
+     * Decrypts content using the bound key.
+     * @return plain content.
+     */
+    byte[] decrypt(byte[] content) throws Exception;
+
+    /**
+     * Encrypts remaining bytes of content using the bound key and writes the result into output.
+     * @return number of bytes written into output.
+     * @see Encryptor#encrypt(byte[], ByteBuffer, ByteBuffer)
+     */
+    default int encrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+        return ByteBufferAdapter.apply(this::encrypt, content, output);
+    }
+
+    /**
+     * Decrypts remaining bytes of content using the bound key and writes the result into output.
+     * @return number of bytes written into output.
+     * @see Encryptor#decrypt(byte[], ByteBuffer, ByteBuffer)
+     */
+    default int decrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+        return ByteBufferAdapter.apply(this::decrypt, content, output);
+    }
+
+    /**
+     * @see Encryptor#getMaxEncryptedLength(int)
+     */
+    default int getMaxEncryptedLength(int contentLength) {
+        return -1;
+    }
+
+    /**
+     * @see Encryptor#getMaxDecryptedLength(int)
+     */
+    default int getMaxDecryptedLength(int encryptedContentLength) {
+        return -1;
+    }
+}
@@ -1,13 +1,26 @@
 package io.github.tap30.hiss.encryptor.impl;
 
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+
 import javax.crypto.spec.IvParameterSpec;
 
 public class AesCbcPkcs5PaddingEncryptor extends BaseJavaEncryptor {
 
     private final static String ALGORITHM_NAME = "AES/CBC/PKCS5Padding";
+    private final static int BLOCK_SIZE = 16;
 
     public AesCbcPkcs5PaddingEncryptor() {
-        super(ALGORITHM_NAME, "AES", 16, IvParameterSpec::new);
+        super(ALGORITHM_NAME, "AES", BLOCK_SIZE,
+                (iv, offset, length) -> new IvParameterSpec(iv, offset, length),
+                DrbgNonceGenerator.getInstance());
+    }
+
+    /**
+     * PKCS5 padding always adds at least one byte, up to a full block.
+     */
+    @Override
+    public int getMaxEncryptedLength(int contentLength) {
+        return BLOCK_SIZE + (contentLength / BLOCK_SIZE + 1) * BLOCK_SIZE;
     }
 
     @Override
@@ -0,0 +1,45 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.nonce.CounterNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.NonceGenerator;
+
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * AES/GCM/NoPadding with the standard 96-bit IV.
+ * <br>
+ * Unlike {@link AesGcmNoPaddingEncryptor} which uses 16-byte IVs, 12-byte IVs are used as GCM counter block
+ * directly instead of being hashed using GHASH, and encrypted content is 4 bytes shorter.
+ * Encrypted content is the 12-byte IV followed by cipher text and 16-byte tag.
+ */
+public class AesGcm96Encryptor extends BaseJavaEncryptor {
+
+    private static final String ALGORITHM_NAME = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+
+    public AesGcm96Encryptor() {
+        this(DrbgNonceGenerator.getInstance());
+    }
+
+    /**
+     * @param nonceGenerator the generator of IVs; e.g. {@link CounterNonceGenerator} for IVs which never repeat.
+     */
+    public AesGcm96Encryptor(NonceGenerator nonceGenerator) {
+        super(ALGORITHM_NAME, "AES", IV_LENGTH,
+                (iv, offset, length) -> new GCMParameterSpec(TAG_LENGTH * 8, iv, offset, length),
+                nonceGenerator);
+    }
+
+    @Override
+    public int getMaxEncryptedLength(int contentLength) {
+        return IV_LENGTH + contentLength + TAG_LENGTH;
+    }
+
+    @Override
+    public String getName() {
+        return "aes-gcm-96";
+    }
+
+}
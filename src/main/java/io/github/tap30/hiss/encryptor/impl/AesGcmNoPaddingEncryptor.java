@@ -1,13 +1,33 @@
 package io.github.tap30.hiss.encryptor.impl;
 
+import io.github.tap30.hiss.encryptor.nonce.CounterNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.NonceGenerator;
+
 import javax.crypto.spec.GCMParameterSpec;
 
 public class AesGcmNoPaddingEncryptor extends BaseJavaEncryptor {
 
     private static final String ALGORITHM_NAME = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 16;
+    private static final int TAG_LENGTH = 16;
 
     public AesGcmNoPaddingEncryptor() {
-        super(ALGORITHM_NAME, "AES", 16, iv -> new GCMParameterSpec(128, iv));
+        this(DrbgNonceGenerator.getInstance());
+    }
+
+    /**
+     * @param nonceGenerator the generator of IVs; e.g. {@link CounterNonceGenerator} for IVs which never repeat.
+     */
+    public AesGcmNoPaddingEncryptor(NonceGenerator nonceGenerator) {
+        super(ALGORITHM_NAME, "AES", IV_LENGTH,
+                (iv, offset, length) -> new GCMParameterSpec(TAG_LENGTH * 8, iv, offset, length),
+                nonceGenerator);
+    }
+
+    @Override
+    public int getMaxEncryptedLength(int contentLength) {
+        return IV_LENGTH + contentLength + TAG_LENGTH;
     }
 
     @Override
@@ -0,0 +1,281 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.KeyedEncryptor;
+import io.github.tap30.hiss.utils.ObjectPool;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+
+/**
+ * Deterministic authenticated encryption using AES-SIV as specified in
+ * <a href="https://www.rfc-editor.org/rfc/rfc5297">RFC 5297</a>.
+ * <br>
+ * Encrypting the same content with the same key always results in the same encrypted content,
+ * so encrypted content can be used for equality lookups; in exchange, it reveals which contents are equal.
+ * <br>
+ * Keys must be 32, 48 or 64 bytes long; the first half is used for S2V (CMAC) and the second half for CTR.
+ * Encrypted content is the 16-byte synthetic IV followed by the cipher text.
+ */
+public class AesSivEncryptor implements Encryptor {
+
+    private static final String NAME = "aes-siv";
+    private static final int BLOCK_SIZE = 16;
+    private static final byte[][] NO_ASSOCIATED_DATA = new byte[0][];
+
+    @Override
+    public byte[] encrypt(byte[] key, byte[] content) throws Exception {
+        return encrypt(key, content, NO_ASSOCIATED_DATA);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] key, byte[] content) throws Exception {
+        return decrypt(key, content, NO_ASSOCIATED_DATA);
+    }
+
+    /**
+     * Encrypts content using key and authenticates associated data alongside.
+     * @return synthetic IV followed by cipher text.
+     */
+    public byte[] encrypt(byte[] key, byte[] content, byte[]... associatedData) throws Exception {
+        return new SivKey(key).encrypt(content, associatedData);
+    }
+
+    /**
+     * Decrypts content using key and verifies it alongside associated data.
+     * @return plain content.
+     * @throws AEADBadTagException if content or associated data is tampered with.
+     */
+    public byte[] decrypt(byte[] key, byte[] content, byte[]... associatedData) throws Exception {
+        return new SivKey(key).decrypt(content, associatedData);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxEncryptedLength(int contentLength) {
+        return BLOCK_SIZE + contentLength;
+    }
+
+    @Override
+    public int getMaxDecryptedLength(int encryptedContentLength) {
+        return Math.max(0, encryptedContentLength - BLOCK_SIZE);
+    }
+
+    /**
+     * Derives CMAC sub keys once per key.
+     * <br>
+     * Keys having invalid length are not rejected here, as Hiss binds every loaded key to every encryptor;
+     * using them fails instead.
+     */
+    @Override
+    public KeyedEncryptor withKey(byte[] key) {
+        if (!isValidKeyLength(key.length)) {
+            return Encryptor.super.withKey(key);
+        }
+        SivKey sivKey;
+        try {
+            sivKey = new SivKey(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return new KeyedEncryptor() {
+            @Override
+            public byte[] encrypt(byte[] content) throws Exception {
+                return sivKey.encrypt(content, NO_ASSOCIATED_DATA);
+            }
+
+            @Override
+            public byte[] decrypt(byte[] content) throws Exception {
+                return sivKey.decrypt(content, NO_ASSOCIATED_DATA);
+            }
+
+            @Override
+            public int getMaxEncryptedLength(int contentLength) {
+                return AesSivEncryptor.this.getMaxEncryptedLength(contentLength);
+            }
+
+            @Override
+            public int getMaxDecryptedLength(int encryptedContentLength) {
+                return AesSivEncryptor.this.getMaxDecryptedLength(encryptedContentLength);
+            }
+        };
+    }
+
+    /**
+     * @return whether key length is 32, 48 or 64 bytes; i.e. two AES-128, AES-192 or AES-256 keys.
+     */
+    public static boolean isValidKeyLength(int keyLength) {
+        return keyLength == 32 || keyLength == 48 || keyLength == 64;
+    }
+
+    private static class SivKey {
+        private final SecretKeySpec macKey;
+        private final SecretKeySpec ctrKey;
+        private final byte[] subKey1;
+        private final byte[] subKey2;
+        private final ObjectPool<Cipher> macCiphers = new ObjectPool<>();
+        private final ObjectPool<Cipher> ctrCiphers = new ObjectPool<>();
+
+        SivKey(byte[] key) throws GeneralSecurityException {
+            if (!isValidKeyLength(key.length)) {
+                throw new InvalidKeyException("AES-SIV key must be 32, 48 or 64 bytes long but was " + key.length);
+            }
+            var half = key.length / 2;
+            this.macKey = new SecretKeySpec(key, 0, half, "AES");
+            this.ctrKey = new SecretKeySpec(key, half, half, "AES");
+
+            var cipher = borrowMacCipher();
+            subKey1 = cipher.doFinal(new byte[BLOCK_SIZE]);
+            releaseMacCipher(cipher);
+            dbl(subKey1);
+            subKey2 = subKey1.clone();
+            dbl(subKey2);
+        }
+
+        byte[] encrypt(byte[] content, byte[][] associatedData) throws Exception {
+            var v = s2v(content, associatedData);
+            var output = new byte[BLOCK_SIZE + content.length];
+            System.arraycopy(v, 0, output, 0, BLOCK_SIZE);
+
+            var cipher = borrowCtrCipher(v, 0);
+            cipher.doFinal(content, 0, content.length, output, BLOCK_SIZE);
+            releaseCtrCipher(cipher);
+            return output;
+        }
+
+        byte[] decrypt(byte[] content, byte[][] associatedData) throws Exception {
+            if (content.length < BLOCK_SIZE) {
+                throw new AEADBadTagException("Encrypted content is shorter than synthetic IV");
+            }
+            var cipher = borrowCtrCipher(content, 0);
+            var plain = cipher.doFinal(content, BLOCK_SIZE, content.length - BLOCK_SIZE);
+            releaseCtrCipher(cipher);
+
+            var v = s2v(plain, associatedData);
+            var difference = 0;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                difference |= v[i] ^ content[i];
+            }
+            if (difference != 0) {
+                throw new AEADBadTagException("Synthetic IV mismatch");
+            }
+            return plain;
+        }
+
+        /**
+         * S2V of RFC 5297, section 2.4.
+         */
+        private byte[] s2v(byte[] content, byte[][] associatedData) throws GeneralSecurityException {
+            var cipher = borrowMacCipher();
+            var d = cmac(cipher, new byte[BLOCK_SIZE]);
+            for (var data : associatedData) {
+                dbl(d);
+                xor(d, 0, cmac(cipher, data), 0, BLOCK_SIZE);
+            }
+
+            byte[] t;
+            if (content.length >= BLOCK_SIZE) {
+                t = content.clone();
+                xor(t, t.length - BLOCK_SIZE, d, 0, BLOCK_SIZE);
+            } else {
+                dbl(d);
+                t = d;
+                xor(t, 0, content, 0, content.length);
+                t[content.length] ^= (byte) 0x80;
+            }
+
+            var v = cmac(cipher, t);
+            releaseMacCipher(cipher);
+            return v;
+        }
+
+        /**
+         * AES-CMAC of RFC 4493 using an AES/ECB cipher initialized with the MAC key.
+         */
+        private byte[] cmac(Cipher cipher, byte[] message) throws GeneralSecurityException {
+            var x = new byte[BLOCK_SIZE];
+            var blocks = message.length == 0 ? 1 : (message.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            for (int i = 0; i < blocks - 1; i++) {
+                xor(x, 0, message, i * BLOCK_SIZE, BLOCK_SIZE);
+                cipher.doFinal(x, 0, BLOCK_SIZE, x, 0);
+            }
+            var lastOffset = (blocks - 1) * BLOCK_SIZE;
+            var lastLength = message.length - lastOffset;
+            xor(x, 0, message, lastOffset, lastLength);
+            if (lastLength == BLOCK_SIZE) {
+                xor(x, 0, subKey1, 0, BLOCK_SIZE);
+            } else {
+                x[lastLength] ^= (byte) 0x80;
+                xor(x, 0, subKey2, 0, BLOCK_SIZE);
+            }
+            cipher.doFinal(x, 0, BLOCK_SIZE, x, 0);
+            return x;
+        }
+
+        /**
+         * MAC ciphers are initialized once; an ECB cipher keeps no state between blocks.
+         */
+        private Cipher borrowMacCipher() throws GeneralSecurityException {
+            var cipher = macCiphers.poll();
+            if (cipher == null) {
+                cipher = Cipher.getInstance("AES/ECB/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, macKey);
+            }
+            return cipher;
+        }
+
+        private void releaseMacCipher(Cipher cipher) {
+            macCiphers.offer(cipher);
+        }
+
+        /**
+         * Initializes a CTR cipher with synthetic IV whose 31st and 63rd bits (from right) are cleared.
+         */
+        private Cipher borrowCtrCipher(byte[] v, int offset) throws GeneralSecurityException {
+            var q = new byte[BLOCK_SIZE];
+            System.arraycopy(v, offset, q, 0, BLOCK_SIZE);
+            q[8] &= 0x7f;
+            q[12] &= 0x7f;
+
+            var cipher = ctrCiphers.poll();
+            if (cipher == null) {
+                cipher = Cipher.getInstance("AES/CTR/NoPadding");
+            }
+            cipher.init(Cipher.ENCRYPT_MODE, ctrKey, new IvParameterSpec(q));
+            return cipher;
+        }
+
+        private void releaseCtrCipher(Cipher cipher) {
+            ctrCiphers.offer(cipher);
+        }
+
+        /**
+         * Multiplies block by x in GF(2^128).
+         */
+        private static void dbl(byte[] block) {
+            var carry = (block[0] & 0x80) != 0;
+            for (int i = 0; i < BLOCK_SIZE - 1; i++) {
+                block[i] = (byte) ((block[i] << 1) | ((block[i + 1] & 0xff) >>> 7));
+            }
+            block[BLOCK_SIZE - 1] = (byte) (block[BLOCK_SIZE - 1] << 1);
+            if (carry) {
+                block[BLOCK_SIZE - 1] ^= (byte) 0x87;
+            }
+        }
+
+        private static void xor(byte[] target, int targetOffset, byte[] source, int sourceOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                target[targetOffset + i] ^= source[sourceOffset + i];
+            }
+        }
+    }
+
+}
@@ -1,63 +1,291 @@
 package io.github.tap30.hiss.encryptor.impl;
 
 import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.KeyedEncryptor;
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.NonceGenerator;
+import io.github.tap30.hiss.provider.ProviderAware;
+import io.github.tap30.hiss.utils.ObjectPool;
 
 import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.Provider;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.Function;
 
-public abstract class BaseJavaEncryptor implements Encryptor {
-
-    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+public abstract class BaseJavaEncryptor implements Encryptor, ProviderAware {
 
     private final String algorithmName;
     private final String keyAlgorithmName;
     private final int ivLength;
-    private final Function<byte[], AlgorithmParameterSpec> algorithmParameterSpecSupplier;
+    private final AlgorithmParameterSpecFactory algorithmParameterSpecFactory;
+    private final NonceGenerator nonceGenerator;
+    private final ObjectPool<Cipher> cipherPool = new ObjectPool<>();
+    private volatile Provider provider;
 
     protected BaseJavaEncryptor(String algorithmName,
                                 String keyAlgorithmName,
                                 int ivLength,
                                 Function<byte[], AlgorithmParameterSpec> algorithmParameterSpecSupplier) {
+        this(algorithmName, keyAlgorithmName, ivLength, algorithmParameterSpecSupplier, DrbgNonceGenerator.getInstance());
+    }
+
+    /**
+     * @param nonceGenerator the generator of IVs; the default is {@link DrbgNonceGenerator}.
+     */
+    protected BaseJavaEncryptor(String algorithmName,
+                                String keyAlgorithmName,
+                                int ivLength,
+                                Function<byte[], AlgorithmParameterSpec> algorithmParameterSpecSupplier,
+                                NonceGenerator nonceGenerator) {
+        this(algorithmName, keyAlgorithmName, ivLength, toFactory(algorithmParameterSpecSupplier), nonceGenerator);
+    }
+
+    /**
+     * @param algorithmParameterSpecFactory creates parameter spec from IV placed in a region of an array;
+     *                                      lets IVs be read in place from encrypted content without copying.
+     * @param nonceGenerator                the generator of IVs; the default is {@link DrbgNonceGenerator}.
+     */
+    protected BaseJavaEncryptor(String algorithmName,
+                                String keyAlgorithmName,
+                                int ivLength,
+                                AlgorithmParameterSpecFactory algorithmParameterSpecFactory,
+                                NonceGenerator nonceGenerator) {
         this.algorithmName = Objects.requireNonNull(algorithmName);
         this.keyAlgorithmName = Objects.requireNonNull(keyAlgorithmName);
         this.ivLength = ivLength;
-        this.algorithmParameterSpecSupplier = Objects.requireNonNull(algorithmParameterSpecSupplier);
+        this.algorithmParameterSpecFactory = Objects.requireNonNull(algorithmParameterSpecFactory);
+        this.nonceGenerator = Objects.requireNonNull(nonceGenerator);
     }
 
-
     @Override
     public byte[] encrypt(byte[] key, byte[] content) throws Exception {
+        return encrypt(new SecretKeySpec(key, keyAlgorithmName), content);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] key, byte[] content) throws Exception {
+        return decrypt(new SecretKeySpec(key, keyAlgorithmName), content);
+    }
+
+    @Override
+    public int encrypt(byte[] key, ByteBuffer content, ByteBuffer output) throws Exception {
+        return encrypt(new SecretKeySpec(key, keyAlgorithmName), content, output);
+    }
+
+    @Override
+    public int decrypt(byte[] key, ByteBuffer content, ByteBuffer output) throws Exception {
+        return decrypt(new SecretKeySpec(key, keyAlgorithmName), content, output);
+    }
+
+    /**
+     * Plain content is never longer than its cipher text, so this is encrypted content length minus IV length.
+     */
+    @Override
+    public int getMaxDecryptedLength(int encryptedContentLength) {
+        return Math.max(0, encryptedContentLength - ivLength);
+    }
+
+    @Override
+    public KeyedEncryptor withKey(byte[] key) {
         var secretKeySpec = new SecretKeySpec(key, keyAlgorithmName);
-        var cipher = Cipher.getInstance(algorithmName);
+        return new KeyedEncryptor() {
+            @Override
+            public byte[] encrypt(byte[] content) throws Exception {
+                return BaseJavaEncryptor.this.encrypt(secretKeySpec, content);
+            }
+
+            @Override
+            public byte[] decrypt(byte[] content) throws Exception {
+                return BaseJavaEncryptor.this.decrypt(secretKeySpec, content);
+            }
+
+            @Override
+            public int encrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+                return BaseJavaEncryptor.this.encrypt(secretKeySpec, content, output);
+            }
+
+            @Override
+            public int decrypt(ByteBuffer content, ByteBuffer output) throws Exception {
+                return BaseJavaEncryptor.this.decrypt(secretKeySpec, content, output);
+            }
+
+            @Override
+            public int getMaxEncryptedLength(int contentLength) {
+                return BaseJavaEncryptor.this.getMaxEncryptedLength(contentLength);
+            }
+
+            @Override
+            public int getMaxDecryptedLength(int encryptedContentLength) {
+                return BaseJavaEncryptor.this.getMaxDecryptedLength(encryptedContentLength);
+            }
+        };
+    }
+
+    @Override
+    public String getServiceType() {
+        return "Cipher";
+    }
+
+    @Override
+    public String getServiceAlgorithm() {
+        return algorithmName;
+    }
+
+    @Override
+    public Provider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Pins the provider and drops pooled ciphers created by the previous one.
+     */
+    @Override
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+        cipherPool.clear();
+    }
+
+    /**
+     * Returns hit/miss counters of the pool from which {@link Cipher} instances are reused;
+     * each miss means a {@link Cipher#getInstance(String)} call.
+     */
+    public ObjectPool.Statistics getCipherPoolStatistics() {
+        return cipherPool.getStatistics();
+    }
+
+    /**
+     * Writes IV and cipher text directly into a single array sized by the cipher.
+     */
+    private byte[] encrypt(SecretKeySpec secretKeySpec, byte[] content) throws Exception {
+        var cipher = borrowCipher();
 
         var iv = new byte[ivLength];
-        SECURE_RANDOM.nextBytes(iv);
+        nonceGenerator.nextNonce(iv, 0, iv.length);
 
-        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, algorithmParameterSpecSupplier.apply(iv));
+        initCipher(cipher, Cipher.ENCRYPT_MODE, secretKeySpec, algorithmParameterSpecFactory.create(iv, 0, iv.length));
 
-        var encryptedBytes = cipher.doFinal(content);
-        var encryptedIvAndContent = new byte[iv.length + encryptedBytes.length];
+        var encryptedIvAndContent = new byte[iv.length + cipher.getOutputSize(content.length)];
         System.arraycopy(iv, 0, encryptedIvAndContent, 0, iv.length);
-        System.arraycopy(encryptedBytes, 0, encryptedIvAndContent, iv.length, encryptedBytes.length);
+        var encryptedLength = cipher.doFinal(content, 0, content.length, encryptedIvAndContent, iv.length);
+        releaseCipher(cipher);
 
-        return encryptedIvAndContent;
+        var length = iv.length + encryptedLength;
+        return length == encryptedIvAndContent.length
+                ? encryptedIvAndContent
+                : Arrays.copyOf(encryptedIvAndContent, length);
     }
 
-    @Override
-    public byte[] decrypt(byte[] key, byte[] content) throws Exception {
+    /**
+     * Reads IV and cipher text in place from content.
+     */
+    private byte[] decrypt(SecretKeySpec secretKeySpec, byte[] content) throws Exception {
+        checkEncryptedContentLength(content.length);
+
+        var cipher = borrowCipher();
+        initCipher(cipher, Cipher.DECRYPT_MODE, secretKeySpec, algorithmParameterSpecFactory.create(content, 0, ivLength));
+
+        var decryptedBytes = cipher.doFinal(content, ivLength, content.length - ivLength);
+        releaseCipher(cipher);
+        return decryptedBytes;
+    }
+
+    private int encrypt(SecretKeySpec secretKeySpec, ByteBuffer content, ByteBuffer output) throws Exception {
+        var cipher = borrowCipher();
+
         var iv = new byte[ivLength];
-        var encryptedBytes = new byte[content.length - iv.length];
-        System.arraycopy(content, 0, iv, 0, iv.length);
-        System.arraycopy(content, iv.length, encryptedBytes, 0, encryptedBytes.length);
+        nonceGenerator.nextNonce(iv, 0, iv.length);
 
-        var secretKeySpec = new SecretKeySpec(key, keyAlgorithmName);
-        Cipher cipher = Cipher.getInstance(algorithmName);
-        cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, algorithmParameterSpecSupplier.apply(iv));
+        initCipher(cipher, Cipher.ENCRYPT_MODE, secretKeySpec, algorithmParameterSpecFactory.create(iv, 0, iv.length));
+
+        var requiredLength = iv.length + cipher.getOutputSize(content.remaining());
+        if (output.remaining() < requiredLength) {
+            releaseCipher(cipher);
+            throw new ShortBufferException("Output buffer is too short; needed " + requiredLength
+                                           + " bytes but " + output.remaining() + " bytes remained");
+        }
+
+        output.put(iv);
+        var encryptedLength = cipher.doFinal(content, output);
+        releaseCipher(cipher);
+        return iv.length + encryptedLength;
+    }
+
+    private int decrypt(SecretKeySpec secretKeySpec, ByteBuffer content, ByteBuffer output) throws Exception {
+        checkEncryptedContentLength(content.remaining());
+
+        AlgorithmParameterSpec algorithmParameterSpec;
+        if (content.hasArray()) {
+            algorithmParameterSpec = algorithmParameterSpecFactory.create(
+                    content.array(), content.arrayOffset() + content.position(), ivLength);
+        } else {
+            var iv = new byte[ivLength];
+            content.duplicate().get(iv);
+            algorithmParameterSpec = algorithmParameterSpecFactory.create(iv, 0, iv.length);
+        }
+
+        var cipher = borrowCipher();
+        initCipher(cipher, Cipher.DECRYPT_MODE, secretKeySpec, algorithmParameterSpec);
+
+        content.position(content.position() + ivLength);
+        var decryptedLength = cipher.doFinal(content, output);
+        releaseCipher(cipher);
+        return decryptedLength;
+    }
+
+    private void checkEncryptedContentLength(int length) {
+        if (length < ivLength) {
+            throw new IllegalArgumentException("Encrypted content is shorter than IV");
+        }
+    }
+
+    /**
+     * Initializes a borrowed cipher; override to work around provider specific restrictions on reinitialization.
+     */
+    protected void initCipher(Cipher cipher,
+                              int mode,
+                              Key key,
+                              AlgorithmParameterSpec algorithmParameterSpec) throws GeneralSecurityException {
+        cipher.init(mode, key, algorithmParameterSpec);
+    }
+
+    /**
+     * Takes an idle cipher from the pool or creates a new one.
+     * <br>
+     * Ciphers are always initialized before use, so a borrowed cipher does not carry any state from its previous use.
+     */
+    private Cipher borrowCipher() throws GeneralSecurityException {
+        var cipher = cipherPool.poll();
+        if (cipher != null) {
+            return cipher;
+        }
+        var provider = this.provider;
+        return provider != null ? Cipher.getInstance(algorithmName, provider) : Cipher.getInstance(algorithmName);
+    }
+
+    /**
+     * Gives the cipher back to the pool; ciphers which failed during an operation are not released and are left for GC.
+     */
+    private void releaseCipher(Cipher cipher) {
+        cipherPool.offer(cipher);
+    }
+
+    private static AlgorithmParameterSpecFactory toFactory(Function<byte[], AlgorithmParameterSpec> supplier) {
+        Objects.requireNonNull(supplier);
+        return (iv, offset, length) -> supplier.apply(Arrays.copyOfRange(iv, offset, offset + length));
+    }
 
-        return cipher.doFinal(encryptedBytes);
+    /**
+     * Creates {@link AlgorithmParameterSpec} from IV placed in a region of an array.
+     */
+    @FunctionalInterface
+    protected interface AlgorithmParameterSpecFactory {
+        AlgorithmParameterSpec create(byte[] iv, int offset, int length);
     }
 }
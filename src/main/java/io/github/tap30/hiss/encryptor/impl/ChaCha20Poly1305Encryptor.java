@@ -0,0 +1,73 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.nonce.CounterNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.DrbgNonceGenerator;
+import io.github.tap30.hiss.encryptor.nonce.NonceGenerator;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * ChaCha20-Poly1305 as specified in <a href="https://www.rfc-editor.org/rfc/rfc8439">RFC 8439</a>;
+ * faster than AES-GCM on hosts without AES hardware acceleration.
+ * <br>
+ * Keys must be 32 bytes long. Encrypted content is the 12-byte nonce followed by cipher text and 16-byte tag.
+ */
+public class ChaCha20Poly1305Encryptor extends BaseJavaEncryptor {
+
+    private static final String ALGORITHM_NAME = "ChaCha20-Poly1305";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+
+    public ChaCha20Poly1305Encryptor() {
+        this(DrbgNonceGenerator.getInstance());
+    }
+
+    /**
+     * @param nonceGenerator the generator of nonces; e.g. {@link CounterNonceGenerator} for nonces which never repeat.
+     */
+    public ChaCha20Poly1305Encryptor(NonceGenerator nonceGenerator) {
+        super(ALGORITHM_NAME, "ChaCha20", NONCE_LENGTH,
+                (iv, offset, length) -> new IvParameterSpec(iv, offset, length),
+                nonceGenerator);
+    }
+
+    @Override
+    public int getMaxEncryptedLength(int contentLength) {
+        return NONCE_LENGTH + contentLength + TAG_LENGTH;
+    }
+
+    /**
+     * JDK's ChaCha20-Poly1305 rejects initialization with key and nonce of its previous initialization,
+     * which happens when a pooled cipher decrypts content it has just encrypted or decrypted;
+     * for decryption, the cipher is first initialized with a different nonce.
+     * Encryption is left rejected, as it would be a nonce reuse.
+     */
+    @Override
+    protected void initCipher(Cipher cipher,
+                              int mode,
+                              Key key,
+                              AlgorithmParameterSpec algorithmParameterSpec) throws GeneralSecurityException {
+        try {
+            cipher.init(mode, key, algorithmParameterSpec);
+        } catch (InvalidKeyException e) {
+            if (mode != Cipher.DECRYPT_MODE) {
+                throw e;
+            }
+            var nonce = ((IvParameterSpec) algorithmParameterSpec).getIV();
+            nonce[0] ^= 1;
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(nonce));
+            cipher.init(mode, key, algorithmParameterSpec);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "chacha20-poly1305";
+    }
+
+}
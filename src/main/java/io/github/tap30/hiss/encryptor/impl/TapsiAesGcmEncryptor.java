@@ -1,6 +1,16 @@
 package io.github.tap30.hiss.encryptor.impl;
 
+import io.github.tap30.hiss.encryptor.nonce.NonceGenerator;
+
 public class TapsiAesGcmEncryptor extends AesGcmNoPaddingEncryptor {
+
+    public TapsiAesGcmEncryptor() {
+    }
+
+    public TapsiAesGcmEncryptor(NonceGenerator nonceGenerator) {
+        super(nonceGenerator);
+    }
+
     @Override
     public String getName() {
         return "aes-128-gcm";
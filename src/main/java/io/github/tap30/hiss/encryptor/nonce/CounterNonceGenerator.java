@@ -0,0 +1,48 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates nonces made of a random prefix, chosen once per instance, followed by a 64-bit big-endian counter
+ * of which only non-negative values (2^63 nonces) are used.
+ * <br>
+ * Nonces generated by an instance never repeat; uniqueness across instances (e.g. JVM restarts or other hosts)
+ * relies on the random prefix which is <code>length - 8</code> bytes long, so longer nonces are safer;
+ * with 12-byte nonces the prefix is 32 bits and the number of instances using the same key should be kept low.
+ * <br>
+ * Use only with algorithms which require unique but not unpredictable nonces (e.g. GCM); <b>not</b> for CBC.
+ */
+public class CounterNonceGenerator implements NonceGenerator {
+
+    private static final int COUNTER_LENGTH = Long.BYTES;
+    private static final int MAX_PREFIX_LENGTH = 8;
+
+    private final byte[] prefix = new byte[MAX_PREFIX_LENGTH];
+    private final AtomicLong counter = new AtomicLong();
+
+    public CounterNonceGenerator() {
+        DrbgNonceGenerator.getInstance().nextNonce(prefix, 0, prefix.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if length is not between 9 and 16 bytes.
+     * @throws IllegalStateException    if all counter values are used.
+     */
+    @Override
+    public void nextNonce(byte[] output, int offset, int length) {
+        var prefixLength = length - COUNTER_LENGTH;
+        if (prefixLength < 1 || prefixLength > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Nonce length must be between 9 and 16 bytes: " + length);
+        }
+        var count = counter.getAndIncrement();
+        if (count < 0) {
+            throw new IllegalStateException("Nonce counter is exhausted");
+        }
+        System.arraycopy(prefix, 0, output, offset, prefixLength);
+        for (int i = length - 1; i >= prefixLength; i--) {
+            output[offset + i] = (byte) count;
+            count >>>= 8;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Generates random nonces using a set of independent DRBG {@link SecureRandom}s.
+ * <br>
+ * Each thread uses the generator chosen by its thread ID, so threads mostly do not contend on the same
+ * <code>SecureRandom</code>; the number of generators is bounded (two per available processor),
+ * so having many (virtual) threads does not create many generators.
+ */
+public class DrbgNonceGenerator implements NonceGenerator {
+
+    private static final DrbgNonceGenerator INSTANCE = new DrbgNonceGenerator();
+
+    private final SecureRandom[] secureRandoms;
+    private final int mask;
+
+    public DrbgNonceGenerator() {
+        var processors = Runtime.getRuntime().availableProcessors() * 2;
+        var size = Integer.highestOneBit(processors);
+        if (size < processors) {
+            size <<= 1;
+        }
+        this.secureRandoms = new SecureRandom[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            secureRandoms[i] = createSecureRandom();
+        }
+    }
+
+    /**
+     * @return the shared instance used by default encryptors.
+     */
+    public static DrbgNonceGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void nextNonce(byte[] output, int offset, int length) {
+        var secureRandom = secureRandoms[probe()];
+        if (offset == 0 && length == output.length) {
+            secureRandom.nextBytes(output);
+        } else {
+            var nonce = new byte[length];
+            secureRandom.nextBytes(nonce);
+            System.arraycopy(nonce, 0, output, offset, length);
+        }
+    }
+
+    private int probe() {
+        var id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static SecureRandom createSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+/**
+ * Generates nonces (IVs) for encryptors.
+ * <br>
+ * Implementations must be thread-safe.
+ */
+public interface NonceGenerator {
+    /**
+     * Writes a fresh nonce of <code>length</code> bytes into <code>output</code> starting at <code>offset</code>.
+     */
+    void nextNonce(byte[] output, int offset, int length);
+}
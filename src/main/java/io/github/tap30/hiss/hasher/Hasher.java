@@ -15,4 +15,17 @@ public interface Hasher {
      * @return hasher name.
      */
     String getName();
+
+    /**
+     * Binds this hasher to a key.
+     * <br>
+     * Hiss calls this once per loaded key upon instantiation and uses the returned object for all
+     * hash calculations with that key; override it to prepare key dependent state ahead of time.
+     * <br>
+     * The default implementation delegates to {@link #hash(byte[], byte[])}.
+     * @return the hasher bound to the key.
+     */
+    default KeyedHasher withKey(byte[] key) {
+        return content -> hash(key, content);
+    }
 }
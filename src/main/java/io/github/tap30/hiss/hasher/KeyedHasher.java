@@ -0,0 +1,42 @@
+package io.github.tap30.hiss.hasher;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Hasher} bound to a key.
+ *
+ * @see Hasher#withKey(byte[])
+ */
+public interface KeyedHasher {
+    /**
+     * Calculates hash of provided content using the bound key.
+     * @return hash of content.
+     */
+    byte[] hash(byte[] content) throws Exception;
+
+    /**
+     * Calculates hash of a range of provided content using the bound key.
+     * <br>
+     * The default implementation copies the range; override it to hash in place.
+     * @return hash of the range.
+     */
+    default byte[] hash(byte[] content, int offset, int length) throws Exception {
+        return hash(Arrays.copyOfRange(content, offset, offset + length));
+    }
+
+    /**
+     * Calculates hashes of prefixes of provided content using the bound key.
+     * <br>
+     * The default implementation hashes each prefix separately; override it to hash
+     * in one pass over the content.
+     * @param lengths ascending lengths of prefixes.
+     * @return hashes of prefixes in the order of lengths.
+     */
+    default byte[][] hashPrefixes(byte[] content, int[] lengths) throws Exception {
+        var hashes = new byte[lengths.length][];
+        for (int i = 0; i < lengths.length; i++) {
+            hashes[i] = hash(content, 0, lengths[i]);
+        }
+        return hashes;
+    }
+}
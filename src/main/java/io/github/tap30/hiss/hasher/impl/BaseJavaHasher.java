@@ -0,0 +1,191 @@
+package io.github.tap30.hiss.hasher.impl;
+
+import io.github.tap30.hiss.hasher.Hasher;
+import io.github.tap30.hiss.hasher.KeyedHasher;
+import io.github.tap30.hiss.provider.ProviderAware;
+import io.github.tap30.hiss.utils.ObjectPool;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.util.Objects;
+
+/**
+ * Base of hashers using a JCA {@link Mac} algorithm.
+ */
+public abstract class BaseJavaHasher implements Hasher, ProviderAware {
+
+    private final String algorithmName;
+    private volatile Provider provider;
+
+    /**
+     * @param algorithmName JCA name of the Mac algorithm; e.g. <code>HmacSHA256</code>.
+     */
+    protected BaseJavaHasher(String algorithmName) {
+        this.algorithmName = Objects.requireNonNull(algorithmName);
+    }
+
+    @Override
+    public byte[] hash(byte[] key, byte[] content) throws Exception {
+        return hash(new SecretKeySpec(key, algorithmName), content);
+    }
+
+    /**
+     * Keeps a {@link Mac} initialized with the key as prototype and hashes using its pooled clones;
+     * so HMAC pads are derived once per key instead of once per hash.
+     */
+    @Override
+    public KeyedHasher withKey(byte[] key) {
+        var secretKeySpec = new SecretKeySpec(key, algorithmName);
+        return new KeyedHasher() {
+            private volatile KeyedMacs keyedMacs;
+
+            @Override
+            public byte[] hash(byte[] content) throws Exception {
+                return getKeyedMacs().hash(content);
+            }
+
+            @Override
+            public byte[] hash(byte[] content, int offset, int length) throws Exception {
+                return getKeyedMacs().hash(content, offset, length);
+            }
+
+            @Override
+            public byte[][] hashPrefixes(byte[] content, int[] lengths) throws Exception {
+                return getKeyedMacs().hashPrefixes(content, lengths);
+            }
+
+            private KeyedMacs getKeyedMacs() throws GeneralSecurityException {
+                var provider = BaseJavaHasher.this.provider;
+                var keyedMacs = this.keyedMacs;
+                if (keyedMacs == null || keyedMacs.provider != provider) {
+                    keyedMacs = new KeyedMacs(algorithmName, secretKeySpec, provider);
+                    this.keyedMacs = keyedMacs;
+                }
+                return keyedMacs;
+            }
+        };
+    }
+
+    /**
+     * Returns the JCA algorithm name; override to use a different name in hashed content.
+     */
+    @Override
+    public String getName() {
+        return algorithmName;
+    }
+
+    @Override
+    public String getServiceType() {
+        return "Mac";
+    }
+
+    @Override
+    public String getServiceAlgorithm() {
+        return algorithmName;
+    }
+
+    @Override
+    public Provider getProvider() {
+        return provider;
+    }
+
+    @Override
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+    }
+
+    private byte[] hash(SecretKeySpec secretKeySpec, byte[] content) throws Exception {
+        return createMac(algorithmName, secretKeySpec, provider).doFinal(content);
+    }
+
+    private static Mac createMac(String algorithmName,
+                                 SecretKeySpec secretKeySpec,
+                                 Provider provider) throws GeneralSecurityException {
+        var mac = provider != null ? Mac.getInstance(algorithmName, provider) : Mac.getInstance(algorithmName);
+        mac.init(secretKeySpec);
+        return mac;
+    }
+
+    /**
+     * Keyed {@link Mac}s created by a provider; recreated by the keyed hasher once the provider is changed.
+     * <br>
+     * {@link Mac#doFinal(byte[])} resets a Mac to its initialized state, so released Macs are ready to be reused.
+     */
+    private static class KeyedMacs {
+        private final String algorithmName;
+        private final SecretKeySpec secretKeySpec;
+        private final Provider provider;
+        private final Mac prototype;
+        private final ObjectPool<Mac> pool = new ObjectPool<>();
+
+        KeyedMacs(String algorithmName, SecretKeySpec secretKeySpec, Provider provider) throws GeneralSecurityException {
+            this.algorithmName = algorithmName;
+            this.secretKeySpec = secretKeySpec;
+            this.provider = provider;
+            this.prototype = createMac(algorithmName, secretKeySpec, provider);
+        }
+
+        byte[] hash(byte[] content) throws GeneralSecurityException {
+            var mac = borrow();
+            var hash = mac.doFinal(content);
+            pool.offer(mac);
+            return hash;
+        }
+
+        byte[] hash(byte[] content, int offset, int length) throws GeneralSecurityException {
+            var mac = borrow();
+            mac.update(content, offset, length);
+            var hash = mac.doFinal();
+            pool.offer(mac);
+            return hash;
+        }
+
+        /**
+         * Feeds content to one Mac once and finalizes a clone of it at the end of each prefix.
+         */
+        byte[][] hashPrefixes(byte[] content, int[] lengths) throws GeneralSecurityException {
+            var hashes = new byte[lengths.length][];
+            var mac = borrow();
+            try {
+                var position = 0;
+                for (int i = 0; i < lengths.length; i++) {
+                    mac.update(content, position, lengths[i] - position);
+                    position = lengths[i];
+                    hashes[i] = finalizeClone(mac, content, position);
+                }
+            } finally {
+                mac.reset();
+            }
+            pool.offer(mac);
+            return hashes;
+        }
+
+        private byte[] finalizeClone(Mac mac, byte[] content, int length) throws GeneralSecurityException {
+            try {
+                return ((Mac) mac.clone()).doFinal();
+            } catch (CloneNotSupportedException e) {
+                var prefixMac = createMac(algorithmName, secretKeySpec, provider);
+                prefixMac.update(content, 0, length);
+                return prefixMac.doFinal();
+            }
+        }
+
+        /**
+         * Clones the prototype if the pool is empty; providers not supporting clone fall back to initializing a new Mac.
+         * The prototype itself is never updated, so cloning it concurrently is safe.
+         */
+        private Mac borrow() throws GeneralSecurityException {
+            var mac = pool.poll();
+            if (mac != null) {
+                return mac;
+            }
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return createMac(algorithmName, secretKeySpec, provider);
+            }
+        }
+    }
+}
@@ -1,24 +1,9 @@
 package io.github.tap30.hiss.hasher.impl;
 
-import io.github.tap30.hiss.hasher.Hasher;
+public class HmacSha256Hasher extends BaseJavaHasher {
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-public class HmacSha256Hasher implements Hasher {
-
-    private static final String HMAC_SHA256 = "HmacSHA256";
-
-    @Override
-    public byte[] hash(byte[] key, byte[] content) throws Exception {
-        var secretKeySpec = new SecretKeySpec(key, HMAC_SHA256);
-        var mac = Mac.getInstance(HMAC_SHA256);
-        mac.init(secretKeySpec);
-        return mac.doFinal(content);
+    public HmacSha256Hasher() {
+        super("HmacSHA256");
     }
 
-    @Override
-    public String getName() {
-        return HMAC_SHA256;
-    }
 }
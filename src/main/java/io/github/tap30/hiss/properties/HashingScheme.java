@@ -0,0 +1,42 @@
+package io.github.tap30.hiss.properties;
+
+import io.github.tap30.hiss.utils.StringUtils;
+import lombok.Value;
+
+/**
+ * A hashing algorithm and the ID of the key used with it.
+ */
+@Value
+public class HashingScheme {
+
+    /**
+     * The algorithm name; it must exist among default or custom hashing algorithms.
+     */
+    String algorithm;
+    /**
+     * The key ID; it must exist in `keys` map.
+     */
+    String keyId;
+
+    public static HashingScheme of(String algorithm, String keyId) {
+        return new HashingScheme(StringUtils.toLowerCase(algorithm), StringUtils.toLowerCase(keyId));
+    }
+
+    /**
+     * @param scheme algorithm name and key ID separated by colon; e.g. <code>hmac-sha256:old_key</code>.
+     * @throws IllegalArgumentException if the scheme is not in the mentioned format.
+     */
+    public static HashingScheme parse(String scheme) {
+        var parts = scheme.trim().split(":");
+        if (parts.length != 2 || !StringUtils.hasText(parts[0]) || !StringUtils.hasText(parts[1])) {
+            throw new IllegalArgumentException("Hashing scheme must be in algorithm:keyId format: " + scheme);
+        }
+        return of(parts[0].trim(), parts[1].trim());
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ":" + keyId;
+    }
+
+}
@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -20,6 +22,11 @@ import java.util.stream.Collectors;
 @AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class HissProperties {
 
+    private static final String DEFAULT_DETERMINISTIC_ENCRYPTION_ALGORITHM = "aes-siv";
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    private static final int DEFAULT_COMPRESSION_MAX_LENGTH = 16 * 1024 * 1024;
+    private static final Duration DEFAULT_HASH_CACHE_TTL = Duration.ofMinutes(10);
+
     /**
      * Pairs of key ID (name) to key.
      */
@@ -42,10 +49,63 @@ public class HissProperties {
      * It must exist among default or custom hashing algorithms.
      */
     String defaultHashingAlgorithm;
+    /**
+     * Hashing schemes other than the default one, e.g. the previous key or algorithm during rotation;
+     * hashes under these schemes are calculated alongside default hashes for lookups and for fields having
+     * <code>@Encrypted(additionalHashesFieldName)</code>. Null means none.
+     */
+    List<HashingScheme> additionalHashingSchemes;
+    /**
+     * The key ID of the key by which deterministic encryption
+     * (i.e. fields annotated with <code>@Encrypted(deterministic = true)</code>) will be done.
+     * It must exist in `keys` map; empty means deterministic encryption is disabled.
+     */
+    String defaultDeterministicEncryptionKeyId;
+    /**
+     * The algorithm name by which deterministic encryption will be done;
+     * empty means <code>aes-siv</code>.
+     * It must exist among default or custom encryption algorithms.
+     */
+    String defaultDeterministicEncryptionAlgorithm;
     /**
      * Whether to generate keys' hashes on Hiss instantiation.
      */
     boolean keyHashGenerationEnabled;
+    /**
+     * Whether to benchmark installed JCA providers on Hiss instantiation and pin the fastest one
+     * to each encryptor and hasher; see {@link io.github.tap30.hiss.provider.CryptoProviderProber}.
+     */
+    boolean cryptoProviderProbingEnabled;
+    /**
+     * Whether to compress content before encryption on fields whose <code>@Encrypted(compression)</code>
+     * is <code>DEFAULT</code> and on content encrypted using {@link io.github.tap30.hiss.Hiss#encrypt(String)}.
+     */
+    boolean compressionEnabled;
+    /**
+     * Minimum length of content in UTF-8 bytes to be compressed; zero or negative means 1024.
+     */
+    int compressionThreshold;
+    /**
+     * Maximum length of content in bytes to be compressed, and of decompressed content; zero or negative means
+     * 16 MiB. Decompression stops with an error beyond it, so crafted content can't exhaust memory.
+     */
+    int compressionMaxLength;
+    /**
+     * Whether to encrypt in compact format, <code>#$2{content}#</code>, rather than
+     * <code>#$$#{algorithm:keyId}{content}#$$#</code>; deterministically encrypted contents and hashes keep
+     * the latter. Contents in both formats are decrypted regardless, as long as their key is loaded.
+     */
+    boolean compactEnvelopeEnabled;
+    /**
+     * Maximum number of hashes to be cached; zero disables caching.
+     * <br>
+     * Cached entries hold UTF-8 bytes of hashed contents in memory until evicted.
+     */
+    int hashCacheMaxSize;
+    /**
+     * Time to live of cached hashes; null means 10 minutes.
+     */
+    Duration hashCacheTtl;
 
     /**
      * See {@link HissPropertiesFromEnvProvider}.
@@ -61,10 +121,42 @@ public class HissProperties {
                 .defaultEncryptionAlgorithm(provider.getDefaultEncryptionAlgorithm())
                 .defaultHashingKeyId(provider.getDefaultHashingKeyId())
                 .defaultHashingAlgorithm(provider.getDefaultHashingAlgorithm())
+                .additionalHashingSchemes(provider.getAdditionalHashingSchemes())
+                .defaultDeterministicEncryptionKeyId(provider.getDefaultDeterministicEncryptionKeyId())
+                .defaultDeterministicEncryptionAlgorithm(provider.getDefaultDeterministicEncryptionAlgorithm())
                 .keyHashGenerationEnabled(provider.isKeyHashGenerationEnabled())
+                .cryptoProviderProbingEnabled(provider.isCryptoProviderProbingEnabled())
+                .compressionEnabled(provider.isCompressionEnabled())
+                .compressionThreshold(provider.getCompressionThreshold())
+                .compressionMaxLength(provider.getCompressionMaxLength())
+                .compactEnvelopeEnabled(provider.isCompactEnvelopeEnabled())
+                .hashCacheMaxSize(provider.getHashCacheMaxSize())
+                .hashCacheTtl(provider.getHashCacheTtl())
                 .build();
     }
 
+    public String getDefaultDeterministicEncryptionAlgorithm() {
+        return StringUtils.hasText(defaultDeterministicEncryptionAlgorithm)
+                ? defaultDeterministicEncryptionAlgorithm
+                : DEFAULT_DETERMINISTIC_ENCRYPTION_ALGORITHM;
+    }
+
+    public List<HashingScheme> getAdditionalHashingSchemes() {
+        return additionalHashingSchemes != null ? additionalHashingSchemes : List.of();
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold > 0 ? compressionThreshold : DEFAULT_COMPRESSION_THRESHOLD;
+    }
+
+    public int getCompressionMaxLength() {
+        return compressionMaxLength > 0 ? compressionMaxLength : DEFAULT_COMPRESSION_MAX_LENGTH;
+    }
+
+    public Duration getHashCacheTtl() {
+        return hashCacheTtl != null ? hashCacheTtl : DEFAULT_HASH_CACHE_TTL;
+    }
+
     public static class HissPropertiesBuilder {
         public HissPropertiesBuilder keys(Set<Key> keys) {
             this.keys = keys.stream()
@@ -91,6 +183,23 @@ public class HissProperties {
             this.defaultHashingAlgorithm = StringUtils.toLowerCase(defaultHashingAlgorithm);
             return this;
         }
+
+        public HissPropertiesBuilder additionalHashingSchemes(List<HashingScheme> additionalHashingSchemes) {
+            this.additionalHashingSchemes = additionalHashingSchemes == null ? null : additionalHashingSchemes.stream()
+                    .map(s -> s == null ? null : HashingScheme.of(s.getAlgorithm(), s.getKeyId()))
+                    .collect(Collectors.toList());
+            return this;
+        }
+
+        public HissPropertiesBuilder defaultDeterministicEncryptionKeyId(String defaultDeterministicEncryptionKeyId) {
+            this.defaultDeterministicEncryptionKeyId = StringUtils.toLowerCase(defaultDeterministicEncryptionKeyId);
+            return this;
+        }
+
+        public HissPropertiesBuilder defaultDeterministicEncryptionAlgorithm(String defaultDeterministicEncryptionAlgorithm) {
+            this.defaultDeterministicEncryptionAlgorithm = StringUtils.toLowerCase(defaultDeterministicEncryptionAlgorithm);
+            return this;
+        }
     }
 
 
@@ -2,11 +2,15 @@ package io.github.tap30.hiss.properties;
 
 import io.github.tap30.hiss.key.Key;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Provides {@link HissProperties} from environment variables.
@@ -34,8 +38,40 @@ import java.util.function.Supplier;
  *         <code>defaultHashingAlgorithm</code>: <code>HISS_DEFAULT_HASHING_ALGORITHM</code>
  *     </li>
  *     <li>
+ *         <code>additionalHashingSchemes</code>: <code>HISS_ADDITIONAL_HASHING_SCHEMES</code>; comma separated
+ *         <code>algorithm:keyId</code> pairs, e.g. <code>hmac-sha256:old_key,tapsi-hmac-sha256:default_key</code>
+ *     </li>
+ *     <li>
+ *         <code>defaultDeterministicEncryptionKeyId</code>: <code>HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_KEY_ID</code>
+ *     </li>
+ *     <li>
+ *         <code>defaultDeterministicEncryptionAlgorithm</code>:
+ *         <code>HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_ALGORITHM</code>
+ *     </li>
+ *     <li>
  *         <code>keyHashGenerationEnabled</code>: <code>HISS_KEY_HASH_GENERATION_ENABLED</code>
  *     </li>
+ *     <li>
+ *         <code>cryptoProviderProbingEnabled</code>: <code>HISS_CRYPTO_PROVIDER_PROBING_ENABLED</code>
+ *     </li>
+ *     <li>
+ *         <code>compressionEnabled</code>: <code>HISS_COMPRESSION_ENABLED</code>
+ *     </li>
+ *     <li>
+ *         <code>compressionThreshold</code>: <code>HISS_COMPRESSION_THRESHOLD</code>
+ *     </li>
+ *     <li>
+ *         <code>compressionMaxLength</code>: <code>HISS_COMPRESSION_MAX_LENGTH</code>
+ *     </li>
+ *     <li>
+ *         <code>compactEnvelopeEnabled</code>: <code>HISS_COMPACT_ENVELOPE_ENABLED</code>
+ *     </li>
+ *     <li>
+ *         <code>hashCacheMaxSize</code>: <code>HISS_HASH_CACHE_MAX_SIZE</code>
+ *     </li>
+ *     <li>
+ *         <code>hashCacheTtl</code>: <code>HISS_HASH_CACHE_TTL</code>; in ISO-8601 format, e.g. <code>PT10M</code>
+ *     </li>
  * </ul>
  *
  * @see HissProperties
@@ -82,9 +118,70 @@ public class HissPropertiesFromEnvProvider implements HissPropertiesProvider {
         return ENV_PROVIDER.get().get("HISS_DEFAULT_HASHING_ALGORITHM");
     }
 
+    @Override
+    public List<HashingScheme> getAdditionalHashingSchemes() {
+        var schemes = ENV_PROVIDER.get().get("HISS_ADDITIONAL_HASHING_SCHEMES");
+        if (schemes == null || schemes.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(schemes.split(","))
+                .filter(scheme -> !scheme.isBlank())
+                .map(HashingScheme::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getDefaultDeterministicEncryptionKeyId() {
+        return ENV_PROVIDER.get().get("HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_KEY_ID");
+    }
+
+    @Override
+    public String getDefaultDeterministicEncryptionAlgorithm() {
+        return ENV_PROVIDER.get().get("HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_ALGORITHM");
+    }
+
     @Override
     public boolean isKeyHashGenerationEnabled() {
         return Boolean.parseBoolean(ENV_PROVIDER.get().get("HISS_KEY_HASH_GENERATION_ENABLED"));
     }
 
+    @Override
+    public boolean isCryptoProviderProbingEnabled() {
+        return Boolean.parseBoolean(ENV_PROVIDER.get().get("HISS_CRYPTO_PROVIDER_PROBING_ENABLED"));
+    }
+
+    @Override
+    public boolean isCompressionEnabled() {
+        return Boolean.parseBoolean(ENV_PROVIDER.get().get("HISS_COMPRESSION_ENABLED"));
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        var threshold = ENV_PROVIDER.get().get("HISS_COMPRESSION_THRESHOLD");
+        return threshold == null || threshold.isBlank() ? 0 : Integer.parseInt(threshold.trim());
+    }
+
+    @Override
+    public int getCompressionMaxLength() {
+        var maxLength = ENV_PROVIDER.get().get("HISS_COMPRESSION_MAX_LENGTH");
+        return maxLength == null || maxLength.isBlank() ? 0 : Integer.parseInt(maxLength.trim());
+    }
+
+    @Override
+    public boolean isCompactEnvelopeEnabled() {
+        return Boolean.parseBoolean(ENV_PROVIDER.get().get("HISS_COMPACT_ENVELOPE_ENABLED"));
+    }
+
+    @Override
+    public int getHashCacheMaxSize() {
+        var maxSize = ENV_PROVIDER.get().get("HISS_HASH_CACHE_MAX_SIZE");
+        return maxSize == null || maxSize.isBlank() ? 0 : Integer.parseInt(maxSize.trim());
+    }
+
+    @Override
+    public Duration getHashCacheTtl() {
+        var ttl = ENV_PROVIDER.get().get("HISS_HASH_CACHE_TTL");
+        return ttl == null || ttl.isBlank() ? null : Duration.parse(ttl.trim());
+    }
+
 }
@@ -2,6 +2,8 @@ package io.github.tap30.hiss.properties;
 
 import io.github.tap30.hiss.key.Key;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 
 public interface HissPropertiesProvider {
@@ -10,5 +12,61 @@ public interface HissPropertiesProvider {
     String getDefaultEncryptionAlgorithm();
     String getDefaultHashingKeyId();
     String getDefaultHashingAlgorithm();
+
+    /**
+     * @return hashing schemes other than the default one; null or empty means none.
+     */
+    default List<HashingScheme> getAdditionalHashingSchemes() {
+        return null;
+    }
+
+    default String getDefaultDeterministicEncryptionKeyId() {
+        return null;
+    }
+
+    default String getDefaultDeterministicEncryptionAlgorithm() {
+        return null;
+    }
+
     boolean isKeyHashGenerationEnabled();
+
+    default boolean isCryptoProviderProbingEnabled() {
+        return false;
+    }
+
+    default boolean isCompressionEnabled() {
+        return false;
+    }
+
+    /**
+     * @return minimum length of content to be compressed; zero means the default.
+     */
+    default int getCompressionThreshold() {
+        return 0;
+    }
+
+    /**
+     * @return maximum length of content to be compressed and decompressed; zero means the default.
+     */
+    default int getCompressionMaxLength() {
+        return 0;
+    }
+
+    default boolean isCompactEnvelopeEnabled() {
+        return false;
+    }
+
+    /**
+     * @return maximum number of cached hashes; zero disables caching.
+     */
+    default int getHashCacheMaxSize() {
+        return 0;
+    }
+
+    /**
+     * @return time to live of cached hashes; null means the default.
+     */
+    default Duration getHashCacheTtl() {
+        return null;
+    }
 }
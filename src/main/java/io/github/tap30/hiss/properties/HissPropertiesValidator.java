@@ -1,11 +1,13 @@
 package io.github.tap30.hiss.properties;
 
 import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.impl.AesSivEncryptor;
 import io.github.tap30.hiss.hasher.Hasher;
 import io.github.tap30.hiss.key.KeyHashGenerator;
 import io.github.tap30.hiss.utils.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 
@@ -28,6 +30,9 @@ public class HissPropertiesValidator {
         validateKeys(hissProperties, errors);
         validateDefaultEncryptionKeyAndAlgorithm(hissProperties, errors);
         validateDefaultHashingKeyAndAlgorithm(hissProperties, errors);
+        validateAdditionalHashingSchemes(hissProperties, errors);
+        validateDefaultDeterministicEncryptionKeyAndAlgorithm(hissProperties, errors);
+        validateHashCache(hissProperties, errors);
         if (!errors.isEmpty()) {
             throw new IllegalArgumentException("Hiss properties are not valid: " + String.join("; ", errors));
         }
@@ -79,4 +84,57 @@ public class HissPropertiesValidator {
         }
     }
 
+    private void validateAdditionalHashingSchemes(HissProperties hissProperties, ArrayList<String> errors) {
+        var defaultScheme = HashingScheme.of(hissProperties.getDefaultHashingAlgorithm(),
+                hissProperties.getDefaultHashingKeyId());
+        var schemes = new HashSet<HashingScheme>();
+        for (var scheme : hissProperties.getAdditionalHashingSchemes()) {
+            if (scheme == null) {
+                errors.add("Additional hashing scheme is null");
+                continue;
+            }
+            if (hissProperties.getKeys() != null && !hissProperties.getKeys().containsKey(scheme.getKeyId())) {
+                errors.add("Key ID of additional hashing scheme " + scheme + " is not among provided keys: "
+                           + hissProperties.getKeys().keySet());
+            }
+            if (!hashers.containsKey(scheme.getAlgorithm())) {
+                errors.add("Hashing algorithm of additional hashing scheme " + scheme + " is not supported");
+            }
+            if (scheme.equals(defaultScheme) || !schemes.add(scheme)) {
+                errors.add("Additional hashing scheme " + scheme + " is repeated");
+            }
+        }
+    }
+
+    private void validateDefaultDeterministicEncryptionKeyAndAlgorithm(HissProperties hissProperties,
+                                                                      ArrayList<String> errors) {
+        var keyId = hissProperties.getDefaultDeterministicEncryptionKeyId();
+        if (!StringUtils.hasText(keyId)) {
+            return;
+        }
+        var key = hissProperties.getKeys() != null ? hissProperties.getKeys().get(keyId) : null;
+        if (hissProperties.getKeys() != null && key == null) {
+            errors.add("Default deterministic encryption key ID is not among provided keys: "
+                       + hissProperties.getKeys().keySet());
+        }
+        var encryptor = encryptors.get(hissProperties.getDefaultDeterministicEncryptionAlgorithm());
+        if (encryptor == null) {
+            errors.add("Deterministic encryption algorithm "
+                       + hissProperties.getDefaultDeterministicEncryptionAlgorithm() + " is not supported");
+        } else if (encryptor instanceof AesSivEncryptor && key != null && key.getKey() != null
+                   && !AesSivEncryptor.isValidKeyLength(key.getKey().length)) {
+            errors.add("Default deterministic encryption key must be 32, 48 or 64 bytes long for "
+                       + encryptor.getName());
+        }
+    }
+
+    private void validateHashCache(HissProperties hissProperties, ArrayList<String> errors) {
+        if (hissProperties.getHashCacheMaxSize() < 0) {
+            errors.add("Hash cache max size must not be negative");
+        }
+        if (hissProperties.getHashCacheTtl().isNegative() || hissProperties.getHashCacheTtl().isZero()) {
+            errors.add("Hash cache TTL must be positive");
+        }
+    }
+
 }
@@ -0,0 +1,255 @@
+package io.github.tap30.hiss.provider;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.hasher.Hasher;
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Pins the fastest installed JCA provider to each {@link ProviderAware} encryptor and hasher.
+ * <br>
+ * For each of them, providers supporting its service are found; if there are more than one,
+ * each is measured by running a short self-benchmark on sample content and the one with highest throughput is pinned.
+ * Pinned objects instantiate their services from the pinned provider without scanning the provider list.
+ */
+public class CryptoProviderProber {
+
+    private static final int[] PROBE_KEY_LENGTHS = {16, 32, 64};
+    private static final int PROBE_CONTENT_LENGTH = 64;
+    /**
+     * HotSpot flags telling whether AES and GHASH hardware acceleration is used;
+     * the intrinsic flags are diagnostic and only exposed with <code>-XX:+UnlockDiagnosticVMOptions</code>.
+     */
+    private static final List<String> ACCELERATION_VM_OPTIONS =
+            List.of("UseAES", "UseAESIntrinsics", "UseGHASHIntrinsics");
+
+    private final Duration probeDuration;
+    private final Supplier<Provider[]> providersSupplier;
+
+    public CryptoProviderProber() {
+        this(Duration.ofMillis(50));
+    }
+
+    /**
+     * @param probeDuration time spent on measuring each provider of each encryptor and hasher;
+     *                      half of it is spent on warmup.
+     */
+    public CryptoProviderProber(Duration probeDuration) {
+        this(probeDuration, Security::getProviders);
+    }
+
+    CryptoProviderProber(Duration probeDuration, Supplier<Provider[]> providersSupplier) {
+        this.probeDuration = Objects.requireNonNull(probeDuration);
+        this.providersSupplier = Objects.requireNonNull(providersSupplier);
+    }
+
+    /**
+     * Probes providers of encryptors and hashers which implement {@link ProviderAware}; others are skipped.
+     *
+     * @return the report of chosen providers.
+     */
+    public Report probe(Collection<Encryptor> encryptors, Collection<Hasher> hashers) {
+        var results = new ArrayList<Result>();
+        var content = new byte[PROBE_CONTENT_LENGTH];
+        new Random(0).nextBytes(content);
+        for (var encryptor : encryptors) {
+            if (encryptor instanceof ProviderAware) {
+                results.add(probe(encryptor.getName(), (ProviderAware) encryptor, key -> {
+                    var encrypted = encryptor.encrypt(key, content);
+                    return encryptor.decrypt(key, encrypted);
+                }));
+            }
+        }
+        for (var hasher : hashers) {
+            if (hasher instanceof ProviderAware) {
+                results.add(probe(hasher.getName(), (ProviderAware) hasher, key -> hasher.hash(key, content)));
+            }
+        }
+        var vmOptions = new LinkedHashMap<String, String>();
+        ACCELERATION_VM_OPTIONS.forEach(option -> vmOptions.put(option, getVmOption(option)));
+        return new Report(Collections.unmodifiableList(results), Collections.unmodifiableMap(vmOptions));
+    }
+
+    private Result probe(String name, ProviderAware providerAware, Operation operation) {
+        var throughputs = new LinkedHashMap<String, Double>();
+        Provider chosenProvider = null;
+        var candidates = getSupportingProviders(providerAware);
+        if (candidates.size() == 1) {
+            chosenProvider = candidates.get(0);
+        } else if (candidates.size() > 1) {
+            var highestThroughput = -1.0;
+            for (var candidate : candidates) {
+                providerAware.setProvider(candidate);
+                var throughput = measure(operation);
+                if (throughput < 0) {
+                    continue;
+                }
+                throughputs.put(candidate.getName(), throughput);
+                if (throughput > highestThroughput) {
+                    highestThroughput = throughput;
+                    chosenProvider = candidate;
+                }
+            }
+        }
+        providerAware.setProvider(chosenProvider);
+        return new Result(
+                name,
+                providerAware.getServiceAlgorithm(),
+                chosenProvider != null ? chosenProvider.getName() : null,
+                Collections.unmodifiableMap(throughputs)
+        );
+    }
+
+    private List<Provider> getSupportingProviders(ProviderAware providerAware) {
+        var providers = new ArrayList<Provider>();
+        for (var provider : providersSupplier.get()) {
+            try {
+                getInstance(providerAware.getServiceType(), providerAware.getServiceAlgorithm(), provider);
+                providers.add(provider);
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                // Not supported by this provider.
+            }
+        }
+        return providers;
+    }
+
+    /**
+     * @return operations per millisecond; <code>-1</code> if the operation fails using all probe key lengths.
+     */
+    private double measure(Operation operation) {
+        for (var keyLength : PROBE_KEY_LENGTHS) {
+            var key = new byte[keyLength];
+            new Random(keyLength).nextBytes(key);
+            try {
+                return measure(() -> operation.run(key));
+            } catch (Exception e) {
+                // Try next key length.
+            }
+        }
+        return -1;
+    }
+
+    private double measure(Callable<?> operation) throws Exception {
+        var halfDuration = probeDuration.toNanos() / 2;
+        var warmupEnd = System.nanoTime() + halfDuration;
+        do {
+            operation.call();
+        } while (System.nanoTime() < warmupEnd);
+
+        long operations = 0;
+        var start = System.nanoTime();
+        var end = start + halfDuration;
+        long now;
+        do {
+            operation.call();
+            operations++;
+        } while ((now = System.nanoTime()) < end);
+        return operations * 1_000_000.0 / (now - start);
+    }
+
+    private static void getInstance(String type, String algorithm, Provider provider) throws GeneralSecurityException {
+        switch (type) {
+            case "Cipher":
+                Cipher.getInstance(algorithm, provider);
+                break;
+            case "Mac":
+                Mac.getInstance(algorithm, provider);
+                break;
+            case "MessageDigest":
+                MessageDigest.getInstance(algorithm, provider);
+                break;
+            case "Signature":
+                Signature.getInstance(algorithm, provider);
+                break;
+            default:
+                if (provider.getService(type, algorithm) == null) {
+                    throw new GeneralSecurityException(type + " " + algorithm + " is not supported by " + provider);
+                }
+        }
+    }
+
+    /**
+     * @return value of the HotSpot flag or <code>unknown</code> if the JVM does not expose it.
+     */
+    private static String getVmOption(String name) {
+        try {
+            var bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return bean.getVMOption(name).getValue();
+        } catch (RuntimeException | LinkageError e) {
+            return "unknown";
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run(byte[] key) throws Exception;
+    }
+
+    @Value
+    public static class Report {
+        List<Result> results;
+        /**
+         * Values of HotSpot <code>UseAES</code>, <code>UseAESIntrinsics</code> and <code>UseGHASHIntrinsics</code> flags;
+         * <code>true</code> means AES or GCM hashing hardware acceleration is used,
+         * and <code>unknown</code> means the flag is not exposed by the JVM.
+         */
+        Map<String, String> vmOptions;
+
+        /**
+         * @return a human-readable, multi-line representation of the report.
+         */
+        public String format() {
+            var builder = new StringBuilder();
+            for (var result : results) {
+                builder.append("  ").append(result.getName())
+                        .append(" (").append(result.getServiceAlgorithm()).append("): ")
+                        .append(result.getProvider() != null ? result.getProvider() : "no provider found");
+                if (!result.getThroughputs().isEmpty()) {
+                    var joiner = new StringJoiner(", ", " [", "]");
+                    result.getThroughputs().forEach((provider, throughput) ->
+                            joiner.add(String.format("%s: %.1f ops/ms", provider, throughput)));
+                    builder.append(joiner);
+                }
+                builder.append('\n');
+            }
+            var joiner = new StringJoiner(", ", "  ", "\n");
+            vmOptions.forEach((option, value) -> joiner.add(option + ": " + value));
+            builder.append(joiner);
+            return builder.toString();
+        }
+    }
+
+    @Value
+    public static class Result {
+        /**
+         * Name of the encryptor or hasher.
+         */
+        String name;
+        String serviceAlgorithm;
+        /**
+         * Name of the chosen provider; null if no installed provider supports the service.
+         */
+        @Nullable
+        String provider;
+        /**
+         * Measured operations per millisecond by provider name;
+         * empty if there were not more than one candidate to compare.
+         */
+        Map<String, Double> throughputs;
+    }
+
+}
@@ -0,0 +1,37 @@
+package io.github.tap30.hiss.provider;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.security.Provider;
+
+/**
+ * Implemented by encryptors and hashers which are built on a single JCA service,
+ * so that a specific {@link Provider} can be pinned to them.
+ *
+ * @see CryptoProviderProber
+ */
+public interface ProviderAware {
+    /**
+     * @return JCA service type; e.g. <code>Cipher</code> or <code>Mac</code>.
+     */
+    String getServiceType();
+
+    /**
+     * @return JCA algorithm or transformation of the service; e.g. <code>AES/GCM/NoPadding</code>.
+     */
+    String getServiceAlgorithm();
+
+    /**
+     * @return the pinned provider; null means the provider is looked up from installed providers on each instantiation
+     * of the service.
+     */
+    @Nullable
+    Provider getProvider();
+
+    /**
+     * Pins the provider by which the service will be instantiated; should be called before use.
+     *
+     * @param provider the provider; null to look up from installed providers.
+     */
+    void setProvider(@Nullable Provider provider);
+}
@@ -0,0 +1,162 @@
+package io.github.tap30.hiss.utils;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, lock-free cache whose entries expire after a fixed time since being put.
+ * <br>
+ * Once the cache is full, the oldest entries are evicted first (FIFO); since every entry has the same time to live,
+ * the oldest entries are also the first to expire. Expired entries are not returned; they are removed when looked up,
+ * and the oldest of them when another entry is put, so time to live bounds how long values are retained.
+ *
+ * @param <K> type of keys; must implement <code>equals</code> and <code>hashCode</code>.
+ * @param <V> type of values.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<K> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize maximum number of entries.
+     * @param ttl     time to live of entries.
+     */
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    ExpiringCache(int maxSize, Duration ttl, LongSupplier nanoTime) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = Objects.requireNonNull(nanoTime);
+    }
+
+    /**
+     * @return the value or null if there is no entry for the key or it has expired.
+     */
+    public V get(K key) {
+        var entry = entries.get(key);
+        if (entry == null || entry.expiresAt - nanoTime.getAsLong() <= 0) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Puts or replaces the value; replacing renews the entry's expiration but not its position in eviction order.
+     */
+    public void put(K key, V value) {
+        var now = nanoTime.getAsLong();
+        removeExpired(now);
+        var entry = new Entry<>(Objects.requireNonNull(value), now + ttlNanos);
+        if (entries.put(key, entry) != null) {
+            return;
+        }
+        insertionOrder.offer(key);
+        while (entries.size() > maxSize) {
+            var oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries from the head of insertion order, along with keys whose entries are already removed;
+     * stops at the first live entry, which may be a renewed one followed by expired ones.
+     */
+    private void removeExpired(long now) {
+        K oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            var entry = entries.get(oldest);
+            if (entry != null && entry.expiresAt - now > 0) {
+                return;
+            }
+            if (insertionOrder.remove(oldest) && entry != null) {
+                entries.remove(oldest, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Value
+    public static class Statistics {
+        /**
+         * Number of times a live entry was found.
+         */
+        long hits;
+        /**
+         * Number of times no entry or an expired one was found.
+         */
+        long misses;
+        /**
+         * Number of entries removed because the cache was full.
+         */
+        long evictions;
+        /**
+         * Current number of entries, including expired ones not removed yet.
+         */
+        int size;
+
+        /**
+         * @return ratio of hits to all lookups; zero if nothing has been looked up yet.
+         */
+        public double getHitRate() {
+            var total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.github.tap30.hiss.utils;
+
+import lombok.Value;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free pool of reusable objects.
+ * <br>
+ * Objects are kept in a fixed number of slots; each thread starts probing slots from a position derived
+ * from its ID, so concurrent threads mostly touch different slots. No locks or thread locals are used,
+ * hence it is safe to be used from virtual threads without pinning carrier threads or
+ * creating an object per virtual thread.
+ *
+ * @param <T> type of pooled objects.
+ */
+public class ObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * @param capacity maximum number of idle objects kept in the pool; will be rounded up to a power of two.
+     */
+    public ObjectPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        var size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Creates a pool having two slots per available processor.
+     */
+    public ObjectPool() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Takes an idle object out of the pool.
+     *
+     * @return an idle object or null if the pool is empty; in that case caller should create a new object.
+     */
+    public T poll() {
+        var start = probe();
+        for (int i = 0; i <= mask; i++) {
+            var index = (start + i) & mask;
+            if (slots.get(index) != null) {
+                var object = slots.getAndSet(index, null);
+                if (object != null) {
+                    hits.increment();
+                    return object;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Puts the object back to the pool; if the pool is full, the object will be discarded.
+     */
+    public void offer(T object) {
+        var start = probe();
+        for (int i = 0; i <= mask; i++) {
+            var index = (start + i) & mask;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, object)) {
+                return;
+            }
+        }
+        discards.increment();
+    }
+
+    /**
+     * Removes all idle objects.
+     */
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            slots.set(i, null);
+        }
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), discards.sum());
+    }
+
+    private int probe() {
+        var id = Thread.currentThread().getId();
+        // Fibonacci hashing to spread sequential thread IDs.
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    @Value
+    public static class Statistics {
+        /**
+         * Number of times an idle object was reused.
+         */
+        long hits;
+        /**
+         * Number of times the pool was empty and a new object had to be created.
+         */
+        long misses;
+        /**
+         * Number of objects dropped because the pool was full.
+         */
+        long discards;
+
+        /**
+         * @return ratio of hits to all polls; zero if nothing has been polled yet.
+         */
+        public double getHitRate() {
+            var total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+}
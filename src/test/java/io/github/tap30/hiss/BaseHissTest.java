@@ -16,7 +16,9 @@ public class BaseHissTest {
             "HISS_DEFAULT_ENCRYPTION_ALGORITHM", "aes-128-gcm",
             "HISS_DEFAULT_HASHING_KEY_ID", "default_key",
             "HISS_DEFAULT_HASHING_ALGORITHM", "hmac-sha256",
+            "HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_KEY_ID", "deterministic_key",
             "HISS_KEYS_DEFAULT_KEY", "AAAAAAAAAAAAAAAAAAAAAA==",
+            "HISS_KEYS_DETERMINISTIC_KEY", "AQIDBAUGBwgJCgsMDQ4PEBESExQVFhcYGRobHB0eHyA=",
             "HISS_KEY_HASH_GENERATION_ENABLED", "false"
     );
 
@@ -27,4 +29,13 @@ public class BaseHissTest {
         hiss = HissFactory.createHiss(HissProperties.fromEnv());
     }
 
+    /**
+     * @return Hiss which also hashes under <code>hmac-sha256:old_hashing_key</code>, as after rotating hashing key.
+     */
+    protected Hiss createHissWithAdditionalHashingScheme() {
+        environment.set("HISS_ADDITIONAL_HASHING_SCHEMES", "hmac-sha256:old_hashing_key")
+                .set("HISS_KEYS_OLD_HASHING_KEY", "EBESExQVFhcYGRobHB0eHw==");
+        return HissFactory.createHiss(HissProperties.fromEnv());
+    }
+
 }
@@ -0,0 +1,75 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encrypting and decrypting content into binary format against the textual envelope,
+ * as it would be stored in a binary column either way; lengths of both are printed on setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryEnvelopeBenchmark {
+
+    @Param({"16", "1024"})
+    public int length;
+
+    private HissEncryptor hissEncryptor;
+    private byte[] content;
+    private String encryptedText;
+    private byte[] encryptedBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        hissEncryptor = new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key"
+        );
+        content = "x".repeat(length).getBytes(StandardCharsets.UTF_8);
+        encryptedText = encryptText();
+        encryptedBytes = encryptBinary();
+        System.out.println("Encrypted lengths, text: " + encryptedText.length()
+                           + ", binary: " + encryptedBytes.length);
+    }
+
+    @Benchmark
+    public String encryptText() throws Exception {
+        return hissEncryptor.encrypt(new String(content, StandardCharsets.UTF_8), "");
+    }
+
+    @Benchmark
+    public byte[] encryptBinary() throws Exception {
+        return hissEncryptor.encryptBinary(content, Encrypted.Compression.DEFAULT);
+    }
+
+    @Benchmark
+    public byte[] decryptText() throws Exception {
+        return hissEncryptor.decrypt(encryptedText).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] decryptBinary() throws Exception {
+        return hissEncryptor.decryptBinary(encryptedBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BinaryEnvelopeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,102 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.hasher.impl.HmacSha256Hasher;
+import io.github.tap30.hiss.key.Key;
+import lombok.Getter;
+import lombok.Setter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares encrypting and hashing an <code>@Encrypted</code> field, with and without pattern,
+ * in one pass by {@link HissObjectEncryptor#encryptObject(Object)} against calling encryptor and hasher
+ * one after the other; run it with <code>-prof gc</code> to see allocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptAndHashBenchmark {
+
+    private static final String CONTENT = "Driver 09121234567 called passenger 09127654321 at 12:30";
+    private static final Pattern PATTERN = Pattern.compile("\\d{11}");
+
+    @Param({"false", "true"})
+    public boolean patternEnabled;
+
+    private HissEncryptor hissEncryptor;
+    private HissHasher hissHasher;
+    private HissObjectEncryptor hissObjectEncryptor;
+
+    @Setup
+    public void setUp() {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        hissEncryptor = new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key"
+        );
+        hissHasher = new HissHasher(
+                Map.of("hmac-sha256", new HmacSha256Hasher()),
+                Map.of("default_key", key),
+                "hmac-sha256",
+                "default_key"
+        );
+        hissObjectEncryptor = new HissObjectEncryptor(hissEncryptor, hissHasher);
+    }
+
+    @Benchmark
+    public String encryptAndHashSeparately() throws Exception {
+        var pattern = patternEnabled ? PATTERN : null;
+        return hissEncryptor.encryptMatching(CONTENT, pattern, Encrypted.Compression.DEFAULT)
+               + hissHasher.hashMatching(CONTENT, pattern, 0);
+    }
+
+    @Benchmark
+    public Object encryptObject() {
+        Object object;
+        if (patternEnabled) {
+            var message = new MessageWithPattern();
+            message.setContent(CONTENT);
+            object = message;
+        } else {
+            var message = new Message();
+            message.setContent(CONTENT);
+            object = message;
+        }
+        hissObjectEncryptor.encryptObject(object);
+        return object;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EncryptAndHashBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Getter
+    @Setter
+    public static class Message {
+        @Encrypted
+        private String content;
+        private String hashedContent;
+    }
+
+    @Getter
+    @Setter
+    public static class MessageWithPattern {
+        @Encrypted(pattern = "\\d{11}")
+        private String content;
+        private String hashedContent;
+    }
+
+}
@@ -4,6 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EncryptedAnnotationTest extends BaseHissTest {
@@ -20,6 +25,8 @@ public class EncryptedAnnotationTest extends BaseHissTest {
         aClassWithEncryptedAnnotationObject.setFieldWithoutHash("field without hash");
         aClassWithEncryptedAnnotationObject.setFieldHavingPattern("Your code: 123456");
         aClassWithEncryptedAnnotationObject.setHashedFieldHavingPattern("hash of Your code: 123456");
+        aClassWithEncryptedAnnotationObject.setDeterministicField("deterministic field value");
+        aClassWithEncryptedAnnotationObject.setCompressedField("compressed field value ".repeat(100));
         aClassWithEncryptedAnnotationObject.setParentField("parent field value");
         aClassWithEncryptedAnnotationObject.setHashedParentField("hashed parent field value");
 
@@ -45,6 +52,13 @@ public class EncryptedAnnotationTest extends BaseHissTest {
         assertTrue(aClassWithEncryptedAnnotationObject.getHashedFieldHavingPattern().startsWith("Your code: "));
         assertTrue(aClassWithEncryptedAnnotationObject.getHashedFieldHavingPattern().contains(hiss.hash("123456", "")));
 
+        assertEquals(hiss.encryptDeterministic("deterministic field value"),
+                aClassWithEncryptedAnnotationObject.getDeterministicField());
+
+        assertTrue(aClassWithEncryptedAnnotationObject.getCompressedField().contains("}{deflate:"));
+        assertEquals(hiss.hash("compressed field value ".repeat(100), ""),
+                aClassWithEncryptedAnnotationObject.getHashedCompressedField());
+
         assertNotEquals("parent field value", aClassWithEncryptedAnnotationObject.getParentField());
         assertNotEquals("hashed parent field value", aClassWithEncryptedAnnotationObject.getHashedParentField());
 
@@ -63,11 +77,299 @@ public class EncryptedAnnotationTest extends BaseHissTest {
         assertEquals("field without hash", aClassWithEncryptedAnnotationObject.getFieldWithoutHash());
         assertEquals("Your code: 123456", aClassWithEncryptedAnnotationObject.getFieldHavingPattern());
         assertNotEquals("Your code: 123456", aClassWithEncryptedAnnotationObject.getHashedFieldHavingPattern());
+        assertEquals("deterministic field value", aClassWithEncryptedAnnotationObject.getDeterministicField());
+        assertEquals("compressed field value ".repeat(100), aClassWithEncryptedAnnotationObject.getCompressedField());
         assertEquals("parent field value", aClassWithEncryptedAnnotationObject.getParentField());
         assertNull(aClassWithEncryptedAnnotationObject.getNullField());
         assertNull(aClassWithEncryptedAnnotationObject.getHashedNullField());
     }
 
+    @Test
+    void encryptDomainObject_withCompactAndRawHashes() {
+        // Given
+        var object = new AClassHavingCompactAndRawHashes();
+        object.setCompactField("compact field value");
+        object.setRawField("raw field value");
+
+        // When
+        hiss.encryptObject(object);
+
+        // Then
+        assertEquals(hiss.hashCompact("compact field value", 16), object.getHashedCompactField());
+        assertEquals(26, object.getHashedCompactField().length());
+        assertArrayEquals(hiss.hashRaw("raw field value", 0), object.getHashedRawField());
+        assertEquals(35, object.getHashedRawField().length);
+        assertArrayEquals(Arrays.copyOf(object.getHashedRawField(), 3),
+                Base64.getUrlDecoder().decode(object.getHashedCompactField().substring(0, 4)));
+
+        // When
+        var compactHash = object.getHashedCompactField();
+        hiss.encryptObject(object);
+
+        // Then
+        assertEquals(compactHash, object.getHashedCompactField());
+        assertEquals("compact field value", hiss.decrypt(object.getCompactField()));
+    }
+
+    @Test
+    void encryptDomainObject_withAdditionalHashes() {
+        // Given
+        var hiss = createHissWithAdditionalHashingScheme();
+        var object = new AClassHavingAdditionalHashes();
+        object.setField("field value");
+        object.setRawField("raw field value");
+
+        // When
+        hiss.encryptObject(object);
+
+        // Then
+        var hashes = hiss.hashes("field value");
+        assertEquals(hashes.get(0), object.getHashedField());
+        assertEquals(hashes.subList(1, 2), object.getOldHashedFields());
+        var rawHashes = hiss.hashesRaw("raw field value", 16);
+        assertArrayEquals(rawHashes.get(0), object.getHashedRawField());
+        assertEquals(1, object.getOldHashedRawFields().size());
+        assertArrayEquals(rawHashes.get(1), object.getOldHashedRawFields().get(0));
+    }
+
+    @Test
+    void encryptDomainObject_withCompositeHashes() {
+        // Given
+        var object = new AClassHavingCompositeHashes();
+        object.setNationalCode("1234567890");
+        object.setTenant("tapsi");
+        object.setBirthDate("1990-01-01");
+
+        // When
+        hiss.encryptObject(object);
+
+        // Then
+        assertTrue(hiss.isEncrypted(object.getNationalCode()));
+        assertEquals(hiss.hashComposite(List.of("1234567890", "tapsi")), object.getHashedNationalCodeAndTenant());
+        assertNotEquals(hiss.hashComposite(List.of("tapsi", "1234567890")), object.getHashedNationalCodeAndTenant());
+        assertArrayEquals(hiss.hashCompositeRaw(Arrays.asList("1234567890", "1990-01-01", null), 16),
+                object.getHashedIdentity());
+
+        // When
+        var compositeHash = object.getHashedNationalCodeAndTenant();
+        hiss.encryptObject(object);
+
+        // Then
+        assertEquals(compositeHash, object.getHashedNationalCodeAndTenant());
+    }
+
+    @Test
+    void encryptDomainObject_withSearchTokens() {
+        // Given
+        var object = new AClassHavingSearchTokens();
+        object.setPhoneNumber("09123456789");
+        object.setName("ali");
+
+        // When
+        hiss.encryptObject(object);
+
+        // Then
+        assertTrue(hiss.isEncrypted(object.getPhoneNumber()));
+        assertEquals(5, object.getPhoneNumberSearchTokens().size());
+        assertEquals(hiss.searchTokens(AClassHavingSearchTokens.class, "phoneNumber", "09123456"),
+                object.getPhoneNumberSearchTokens().subList(4, 5));
+        assertEquals(hiss.searchTokens(AClassHavingSearchTokens.class, "name", "ali"), object.getNameSearchTokens());
+
+        // When
+        var searchTokens = object.getPhoneNumberSearchTokens();
+        hiss.encryptObject(object);
+
+        // Then
+        assertEquals(searchTokens, object.getPhoneNumberSearchTokens());
+    }
+
+    @Test
+    void encryptDomainObject_whenCompactHashHasPattern() {
+        assertThrows(IllegalArgumentException.class,
+                () -> hiss.encryptObject(new AClassHavingCompactHashWithPattern()));
+    }
+
+    @Test
+    void encryptDomainObject_shouldEncryptAndHashAsSeparateCallsDo() {
+        // Given
+        var content = "codes: 12, 3456 and \u06f7\u06f8";
+        var encryptedContent = hiss.encrypt("already encrypted", "");
+        var object = new AClassWithEncryptedAnnotation();
+        object.setFieldHavingPattern(content);
+        object.setField(encryptedContent);
+        object.setCustomField(" ");
+
+        // When
+        hiss.encryptObject(object);
+
+        // Then
+        assertEquals(hiss.hash(content, "\\d+"), object.getHashedFieldHavingPattern());
+        assertEquals(content.replaceAll("\\d+", "#"),
+                object.getFieldHavingPattern().replaceAll("#\\$\\$#\\{.+?}#\\$\\$#", "#"));
+        assertEquals(content, hiss.decrypt(object.getFieldHavingPattern()));
+        assertEquals(encryptedContent, object.getField());
+        assertEquals(encryptedContent, object.getHashedField());
+        assertEquals(" ", object.getCustomField());
+        assertEquals(" ", object.getCustomHashedField());
+    }
+
+    @Test
+    void encryptDomainObject_whenPatternIsInvalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> hiss.encryptObject(new AClassHavingInvalidPattern()));
+    }
+
+    @Test
+    void encryptAndDecryptDomainObject_whenFieldsAreBinary() {
+        // Given
+        var content = "binary content".getBytes(StandardCharsets.UTF_8);
+        var object = new AClassHavingBinaryFields();
+        object.setField(content);
+        object.setRawField(content);
+        object.setCompressedField(new byte[2048]);
+        object.setEmptyField(new byte[0]);
+
+        // When
+        hiss.encryptObject(object);
+        var encryptedField = object.getField();
+        var hashedRawField = object.getHashedRawField();
+        var compressedLength = object.getCompressedField().length;
+        hiss.encryptObject(object);
+        hiss.decryptObject(object);
+
+        // Then
+        assertTrue(hiss.isEncryptedBinary(encryptedField));
+        assertSame(encryptedField, hiss.encryptBinary(encryptedField));
+        assertEquals(hiss.hash("binary content"), object.getHashedField());
+        assertArrayEquals(hiss.hashRaw("binary content", 16), hashedRawField);
+        assertArrayEquals(hashedRawField, object.getHashedRawField());
+        assertTrue(compressedLength < 100);
+        assertArrayEquals(content, object.getField());
+        assertArrayEquals(content, object.getRawField());
+        assertArrayEquals(new byte[2048], object.getCompressedField());
+        assertArrayEquals(new byte[0], object.getEmptyField());
+        assertEquals("", object.getHashedEmptyField());
+    }
+
+    @Test
+    void decryptDomainObject_whenBinaryFieldLooksEncryptedButTagIsUnknown() {
+        // Given
+        var content = new byte[]{(byte) 0xff, 'H', 1, 1, 2, 3, 4, 5, 6};
+        var object = new AClassHavingBinaryFields();
+        object.setField(content);
+
+        // When
+        hiss.decryptObject(object);
+
+        // Then
+        assertSame(content, object.getField());
+    }
+
+    @Test
+    void encryptDomainObject_whenBinaryFieldHasPattern() {
+        assertThrows(IllegalArgumentException.class,
+                () -> hiss.encryptObject(new AClassHavingBinaryFieldWithPattern()));
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingBinaryFields {
+        @Encrypted
+        private byte[] field;
+        private String hashedField;
+        @Encrypted(hashFormat = Encrypted.HashFormat.RAW, hashLength = 16)
+        private byte[] rawField;
+        private byte[] hashedRawField;
+        @Encrypted(hashingEnabled = false, compression = Encrypted.Compression.ENABLED)
+        private byte[] compressedField;
+        @Encrypted
+        private byte[] emptyField;
+        private String hashedEmptyField;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingBinaryFieldWithPattern {
+        @Encrypted(pattern = "\\d+")
+        private byte[] field;
+        private String hashedField;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingCompactAndRawHashes {
+        @Encrypted(hashFormat = Encrypted.HashFormat.COMPACT, hashLength = 16)
+        private String compactField;
+        private String hashedCompactField;
+        @Encrypted(hashFormat = Encrypted.HashFormat.RAW)
+        private String rawField;
+        private byte[] hashedRawField;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingAdditionalHashes {
+        @Encrypted(additionalHashesFieldName = "oldHashedFields")
+        private String field;
+        private String hashedField;
+        private List<String> oldHashedFields;
+        @Encrypted(hashFormat = Encrypted.HashFormat.RAW, hashLength = 16,
+                additionalHashesFieldName = "oldHashedRawFields")
+        private String rawField;
+        private byte[] hashedRawField;
+        private List<byte[]> oldHashedRawFields;
+    }
+
+    @Getter
+    @Setter
+    @CompositeHash(fields = {"nationalCode", "tenant"}, hashFieldName = "hashedNationalCodeAndTenant")
+    @CompositeHash(fields = {"nationalCode", "birthDate", "nickname"}, hashFieldName = "hashedIdentity",
+            hashFormat = Encrypted.HashFormat.RAW, hashLength = 16)
+    public static class AClassHavingCompositeHashes {
+        @Encrypted
+        private String nationalCode;
+        private String hashedNationalCode;
+        private String tenant;
+        @Encrypted(hashingEnabled = false)
+        private String birthDate;
+        @Encrypted(hashingEnabled = false)
+        private String nickname;
+        private String hashedNationalCodeAndTenant;
+        private byte[] hashedIdentity;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingSearchTokens {
+        @Encrypted(searchTokensFieldName = "phoneNumberSearchTokens", searchTokenMinLength = 4, searchTokenMaxLength = 8)
+        private String phoneNumber;
+        private String hashedPhoneNumber;
+        private List<String> phoneNumberSearchTokens;
+        @Encrypted(hashingEnabled = false, searchTokensFieldName = "nameSearchTokens",
+                searchTokenType = Encrypted.SearchTokenType.NGRAM)
+        private String name;
+        private List<String> nameSearchTokens;
+        @Encrypted
+        private String nickname;
+        private String hashedNickname;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingCompactHashWithPattern {
+        @Encrypted(hashFormat = Encrypted.HashFormat.COMPACT, pattern = "\\d+")
+        private String field;
+        private String hashedField;
+    }
+
+    @Getter
+    @Setter
+    public static class AClassHavingInvalidPattern {
+        @Encrypted(pattern = "\\d+(")
+        private String field;
+        private String hashedField;
+    }
+
     @Getter
     @Setter
     public static class ParentClassWithEncryptedAnnotation {
@@ -91,6 +393,11 @@ public class EncryptedAnnotationTest extends BaseHissTest {
         @Encrypted(pattern = "\\d+")
         private String fieldHavingPattern;
         private String hashedFieldHavingPattern;
+        @Encrypted(deterministic = true)
+        private String deterministicField;
+        @Encrypted(compression = Encrypted.Compression.ENABLED)
+        private String compressedField;
+        private String hashedCompressedField;
         @Encrypted
         private String nullField;
         private String hashedNullField;
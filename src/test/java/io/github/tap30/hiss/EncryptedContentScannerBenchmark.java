@@ -0,0 +1,79 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares finding encrypted content using the regex it used to be found with against
+ * {@link EncryptedContentScanner}, on plain and encrypted values; decryption is included for scale.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptedContentScannerBenchmark {
+
+    private static final Pattern PATTERN = Pattern.compile("#\\$\\$#\\{(.*?):(.*?)}\\{(.+?)}#\\$\\$#");
+
+    @Param({"plain", "encrypted"})
+    public String type;
+
+    private HissEncryptor hissEncryptor;
+    private String content;
+
+    @Setup
+    public void setUp() throws Exception {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        hissEncryptor = new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key"
+        );
+        var plain = "Some plain content which is long enough to be a street address, 1234";
+        content = type.equals("plain") ? plain : hissEncryptor.encrypt(plain, null);
+    }
+
+    @Benchmark
+    public boolean isEncryptedUsingPattern() {
+        return PATTERN.matcher(content).find();
+    }
+
+    @Benchmark
+    public boolean isEncrypted() {
+        return hissEncryptor.isEncrypted(content);
+    }
+
+    @Benchmark
+    public String findUsingPattern() {
+        var matcher = PATTERN.matcher(content);
+        return matcher.find() ? matcher.group(1) + matcher.group(2) + matcher.group(3) : content;
+    }
+
+    @Benchmark
+    public String find() {
+        var scanner = new EncryptedContentScanner(content);
+        return scanner.find() ? scanner.algorithm() + scanner.keyId() + scanner.encodedContent() : content;
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return hissEncryptor.decrypt(content);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EncryptedContentScannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
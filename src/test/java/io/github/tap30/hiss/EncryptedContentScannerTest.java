@@ -0,0 +1,204 @@
+package io.github.tap30.hiss;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedContentScannerTest {
+
+    /**
+     * The pattern the scanner replaces; used as the reference of what to find.
+     */
+    private static final Pattern PATTERN = Pattern.compile("#\\$\\$#\\{(.*?):(.*?)}\\{(.+?)}#\\$\\$#");
+    /**
+     * The pattern along with compact format having the known tag; used as the reference of what to find
+     * when compact format is looked for.
+     */
+    private static final Pattern PATTERN_WITH_COMPACT = Pattern.compile(PATTERN.pattern()
+            + "|#\\$2(?=ZbOn)(?=[\\w-]{6})((?:[\\w-]{4})*(?:[\\w-]{2,3})?)#");
+    /**
+     * Tag encoded as <code>ZbOn</code>; compact parts having other tags are not encrypted.
+     */
+    private static final int TAG = 0x65b3a7;
+    private static final IntPredicate COMPACT_TAGS = tag -> tag == TAG;
+    private static final String[] FRAGMENTS = {
+            "#$$#{", "}#$$#", "}{", ":", "#$$#", "{", "}", "#", "$", "a", "key", "QUJD==",
+            "\n", "\r", "\u0085", "\u2028", "\u2029", " ", "\u00e9"
+    };
+    private static final String[] COMPACT_FRAGMENTS = {
+            "#$$#{", "}#$$#", "}{", ":", "#$$#", "{", "}", "#", "$", "a", "key", "QUJD==",
+            "#$2", "#$2ZbOn", "ZbOn", "abcd", "2", "QU", "-_", "QUJDRA",
+            "\n", "\r", "\u0085", " ", "\u00e9"
+    };
+
+    @Test
+    void find() {
+        // Given
+        var content = "a #$$#{aes-128-gcm:default_key}{QUJD}#$$# b #$$#{hmac-sha256:old:key}{RA==}#$$#";
+
+        // When
+        var scanner = new EncryptedContentScanner(content);
+
+        // Then
+        assertTrue(scanner.find());
+        assertEquals(2, scanner.start());
+        assertEquals("aes-128-gcm", scanner.algorithm());
+        assertEquals("default_key", scanner.keyId());
+        assertEquals("QUJD", scanner.encodedContent());
+        assertFalse(scanner.isWhole());
+        assertTrue(scanner.find());
+        assertEquals("hmac-sha256", scanner.algorithm());
+        assertEquals("old:key", scanner.keyId());
+        assertEquals("RA==", scanner.encodedContent());
+        assertEquals(content.length(), scanner.end());
+        assertFalse(scanner.find());
+    }
+
+    @Test
+    void find_whenCompact() {
+        // Given
+        var content = "a #$2ZbOnQUJD# b #$$#{aes-128-gcm:default_key}{QUJD}#$$# #$2ZbOnQU-_RA#";
+
+        // When
+        var scanner = new EncryptedContentScanner(content, COMPACT_TAGS);
+
+        // Then
+        assertTrue(scanner.find());
+        assertTrue(scanner.isCompact());
+        assertEquals(2, scanner.start());
+        assertEquals("ZbOnQUJD", scanner.encodedContent());
+        assertTrue(scanner.find());
+        assertFalse(scanner.isCompact());
+        assertEquals("QUJD", scanner.encodedContent());
+        assertTrue(scanner.find());
+        assertTrue(scanner.isCompact());
+        assertEquals("ZbOnQU-_RA", scanner.encodedContent());
+        assertEquals(content.length(), scanner.end());
+        assertFalse(scanner.find());
+    }
+
+    @Test
+    void find_whenCompactIsNotLookedFor() {
+        // Given
+        var content = "a #$2ZbOnQUJD# b";
+
+        // When & Then
+        assertFalse(new EncryptedContentScanner(content).find());
+        assertFalse(EncryptedContentScanner.contains(content));
+        assertFalse(EncryptedContentScanner.contains(content, null));
+        assertTrue(EncryptedContentScanner.contains(content, COMPACT_TAGS));
+    }
+
+    @Test
+    void contains_whenCompactContentIsMalformed() {
+        assertFalse(EncryptedContentScanner.contains("#$2ZbOn#", COMPACT_TAGS));
+        assertFalse(EncryptedContentScanner.contains("#$2ZbOnQ#", COMPACT_TAGS));
+        assertFalse(EncryptedContentScanner.contains("#$2ZbOnQU+J#", COMPACT_TAGS));
+        assertFalse(EncryptedContentScanner.contains("#$2ZbOnQUJD=#", COMPACT_TAGS));
+        assertFalse(EncryptedContentScanner.contains("#$2ZbOnQUJD", COMPACT_TAGS));
+        assertFalse(EncryptedContentScanner.contains("#$2abcdef#", COMPACT_TAGS));
+        assertTrue(EncryptedContentScanner.contains("#$2Zb #$2ZbOnQU#", COMPACT_TAGS));
+        assertTrue(EncryptedContentScanner.contains("#$2abcdef# #$2ZbOnQU#", COMPACT_TAGS));
+    }
+
+    @Test
+    void find_whenContentIsWhole() {
+        // Given
+        var content = "#$$#{aes-128-gcm:default_key}{QUJD}#$$#";
+
+        // When
+        var scanner = new EncryptedContentScanner(content);
+
+        // Then
+        assertTrue(scanner.find());
+        assertTrue(scanner.isWhole());
+        assertTrue(EncryptedContentScanner.contains(content));
+    }
+
+    @Test
+    void contains_whenContentIsMalformed() {
+        assertFalse(EncryptedContentScanner.contains(""));
+        assertFalse(EncryptedContentScanner.contains("#$$#{aes-128-gcm:default_key}{}#$$#"));
+        assertFalse(EncryptedContentScanner.contains("#$$#{aes-128-gcm:default_key}{QUJD}#$$"));
+        assertFalse(EncryptedContentScanner.contains("#$$#{aes-128-gcm\n:default_key}{QUJD}#$$#"));
+        assertFalse(EncryptedContentScanner.contains("#$$#{aes-128-gcm:default_key}{QU\u2028JD}#$$#"));
+        assertTrue(EncryptedContentScanner.contains("#$$#{a:\n#$$#{:}{x}#$$#"));
+        assertTrue(EncryptedContentScanner.contains("#$$#{#$$#{a:b}{c}#$$#"));
+    }
+
+    @Test
+    void find_shouldFindWhatPatternFinds() {
+        // Given
+        var random = new Random(30);
+
+        for (var i = 0; i < 20_000; i++) {
+            var content = randomContent(random);
+
+            // When
+            var found = findAll(new EncryptedContentScanner(content));
+
+            // Then
+            assertEquals(findAllUsingPattern(PATTERN, content), found, content);
+            assertEquals(!found.isEmpty(), EncryptedContentScanner.contains(content), content);
+        }
+    }
+
+    @Test
+    void find_whenCompact_shouldFindWhatPatternFinds() {
+        // Given
+        var random = new Random(24);
+
+        for (var i = 0; i < 20_000; i++) {
+            var content = randomContent(random, COMPACT_FRAGMENTS);
+
+            // When
+            var found = findAll(new EncryptedContentScanner(content, COMPACT_TAGS));
+
+            // Then
+            assertEquals(findAllUsingPattern(PATTERN_WITH_COMPACT, content), found, content);
+            assertEquals(!found.isEmpty(), EncryptedContentScanner.contains(content, COMPACT_TAGS), content);
+        }
+    }
+
+    private static String randomContent(Random random) {
+        return randomContent(random, FRAGMENTS);
+    }
+
+    private static String randomContent(Random random, String[] fragments) {
+        var content = new StringBuilder();
+        var count = random.nextInt(16);
+        for (var i = 0; i < count; i++) {
+            content.append(fragments[random.nextInt(fragments.length)]);
+        }
+        return content.toString();
+    }
+
+    private static List<String> findAll(EncryptedContentScanner scanner) {
+        var found = new ArrayList<String>();
+        while (scanner.find()) {
+            found.add(scanner.start() + "-" + scanner.end() + ":" + (scanner.isCompact()
+                    ? scanner.encodedContent()
+                    : scanner.algorithm() + "|" + scanner.keyId() + "|" + scanner.encodedContent()));
+        }
+        return found;
+    }
+
+    private static List<String> findAllUsingPattern(Pattern pattern, String content) {
+        var found = new ArrayList<String>();
+        var matcher = pattern.matcher(content);
+        while (matcher.find()) {
+            var compact = matcher.groupCount() > 3 && matcher.group(4) != null;
+            found.add(matcher.start() + "-" + matcher.end() + ":" + (compact
+                    ? matcher.group(4)
+                    : matcher.group(1) + "|" + matcher.group(2) + "|" + matcher.group(3)));
+        }
+        return found;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting encrypted bytes by concatenating strings against
+ * {@link HissEncryptor#formatEncryptedBytes(String, byte[])}, and shows the cost of encrypting parts of content
+ * matching a pattern; run it with <code>-prof gc</code> to see allocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvelopeFormattingBenchmark {
+
+    @Param({"16", "256"})
+    public int length;
+
+    private HissEncryptor hissEncryptor;
+    private String header;
+    private byte[] bytes;
+    private String content;
+
+    @Setup
+    public void setUp() {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        hissEncryptor = new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key"
+        );
+        header = HissEncryptor.formatHeader("aes-128-gcm", "default_key");
+        bytes = new byte[length];
+        content = "phone: 09121234567, " + "x".repeat(length) + ", phone: 09127654321";
+    }
+
+    @Benchmark
+    public String formatByConcatenation() {
+        return header + Base64.getEncoder().encodeToString(bytes) + "}#$$#";
+    }
+
+    @Benchmark
+    public String format() {
+        return HissEncryptor.formatEncryptedBytes(header, bytes);
+    }
+
+    @Benchmark
+    public String encryptWithPattern() throws Exception {
+        return hissEncryptor.encrypt(content, "\\d{11}");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EnvelopeFormattingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
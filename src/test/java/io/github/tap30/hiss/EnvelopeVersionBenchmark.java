@@ -0,0 +1,71 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encrypting and decrypting a short content in default format,
+ * <code>#$$#{algorithm:keyId}{content}#$$#</code>, against compact format, <code>#$2{content}#</code>;
+ * lengths of both are printed on setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvelopeVersionBenchmark {
+
+    private static final String CONTENT = "1234567890";
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private HissEncryptor hissEncryptor;
+    private String encryptedContent;
+
+    @Setup
+    public void setUp() throws Exception {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        hissEncryptor = new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key",
+                null,
+                null,
+                HissCompressor.disabled(),
+                compact
+        );
+        encryptedContent = hissEncryptor.encrypt(CONTENT, null);
+        System.out.println("Encrypted content length: " + encryptedContent.length() + ", " + encryptedContent);
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return hissEncryptor.encrypt(CONTENT, null);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return hissEncryptor.decrypt(encryptedContent);
+    }
+
+    @Benchmark
+    public boolean isEncrypted() {
+        return hissEncryptor.isEncrypted(encryptedContent);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EnvelopeVersionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
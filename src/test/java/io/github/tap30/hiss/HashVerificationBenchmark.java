@@ -0,0 +1,57 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.hasher.impl.HmacSha256Hasher;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying a stored hash by formatting the content's hash and comparing strings against
+ * {@link HissHasher#matchesHash(String, String)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashVerificationBenchmark {
+
+    private HissHasher hissHasher;
+    private String content;
+    private String storedHash;
+
+    @Setup
+    public void setUp() throws Exception {
+        var key = Key.builder().id("default_key").key(new byte[32]).build();
+        hissHasher = new HissHasher(
+                Map.of("hmac-sha256", new HmacSha256Hasher()),
+                Map.of("default_key", key),
+                "hmac-sha256",
+                "default_key"
+        );
+        content = "+989123456789";
+        storedHash = hissHasher.hash(content, null);
+    }
+
+    @Benchmark
+    public boolean hashAndCompare() throws Exception {
+        return hissHasher.hash(content, null).equals(storedHash);
+    }
+
+    @Benchmark
+    public boolean matchesHash() throws Exception {
+        return hissHasher.matchesHash(content, storedHash);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HashVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,125 @@
+package io.github.tap30.hiss;
+
+import io.github.tap30.hiss.encryptor.impl.TapsiAesGcmEncryptor;
+import io.github.tap30.hiss.key.Key;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encryption and decryption throughput with and without compression on realistic payloads.
+ * <br>
+ * Run <code>main</code>; it prints encrypted sizes of each payload before running benchmarks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HissCompressionBenchmark {
+
+    @Param({"json", "text", "short"})
+    public String payload;
+
+    @Param({"false", "true"})
+    public boolean compressionEnabled;
+
+    private HissEncryptor hissEncryptor;
+    private String content;
+    private String encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        hissEncryptor = createHissEncryptor(compressionEnabled);
+        content = createPayload(payload);
+        encrypted = hissEncryptor.encrypt(content, null);
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return hissEncryptor.encrypt(content, null);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return hissEncryptor.decrypt(encrypted);
+    }
+
+    static HissEncryptor createHissEncryptor(boolean compressionEnabled) {
+        var key = Key.builder().id("default_key").key(new byte[16]).build();
+        return new HissEncryptor(
+                Map.of("aes-128-gcm", new TapsiAesGcmEncryptor()),
+                Map.of("default_key", key),
+                "aes-128-gcm",
+                "default_key",
+                null,
+                null,
+                new HissCompressor(compressionEnabled, HissCompressor.DEFAULT_THRESHOLD)
+        );
+    }
+
+    /**
+     * @return <code>json</code>: an order document of about 4 KB having varying IDs, prices and addresses;
+     * <code>text</code>: about 2 KB of a support conversation;
+     * <code>short</code>: an address of about 80 bytes, below threshold.
+     */
+    static String createPayload(String payload) {
+        var random = new Random(0);
+        switch (payload) {
+            case "json": {
+                var json = new StringBuilder("{\"orderId\":\"" + Long.toHexString(random.nextLong()) + "\",\"items\":[");
+                for (int i = 0; i < 20; i++) {
+                    json.append(i == 0 ? "" : ",")
+                            .append("{\"sku\":\"SKU-").append(100000 + random.nextInt(900000))
+                            .append("\",\"title\":\"Item number ").append(random.nextInt(1000))
+                            .append("\",\"quantity\":").append(1 + random.nextInt(5))
+                            .append(",\"unitPrice\":").append(random.nextInt(1000000))
+                            .append(",\"currency\":\"IRR\",\"discounted\":").append(random.nextBoolean())
+                            .append(",\"shippingAddress\":{\"city\":\"Tehran\",\"street\":\"Street ")
+                            .append(random.nextInt(200)).append("\",\"postalCode\":\"")
+                            .append(1000000000L + random.nextInt(999999999)).append("\"}}");
+                }
+                return json.append("]}").toString();
+            }
+            case "text": {
+                var sentences = new String[]{
+                        "Hello, my driver did not arrive at the pickup location.",
+                        "We are sorry for the inconvenience; could you tell us the ride ID?",
+                        "The ride ID is " + random.nextInt(100000000) + " and I waited for twenty minutes.",
+                        "Thanks; we have checked the ride and the driver reported a traffic jam.",
+                        "I have been charged a cancellation fee although I did not cancel the ride.",
+                        "The fee will be refunded to your wallet within 24 hours.",
+                        "Can I get a discount code for my next ride?",
+                        "A discount code has been added to your account."
+                };
+                var text = new StringBuilder();
+                while (text.length() < 2000) {
+                    text.append(sentences[random.nextInt(sentences.length)]).append(' ');
+                }
+                return text.toString();
+            }
+            default:
+                return "No. " + random.nextInt(1000) + ", Valiasr Street, Tehran, Iran; postal code "
+                       + (1000000000L + random.nextInt(999999999)) + ", floor 3, unit 12";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (var payload : new String[]{"json", "text", "short"}) {
+            var content = createPayload(payload);
+            var plain = createHissEncryptor(false).encrypt(content, null);
+            var compressed = createHissEncryptor(true).encrypt(content, null);
+            System.out.printf("%s: content %d bytes, encrypted %d chars, encrypted with compression %d chars%n",
+                    payload, content.length(), plain.length(), compressed.length());
+        }
+        new Runner(new OptionsBuilder()
+                .include(HissCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
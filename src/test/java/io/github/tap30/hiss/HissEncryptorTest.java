@@ -5,7 +5,10 @@ import io.github.tap30.hiss.key.Key;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Base64;
 import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.DataFormatException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -183,4 +186,364 @@ class HissEncryptorTest {
         assertTrue(hissEncryptor.isEncrypted(encryptedText));
     }
 
-}
\ No newline at end of file
+    @Test
+    void compilePattern() {
+        // When
+        var pattern = HissEncryptor.compilePattern("\\d+");
+
+        // Then
+        assertEquals("\\d+", pattern.pattern());
+        assertSame(pattern, HissEncryptor.compilePattern("\\d+"));
+        assertNull(HissEncryptor.compilePattern(""));
+        assertNull(HissEncryptor.compilePattern(null));
+        assertThrows(PatternSyntaxException.class, () -> HissEncryptor.compilePattern("\\d+("));
+    }
+
+    @Test
+    void formatEncryptedBytes() {
+        // Given
+        var header = HissEncryptor.formatHeader("alg", "key");
+        var nonLatin1Header = HissEncryptor.formatHeader("alg", "\u06a9\u0644\u06cc\u062f");
+        var shortBytes = new byte[]{1, 2, 3, 4, 5};
+        var longBytes = new byte[10_000];
+
+        // When & Then
+        for (var bytes : new byte[][]{new byte[0], shortBytes, longBytes}) {
+            var encoded = Base64.getEncoder().encodeToString(bytes);
+            assertEquals(header + encoded + "}#$$#", HissEncryptor.formatEncryptedBytes(header, bytes));
+            assertEquals(header + "deflate:" + encoded + "}#$$#",
+                    HissEncryptor.formatEncryptedBytes(header, "deflate:", bytes));
+            assertEquals(nonLatin1Header + encoded + "}#$$#", HissEncryptor.formatEncryptedBytes(nonLatin1Header, bytes));
+        }
+    }
+
+    @Test
+    void encryptAndDecrypt_withCompression() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression(true);
+        var text = "plain text, ".repeat(10);
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, null);
+        var decryptedText = hissEncryptor.decrypt(encryptedText);
+
+        // Then
+        assertTrue(encryptedText.startsWith("#$$#{default-alg:default-key}{deflate:"));
+        assertTrue(encryptedText.length() < "#$$#{default-alg:default-key}{}#$$#".length() + text.length());
+        assertEquals(text, decryptedText);
+    }
+
+    @Test
+    void encrypt_withCompression_whenContentIsShorterThanThreshold() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression(true);
+
+        // When
+        var encryptedText = hissEncryptor.encrypt("plain text", null);
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{cGxhaW4gdGV4dA==}#$$#", encryptedText);
+    }
+
+    @Test
+    void encrypt_withCompression_whenCompressionDoesNotMakeContentShorter() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression(true);
+        var text = "Lorem ipsum dolor sit amet";
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, null);
+
+        // Then
+        assertFalse(encryptedText.contains("deflate:"));
+        assertEquals(text, hissEncryptor.decrypt(encryptedText));
+    }
+
+    @Test
+    void encrypt_withCompression_whenOverriddenPerCall() throws Exception {
+        // Given
+        var text = "plain text, ".repeat(10);
+
+        // When
+        var notCompressed = createHissEncryptorWithCompression(true)
+                .encrypt(text, null, Encrypted.Compression.DISABLED);
+        var compressed = createHissEncryptorWithCompression(false)
+                .encrypt(text, null, Encrypted.Compression.ENABLED);
+        var byDefault = createHissEncryptorWithCompression(false)
+                .encrypt(text, null, Encrypted.Compression.DEFAULT);
+
+        // Then
+        assertFalse(notCompressed.contains("deflate:"));
+        assertTrue(compressed.contains("deflate:"));
+        assertFalse(byDefault.contains("deflate:"));
+    }
+
+    @Test
+    void encryptAndDecrypt_withCompressionAndPattern() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression(true);
+        var text = "a " + "1".repeat(40) + " b 123";
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, "\\d+");
+
+        // Then
+        assertTrue(encryptedText.startsWith("a #$$#{default-alg:default-key}{deflate:"));
+        assertTrue(encryptedText.endsWith(" b #$$#{default-alg:default-key}{MTIz}#$$#"));
+        assertEquals(text, hissEncryptor.decrypt(encryptedText));
+    }
+
+    @Test
+    void decrypt_whenCompressionFlagIsTamperedWith() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression(true);
+        var compressed = hissEncryptor.encrypt("plain text, ".repeat(10), null);
+        var notCompressed = hissEncryptor.encrypt("plain text", null);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> hissEncryptor.decrypt(compressed.replace("deflate:", "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> hissEncryptor.decrypt(notCompressed.replace("}{", "}{deflate:")));
+    }
+
+    @Test
+    void encrypt_whenCompactEnvelopeIsEnabled() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompactEnvelope();
+        var text = "plain text";
+        var compactHeader = HissEncryptor.formatCompactHeader(defaultAlgorithm, defaultKeyId);
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, null);
+        var encryptedTextWithPattern = hissEncryptor.encrypt("code 1234567890", "\\d+");
+
+        // Then
+        assertEquals(compactHeader + "cGxhaW4gdGV4dA#", encryptedText);
+        assertEquals("code " + compactHeader + "MTIzNDU2Nzg5MA#", encryptedTextWithPattern);
+        assertTrue(hissEncryptor.isEncrypted(encryptedText));
+        assertEquals(encryptedText, hissEncryptor.encrypt(encryptedText, null));
+        assertEquals(text, hissEncryptor.decrypt(encryptedText));
+    }
+
+    @Test
+    void decrypt_whenHavingBothEnvelopes() throws Exception {
+        // Given
+        var compactPart = createHissEncryptorWithCompactEnvelope().encrypt("text", null);
+        var text = "a " + hissEncryptor.encrypt("plain", null) + " b " + compactPart + " c";
+
+        // When
+        var decryptedByDefault = hissEncryptor.decrypt(text);
+        var decryptedByCompact = createHissEncryptorWithCompactEnvelope().decrypt(text);
+
+        // Then
+        assertEquals("a plain b text c", decryptedByDefault);
+        assertEquals("a plain b text c", decryptedByCompact);
+    }
+
+    @Test
+    void encryptAndDecrypt_whenCompactEnvelopeIsDisabledAfterwards() throws Exception {
+        // Given
+        var encryptedText = createHissEncryptorWithCompactEnvelope().encrypt("plain text", null);
+
+        // When
+        var reencryptedText = hissEncryptor.encrypt(encryptedText, null);
+        var decryptedText = hissEncryptor.decrypt(encryptedText);
+
+        // Then
+        assertTrue(encryptedText.startsWith(EncryptedContentScanner.COMPACT_START));
+        assertTrue(hissEncryptor.isEncrypted(encryptedText));
+        assertEquals(encryptedText, reencryptedText);
+        assertEquals("plain text", decryptedText);
+    }
+
+    @Test
+    void decrypt_whenCompactTagIsUnknown() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompactEnvelope();
+        var text = "a #$2AAAAcGxhaW4# b";
+
+        // When & Then
+        assertEquals(text, hissEncryptor.decrypt(text));
+        assertFalse(hissEncryptor.isEncrypted(text));
+    }
+
+    @Test
+    void encryptAndDecrypt_whenCompactEnvelopeIsEnabled_withCompression() throws Exception {
+        // Given
+        var hissEncryptor = new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                null,
+                null,
+                new HissCompressor(true, 16),
+                true
+        );
+        var text = "plain text, ".repeat(10);
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, null);
+
+        // Then
+        assertTrue(encryptedText.startsWith(HissEncryptor.formatCompactHeader(defaultAlgorithm, defaultKeyId)));
+        assertTrue(encryptedText.length() < text.length());
+        assertEquals(text, hissEncryptor.decrypt(encryptedText));
+    }
+
+    @Test
+    void encryptDeterministic_whenCompactEnvelopeIsEnabled() throws Exception {
+        // Given
+        var hissEncryptor = new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                defaultAlgorithm,
+                defaultKeyId,
+                HissCompressor.disabled(),
+                true
+        );
+
+        // When
+        var encryptedText = hissEncryptor.encryptDeterministic("plain text", "");
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{cGxhaW4gdGV4dA==}#$$#", encryptedText);
+    }
+
+    @Test
+    void encryptBinaryAndDecryptBinary_whenContentStartsWithCompressionMarker() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompression();
+        var content = new byte[]{(byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0, 1, 2, 3, 4};
+        var compressibleContent = new byte[100];
+        compressibleContent[0] = (byte) 0xff;
+
+        for (var compression : Encrypted.Compression.values()) {
+            // When
+            var encryptedContent = hissEncryptor.encryptBinary(content, compression);
+            var encryptedCompressibleContent = hissEncryptor.encryptBinary(compressibleContent, compression);
+
+            // Then
+            assertEquals(HissBinaryFormat.RAW, encryptedContent[HissBinaryFormat.HEADER_LENGTH], compression.name());
+            assertArrayEquals(content, hissEncryptor.decryptBinary(encryptedContent), compression.name());
+            assertEquals(compression == Encrypted.Compression.DISABLED
+                            ? HissBinaryFormat.RAW
+                            : HissBinaryFormat.COMPRESSED,
+                    encryptedCompressibleContent[HissBinaryFormat.HEADER_LENGTH], compression.name());
+            assertArrayEquals(compressibleContent, hissEncryptor.decryptBinary(encryptedCompressibleContent),
+                    compression.name());
+        }
+    }
+
+    @Test
+    void decryptBinary_whenCompressionFlagIsUnknown() throws Exception {
+        // Given
+        var encryptedContent = hissEncryptor.encryptBinary(new byte[]{1, 2, 3}, Encrypted.Compression.DISABLED);
+        encryptedContent[HissBinaryFormat.HEADER_LENGTH] = 1;
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissEncryptor.decryptBinary(encryptedContent));
+    }
+
+    @Test
+    void decrypt_whenDecompressedContentIsLongerThanMaxLength() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompressionMaxLength(1024);
+        var text = "a".repeat(4096);
+        var binaryContent = new byte[4096];
+        var encryptedText = createHissEncryptorWithCompressionMaxLength(4096).encrypt(text, null);
+        var encryptedBinaryContent = createHissEncryptorWithCompressionMaxLength(4096)
+                .encryptBinary(binaryContent, Encrypted.Compression.DEFAULT);
+
+        // When & Then
+        assertTrue(encryptedText.contains("deflate:"));
+        assertEquals(text, createHissEncryptorWithCompressionMaxLength(4096).decrypt(encryptedText));
+        assertThrows(DataFormatException.class, () -> hissEncryptor.decrypt(encryptedText));
+        assertThrows(DataFormatException.class, () -> hissEncryptor.decryptBinary(encryptedBinaryContent));
+    }
+
+    @Test
+    void encrypt_whenContentIsLongerThanCompressionMaxLength() throws Exception {
+        // Given
+        var hissEncryptor = createHissEncryptorWithCompressionMaxLength(1024);
+        var text = "a".repeat(1025);
+
+        // When
+        var encryptedText = hissEncryptor.encrypt(text, null);
+
+        // Then
+        assertFalse(encryptedText.contains("deflate:"));
+        assertTrue(hissEncryptor.encrypt("a".repeat(1024), null).contains("deflate:"));
+        assertEquals(text, hissEncryptor.decrypt(encryptedText));
+    }
+
+    @Test
+    void formatCompactEncryptedBytes() {
+        // Given
+        var header = HissEncryptor.formatCompactHeader("alg", "key");
+        var longBytes = new byte[10_000];
+        longBytes[0] = -1;
+
+        // When & Then
+        assertEquals(7, header.length());
+        for (var bytes : new byte[][]{new byte[]{-5}, new byte[]{-5, -1}, new byte[]{-5, -1, -2}, longBytes}) {
+            assertEquals(header + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes) + "#",
+                    HissEncryptor.formatCompactEncryptedBytes(header, bytes));
+        }
+    }
+
+    private HissEncryptor createHissEncryptorWithCompression() {
+        return new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                null,
+                null,
+                new HissCompressor(true, 0),
+                false
+        );
+    }
+
+    private HissEncryptor createHissEncryptorWithCompressionMaxLength(int maxLength) {
+        return new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                null,
+                null,
+                new HissCompressor(true, 16, maxLength),
+                false
+        );
+    }
+
+    private HissEncryptor createHissEncryptorWithCompactEnvelope() {
+        return new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                null,
+                null,
+                HissCompressor.disabled(),
+                true
+        );
+    }
+
+    private HissEncryptor createHissEncryptorWithCompression(boolean enabledByDefault) {
+        return new HissEncryptor(
+                Map.of(defaultAlgorithm, encryptor),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                null,
+                null,
+                new HissCompressor(enabledByDefault, 16)
+        );
+    }
+
+}
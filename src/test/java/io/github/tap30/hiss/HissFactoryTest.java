@@ -46,6 +46,29 @@ class HissFactoryTest {
         verify(keyHashGenerator).generateAndLogHashes(any());
     }
 
+    @Test
+    void createHiss_whenCryptoProviderProbingIsEnabled() {
+        // Given
+        var properties = HissProperties.builder()
+                .keys(Set.of(Key.builder()
+                        .id("default_key")
+                        .key(Base64.getDecoder().decode("AAAAAAAAAAAAAAAAAAAAAA=="))
+                        .build()))
+                .defaultEncryptionKeyId("default_key")
+                .defaultEncryptionAlgorithm("aes-128-gcm")
+                .defaultHashingKeyId("default_key")
+                .defaultHashingAlgorithm("hmac-sha256")
+                .cryptoProviderProbingEnabled(true)
+                .build();
+        HissFactory.keyHashGeneratorProvider = () -> mock(KeyHashGenerator.class);
+
+        // When
+        var hiss = HissFactory.createHiss(properties);
+
+        // Then
+        assertEquals("some text", hiss.decrypt(hiss.encrypt("some text")));
+    }
+
     @Test
     void createHiss_shouldPropertiesBeingValidated() {
         assertThrows(IllegalArgumentException.class, () ->
@@ -2,9 +2,16 @@ package io.github.tap30.hiss;
 
 import io.github.tap30.hiss.hasher.Hasher;
 import io.github.tap30.hiss.key.Key;
+import io.github.tap30.hiss.properties.HashingScheme;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -109,4 +116,271 @@ class HissHasherTest {
         assertTrue(hissHasher.isHashed(encryptedText));
     }
 
-}
\ No newline at end of file
+    @Test
+    void hash_truncated() throws Exception {
+        // When
+        var hashedText = hissHasher.hash("plain text, long", null, 8);
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{cGxhaW4gdGU=}#$$#", hashedText);
+    }
+
+    @Test
+    void hashToBytes() throws Exception {
+        // Given
+        var tag = Arrays.copyOf(MessageDigest.getInstance("SHA-256")
+                .digest("default-alg:default-key".getBytes(StandardCharsets.UTF_8)), 3);
+
+        // When
+        var fullHash = hissHasher.hashToBytes("plain text, long", 0);
+        var truncatedHash = hissHasher.hashToBytes("plain text, long", 8);
+
+        // Then
+        assertArrayEquals(tag, Arrays.copyOf(fullHash, 3));
+        assertEquals("plain text, long", new String(fullHash, 3, fullHash.length - 3, StandardCharsets.UTF_8));
+        assertArrayEquals(tag, Arrays.copyOf(truncatedHash, 3));
+        assertEquals("plain te", new String(truncatedHash, 3, truncatedHash.length - 3, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void hashCompact() throws Exception {
+        // When
+        var compactHash = hissHasher.hashCompact("plain text, long", 8);
+
+        // Then
+        assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(hissHasher.hashToBytes("plain text, long", 8)),
+                compactHash);
+        assertEquals(15, compactHash.length());
+    }
+
+    @Test
+    void hashCompactAndHashToBytes_whenContentIsNullOrEmpty() throws Exception {
+        assertNull(hissHasher.hashCompact(null, 0));
+        assertEquals("", hissHasher.hashCompact("", 0));
+        assertNull(hissHasher.hashToBytes(null, 0));
+        assertArrayEquals(new byte[0], hissHasher.hashToBytes("", 0));
+    }
+
+    @Test
+    void hash_whenLengthIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> hissHasher.hash("plain text, long", null, 4));
+        assertThrows(IllegalArgumentException.class, () -> hissHasher.hashCompact("plain text, long", 17));
+        assertThrows(IllegalArgumentException.class, () -> hissHasher.hashToBytes("plain text, long", -1));
+    }
+
+    @Test
+    void hash_withCache() throws Exception {
+        // Given
+        var hissHasher = new HissHasher(
+                Map.of(defaultAlgorithm, hasher),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                List.of(),
+                10,
+                Duration.ofMinutes(1)
+        );
+
+        // When
+        var hashedText1 = hissHasher.hash("plain text", null);
+        var hashedText2 = hissHasher.hash("plain text", null);
+        var compactHash = hissHasher.hashCompact("plain text", 0);
+        var otherHashedText = hissHasher.hash("other text", null);
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{cGxhaW4gdGV4dA==}#$$#", hashedText1);
+        assertEquals(hashedText1, hashedText2);
+        assertEquals(hissHasher.hashCompact("plain text", 0), compactHash);
+        assertEquals("#$$#{default-alg:default-key}{b3RoZXIgdGV4dA==}#$$#", otherHashedText);
+        verify(hasher, times(2)).hash(any(), any());
+        assertEquals(3, hissHasher.getCacheStatistics().getHits());
+        assertEquals(2, hissHasher.getCacheStatistics().getMisses());
+        assertEquals(2, hissHasher.getCacheStatistics().getSize());
+    }
+
+    @Test
+    void hashBytes_withCache_whenContentIsMutatedAfterwards() throws Exception {
+        // Given
+        var hasher = spy(new Hasher() {
+            @Override
+            public byte[] hash(byte[] key, byte[] content) {
+                return content.clone();
+            }
+
+            @Override
+            public String getName() {
+                return defaultAlgorithm;
+            }
+        });
+        var hissHasher = new HissHasher(
+                Map.of(defaultAlgorithm, hasher),
+                Map.of(defaultKeyId, key),
+                defaultAlgorithm,
+                defaultKeyId,
+                List.of(),
+                10,
+                Duration.ofMinutes(1)
+        );
+        var contentBytes = "plain text".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        var hashedBytes = hissHasher.hashBytes(contentBytes, 0);
+        Arrays.fill(contentBytes, (byte) 'x');
+        var hashedMutatedBytes = hissHasher.hashBytes(contentBytes, 0);
+        var hashedText = hissHasher.hash("plain text", null);
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{cGxhaW4gdGV4dA==}#$$#", hashedBytes);
+        assertEquals("#$$#{default-alg:default-key}{eHh4eHh4eHh4eA==}#$$#", hashedMutatedBytes);
+        assertEquals(hashedBytes, hashedText);
+        assertEquals(1, hissHasher.getCacheStatistics().getHits());
+        assertEquals(2, hissHasher.getCacheStatistics().getSize());
+    }
+
+    @Test
+    void getCacheStatistics_whenCacheIsDisabled() throws Exception {
+        // When
+        hissHasher.hash("plain text", null);
+
+        // Then
+        assertEquals(0, hissHasher.getCacheStatistics().getHits());
+        assertEquals(0, hissHasher.getCacheStatistics().getMisses());
+    }
+
+    @Test
+    void hashes_withAdditionalHashingSchemes() throws Exception {
+        // Given
+        var oldKey = Key.builder().id("old-key").build();
+        var hissHasher = new HissHasher(
+                Map.of(defaultAlgorithm, hasher),
+                Map.of(defaultKeyId, key, "old-key", oldKey),
+                defaultAlgorithm,
+                defaultKeyId,
+                List.of(HashingScheme.of(defaultAlgorithm, "old-key")),
+                0,
+                null
+        );
+
+        // When
+        var hashes = hissHasher.hashes("plain text", null, 0);
+
+        // Then
+        verify(hasher, times(2)).hash(any(), any());
+
+        // When
+        var compactHashes = hissHasher.hashesCompact("plain text", 8);
+        var rawHashes = hissHasher.hashesToBytes("plain text", 0);
+
+        // Then
+        assertEquals(List.of(
+                "#$$#{default-alg:default-key}{cGxhaW4gdGV4dA==}#$$#",
+                "#$$#{default-alg:old-key}{cGxhaW4gdGV4dA==}#$$#"
+        ), hashes);
+        assertEquals(hissHasher.hashCompact("plain text", 8), compactHashes.get(0));
+        assertTrue(compactHashes.get(1).endsWith(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("plain te".getBytes(StandardCharsets.UTF_8))));
+        assertArrayEquals(hissHasher.hashToBytes("plain text", 0), rawHashes.get(0));
+        assertArrayEquals(HissHasher.createTag(defaultAlgorithm, "old-key"), Arrays.copyOf(rawHashes.get(1), 3));
+    }
+
+    @Test
+    void hashes_whenHavingPattern() throws Exception {
+        // Given
+        var hissHasher = new HissHasher(
+                Map.of(defaultAlgorithm, hasher),
+                Map.of(defaultKeyId, key, "old-key", Key.builder().id("old-key").build()),
+                defaultAlgorithm,
+                defaultKeyId,
+                List.of(HashingScheme.of(defaultAlgorithm, "old-key")),
+                0,
+                null
+        );
+
+        // When
+        var hashes = hissHasher.hashes("code: 1234", "\\d+", 0);
+
+        // Then
+        assertEquals(List.of(
+                "code: #$$#{default-alg:default-key}{MTIzNA==}#$$#",
+                "code: #$$#{default-alg:old-key}{MTIzNA==}#$$#"
+        ), hashes);
+    }
+
+    @Test
+    void matchesHash() throws Exception {
+        // Given
+        var oldKey = Key.builder().id("old-key").build();
+        var hissHasher = new HissHasher(
+                Map.of(defaultAlgorithm, hasher),
+                Map.of(defaultKeyId, key, "old-key", oldKey),
+                defaultAlgorithm,
+                defaultKeyId
+        );
+        var content = "plain text";
+
+        // When & Then
+        assertTrue(hissHasher.matchesHash(content, hissHasher.hash(content, null)));
+        assertTrue(hissHasher.matchesHash(content, hissHasher.hash(content, null, 8)));
+        assertTrue(hissHasher.matchesHash(content, "#$$#{default-alg:old-key}{cGxhaW4gdGV4dA==}#$$#"));
+        assertTrue(hissHasher.matchesHash(content, hissHasher.hashCompact(content, 0)));
+        assertTrue(hissHasher.matchesHash(content, hissHasher.hashToBytes(content, 8)));
+        assertFalse(hissHasher.matchesHash("plain texT", hissHasher.hash(content, null)));
+        assertFalse(hissHasher.matchesHash("other text", hissHasher.hash(content, null)));
+        assertFalse(hissHasher.matchesHash("other text", hissHasher.hashCompact(content, 0)));
+        assertFalse(hissHasher.matchesHash("other text", hissHasher.hashToBytes(content, 0)));
+        assertFalse(hissHasher.matchesHash(content, "#$$#{default-alg:default-key}{cGxhaW4=}#$$#"));
+        assertFalse(hissHasher.matchesHash(content, "#$$#{default-alg:default-key}{not base64}#$$#"));
+        assertFalse(hissHasher.matchesHash(content, "plain text"));
+        assertFalse(hissHasher.matchesHash(content, (String) null));
+        assertFalse(hissHasher.matchesHash(null, hissHasher.hash(content, null)));
+        assertFalse(hissHasher.matchesHash(content, new byte[3]));
+        assertFalse(hissHasher.matchesHash(content, "#$$#{default-alg:unknown-key}{cGxhaW4gdGV4dA==}#$$#"));
+    }
+
+    @Test
+    void hashComposite() throws Exception {
+        // When
+        var hash = hissHasher.hashComposite(Arrays.asList("ab", null, ""), 0);
+        var compactHash = hissHasher.hashCompositeCompact(List.of("ab", "c"), 8);
+        var rawHash = hissHasher.hashCompositeToBytes(List.of("ab", "c"), 0);
+
+        // Then
+        assertEquals("#$$#{default-alg:default-key}{AAAAAwAAAAJhYv////8AAAAA}#$$#", hash);
+        assertEquals(15, compactHash.length());
+        assertArrayEquals(Arrays.copyOfRange(rawHash, 0, 11), Base64.getUrlDecoder().decode(compactHash));
+        assertNull(hissHasher.hashComposite(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> hissHasher.hashComposite(List.of(), 0));
+    }
+
+    @Test
+    void encodeComposite_isUnambiguous() {
+        assertFalse(Arrays.equals(HissHasher.encodeComposite(List.of("ab", "c")),
+                HissHasher.encodeComposite(List.of("a", "bc"))));
+        assertFalse(Arrays.equals(HissHasher.encodeComposite(Arrays.asList("a", null)),
+                HissHasher.encodeComposite(List.of("a", ""))));
+        assertFalse(Arrays.equals(HissHasher.encodeComposite(List.of("a")),
+                HissHasher.encodeComposite(List.of("a", ""))));
+    }
+
+    @Test
+    void searchTokens() throws Exception {
+        // When
+        var prefixTokens = hissHasher.searchTokens("plain text", Encrypted.SearchTokenType.PREFIX, 8, 9);
+        var ngramTokens = hissHasher.searchTokens("plain plain text", Encrypted.SearchTokenType.NGRAM, 8, 32);
+        var prefixQueryTokens = hissHasher.searchQueryTokens("plain text", Encrypted.SearchTokenType.PREFIX, 8, 9);
+
+        // Then
+        assertEquals(2, prefixTokens.size());
+        assertArrayEquals("plain te".getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOfRange(Base64.getUrlDecoder().decode(prefixTokens.get(0)), 3, 11));
+        assertEquals(prefixTokens.get(0), prefixTokens.get(1)); // the hasher keeps content; tokens keep 8 bytes
+        assertEquals(List.of(prefixTokens.get(1)), prefixQueryTokens);
+        assertEquals(9, ngramTokens.size());
+        assertEquals(List.of(), hissHasher.searchTokens("plain", Encrypted.SearchTokenType.PREFIX, 8, 9));
+        assertEquals(List.of(), hissHasher.searchTokens(null, Encrypted.SearchTokenType.PREFIX, 8, 9));
+        assertThrows(IllegalArgumentException.class,
+                () -> hissHasher.searchQueryTokens("plain", Encrypted.SearchTokenType.PREFIX, 8, 9));
+        assertThrows(IllegalArgumentException.class,
+                () -> hissHasher.searchTokens("plain text", Encrypted.SearchTokenType.PREFIX, 8, 7));
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.tap30.hiss;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HissStreamTest extends BaseHissTest {
+
+    private final byte[] content = randomBytes(3 * HissStreamFormat.DEFAULT_CHUNK_SIZE + 123);
+
+    @Test
+    void encryptAndDecrypt() throws Exception {
+        // When
+        var encrypted = encrypt(content);
+        var decrypted = decrypt(encrypted);
+
+        // Then
+        assertArrayEquals(content, decrypted);
+        var header = new String(encrypted, 0, 64, StandardCharsets.ISO_8859_1);
+        assertTrue(header.startsWith("HISS"));
+        assertTrue(header.contains("aes-128-gcm:default_key"));
+    }
+
+    @Test
+    void encryptAndDecrypt_whenContentIsEmpty() throws Exception {
+        assertArrayEquals(new byte[0], decrypt(encrypt(new byte[0])));
+    }
+
+    @Test
+    void encryptAndDecrypt_whenContentIsMultipleOfChunkSize() throws Exception {
+        // Given
+        var content = randomBytes(2 * HissStreamFormat.DEFAULT_CHUNK_SIZE);
+
+        // When & Then
+        assertArrayEquals(content, decrypt(encrypt(content)));
+    }
+
+    @Test
+    void encryptAndDecrypt_writingAndReadingByteByByteWithFlushes() throws Exception {
+        // Given
+        var content = "some text".getBytes(StandardCharsets.UTF_8);
+        var output = new ByteArrayOutputStream();
+
+        // When
+        try (var encryptingStream = hiss.encryptingStream(output)) {
+            for (var b : content) {
+                encryptingStream.write(b);
+                encryptingStream.flush();
+            }
+        }
+        var decrypted = new ByteArrayOutputStream();
+        try (var decryptingStream = hiss.decryptingStream(new ByteArrayInputStream(output.toByteArray()))) {
+            int b;
+            while ((b = decryptingStream.read()) != -1) {
+                decrypted.write(b);
+            }
+        }
+
+        // Then
+        assertArrayEquals(content, decrypted.toByteArray());
+    }
+
+    @Test
+    void encryptAndDecrypt_usingChannels() throws Exception {
+        // Given
+        var output = new ByteArrayOutputStream();
+
+        // When
+        try (var channel = hiss.encryptingChannel(Channels.newChannel(output))) {
+            channel.write(ByteBuffer.wrap(content));
+        }
+        var decrypted = ByteBuffer.allocate(content.length + 1);
+        try (var channel = hiss.decryptingChannel(Channels.newChannel(new ByteArrayInputStream(output.toByteArray())))) {
+            while (channel.read(decrypted) != -1) {
+                assertTrue(decrypted.hasRemaining());
+            }
+        }
+
+        // Then
+        assertArrayEquals(content, Arrays.copyOf(decrypted.array(), decrypted.position()));
+    }
+
+    @Test
+    void decrypt_whenFinalChunkIsDropped() throws Exception {
+        // Given
+        var content = randomBytes(HissStreamFormat.DEFAULT_CHUNK_SIZE);
+        var encrypted = encrypt(content);
+        // The final chunk is empty: length (4) + IV (16) + prefix + tag (16).
+        var truncated = Arrays.copyOf(encrypted, encrypted.length - (4 + 16 + HissStreamFormat.CHUNK_PREFIX_LENGTH + 16));
+
+        // When & Then
+        assertThrows(IOException.class, () -> decrypt(truncated));
+    }
+
+    @Test
+    void decrypt_whenTruncated() throws Exception {
+        // Given
+        var encrypted = encrypt(content);
+
+        // When & Then
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(encrypted, encrypted.length - 1)));
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(encrypted, encrypted.length / 2)));
+    }
+
+    @Test
+    void decrypt_whenTamperedWith() throws Exception {
+        // Given
+        var encrypted = encrypt(content);
+        encrypted[encrypted.length / 2] ^= 1;
+
+        // When & Then
+        assertThrows(IOException.class, () -> decrypt(encrypted));
+    }
+
+    @Test
+    void decrypt_whenChunksAreSplicedFromAnotherStream() throws Exception {
+        // Given
+        var encrypted1 = encrypt(content);
+        var encrypted2 = encrypt(content);
+        var spliced = encrypted1.clone();
+        var offset = encrypted1.length / 2;
+        System.arraycopy(encrypted2, offset, spliced, offset, encrypted2.length - offset);
+
+        // When & Then
+        assertThrows(IOException.class, () -> decrypt(spliced));
+    }
+
+    @Test
+    void decrypt_whenNotEncryptedStream() {
+        assertThrows(IOException.class, () -> decrypt("some text".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private byte[] encrypt(byte[] content) throws IOException {
+        var output = new ByteArrayOutputStream();
+        try (var encryptingStream = hiss.encryptingStream(output)) {
+            encryptingStream.write(content);
+        }
+        return output.toByteArray();
+    }
+
+    private byte[] decrypt(byte[] encrypted) throws IOException {
+        try (var decryptingStream = hiss.decryptingStream(new ByteArrayInputStream(encrypted))) {
+            return decryptingStream.readAllBytes();
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        var bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+}
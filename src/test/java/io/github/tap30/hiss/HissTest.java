@@ -2,6 +2,15 @@ package io.github.tap30.hiss;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HissTest extends BaseHissTest {
@@ -43,6 +52,22 @@ class HissTest extends BaseHissTest {
         assertEquals("", hiss.encrypt(""));
     }
 
+    @Test
+    void encryptDeterministic() {
+        // Given
+        var text = "some text";
+
+        // When
+        var encrypted1 = hiss.encryptDeterministic(text);
+        var encrypted2 = hiss.encryptDeterministic(text);
+
+        // Then
+        assertEquals(encrypted1, encrypted2);
+        assertTrue(encrypted1.startsWith("#$$#{aes-siv:deterministic_key}{"));
+        assertNotEquals(encrypted1, hiss.encryptDeterministic("some other text"));
+        assertEquals(text, hiss.decrypt(encrypted1));
+    }
+
     @Test
     void decrypt() {
         // Given
@@ -96,6 +121,105 @@ class HissTest extends BaseHissTest {
         assertEquals(content, decryptedContent);
     }
 
+    @Test
+    void encryptHashAndDecrypt_whenContentLooksCompactButTagIsUnknown() {
+        // Given
+        var encryptContent = "order #$2abcdef# note";
+        var hashContent = "x #$2abcdef#";
+        var decryptContent = "a #$2abcdef# b";
+
+        // When
+        var encryptedContent = hiss.encrypt(encryptContent);
+        var hashedContent = hiss.hash(hashContent);
+        var decryptedContent = hiss.decrypt(decryptContent);
+
+        // Then
+        assertFalse(hiss.isEncrypted(encryptContent));
+        assertTrue(hiss.isEncrypted(encryptedContent));
+        assertEquals(encryptContent, hiss.decrypt(encryptedContent));
+        assertNotEquals(hashContent, hashedContent);
+        assertTrue(hiss.isHashed(hashedContent));
+        assertEquals(decryptContent, decryptedContent);
+    }
+
+    @Test
+    void hashComposite_shouldDifferFromHashOfSameBytes() {
+        // Given
+        var contents = List.of("abc");
+        var encodedContents = new String(HissHasher.encodeComposite(contents), StandardCharsets.UTF_8);
+
+        // When & Then
+        assertEquals("\0\0\0\1\0\0\0\3abc", encodedContents);
+        assertNotEquals(hiss.hash(encodedContents), hiss.hashComposite(contents));
+        assertFalse(Arrays.equals(hiss.hashRaw(encodedContents, 0), hiss.hashCompositeRaw(contents, 0)));
+    }
+
+    @Test
+    void encryptBinaryAndDecryptBinary() {
+        // Given
+        var content = new byte[]{0, 1, 2, (byte) 0xff, 'H', 1};
+
+        // When
+        var encryptedContent = hiss.encryptBinary(content);
+        var decryptedContent = hiss.decryptBinary(encryptedContent);
+
+        // Then
+        assertFalse(hiss.isEncryptedBinary(content));
+        assertTrue(hiss.isEncryptedBinary(encryptedContent));
+        assertArrayEquals(new byte[]{(byte) 0xff, 'H', 1}, Arrays.copyOf(encryptedContent, 3));
+        // Header (6), IV (16), compression flag (1), content (6) and GCM tag (16)
+        assertEquals(45, encryptedContent.length);
+        assertSame(encryptedContent, hiss.encryptBinary(encryptedContent));
+        assertArrayEquals(content, decryptedContent);
+        assertSame(content, hiss.decryptBinary(content));
+        assertNull(hiss.encryptBinary((byte[]) null));
+        assertNull(hiss.decryptBinary((byte[]) null));
+    }
+
+    @Test
+    void encryptBinaryAndDecryptBinary_withByteBuffer() {
+        // Given
+        var content = ByteBuffer.wrap("--some text--".getBytes(StandardCharsets.UTF_8), 2, 9);
+
+        // When
+        var encryptedContent = hiss.encryptBinary(content);
+        var decryptedContent = hiss.decryptBinary(encryptedContent);
+
+        // Then
+        assertFalse(content.hasRemaining());
+        assertFalse(encryptedContent.hasRemaining());
+        assertEquals(StandardCharsets.UTF_8.encode("some text"), decryptedContent);
+    }
+
+    @Test
+    void decryptBinary_whenTampered() {
+        // Given
+        var encryptedContent = hiss.encryptBinary("some text".getBytes(StandardCharsets.UTF_8));
+        var tamperedContent = encryptedContent.clone();
+        tamperedContent[tamperedContent.length - 1] ^= 1;
+        var unknownTagContent = encryptedContent.clone();
+        unknownTagContent[HissBinaryFormat.TAG_OFFSET] ^= 1;
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> hiss.decryptBinary(tamperedContent));
+        assertFalse(hiss.isEncryptedBinary(unknownTagContent));
+        assertSame(unknownTagContent, hiss.decryptBinary(unknownTagContent));
+    }
+
+    @Test
+    void decryptBinary_whenContentLooksEncryptedButTagIsUnknown() {
+        // Given
+        var content = new byte[]{(byte) 0xff, 'H', 1, 1, 2, 3, 4, 5, 6};
+
+        // When
+        var decryptedContent = hiss.decryptBinary(content);
+
+        // Then
+        assertTrue(HissBinaryFormat.hasHeader(content));
+        assertFalse(hiss.isEncryptedBinary(content));
+        assertSame(content, decryptedContent);
+    }
+
     @Test
     void encryptAndDecrypt_withWeiredValue01() {
         // Given
@@ -206,4 +330,179 @@ class HissTest extends BaseHissTest {
                                          " is verified."));
     }
 
-}
\ No newline at end of file
+    @Test
+    void encryptAllAndDecryptAll() {
+        // Given
+        var contents = Arrays.asList("some text", null, "", "other text");
+
+        // When
+        var encrypted = hiss.encryptAll(contents);
+        var decrypted = hiss.decryptAll(encrypted);
+
+        // Then
+        assertEquals(4, encrypted.size());
+        assertTrue(hiss.isEncrypted(encrypted.get(0)));
+        assertNull(encrypted.get(1));
+        assertEquals("", encrypted.get(2));
+        assertTrue(hiss.isEncrypted(encrypted.get(3)));
+        assertEquals(contents, decrypted);
+        assertEquals(contents, encrypted.stream().map(hiss::decrypt).collect(Collectors.toList()));
+    }
+
+    @Test
+    void encryptAllAndDecryptAll_whenBatchIsProcessedInParallel() {
+        // Given
+        var contents = IntStream.range(0, HissBatch.CHUNK_SIZE * 4 + 1)
+                .mapToObj(i -> "text " + i)
+                .toArray(String[]::new);
+        var executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // When
+            var encrypted = hiss.encryptAll(contents, executor);
+            var decrypted = hiss.decryptAll(encrypted, executor);
+
+            // Then
+            assertArrayEquals(contents, decrypted);
+            for (int i = 0; i < contents.length; i++) {
+                assertEquals(contents[i], hiss.decrypt(encrypted[i]));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void decryptAll_whenContentIsNotDecryptable() {
+        // Given
+        var notDecryptable = "#$$#{aes-128-gcm:unknown_key}{AAAA}#$$#";
+        var contents = new ArrayList<String>();
+        contents.add(hiss.encrypt("some text"));
+        contents.add(notDecryptable);
+        var expectedCause = assertThrows(RuntimeException.class, () -> hiss.decrypt(notDecryptable)).getCause();
+
+        // When
+        var exception = assertThrows(RuntimeException.class, () -> hiss.decryptAll(contents));
+
+        // Then
+        assertEquals(RuntimeException.class, exception.getClass());
+        assertEquals(expectedCause.getClass(), exception.getCause().getClass());
+    }
+
+    @Test
+    void decryptAll_whenContentsOfSeveralChunksAreNotDecryptable() {
+        // Given
+        var notDecryptable = "#$$#{aes-128-gcm:unknown_key}{AAAA}#$$#";
+        var contents = IntStream.range(0, HissBatch.CHUNK_SIZE * 3)
+                .mapToObj(i -> i % HissBatch.CHUNK_SIZE == 1 ? notDecryptable : "text " + i)
+                .toArray(String[]::new);
+        var expectedCause = assertThrows(RuntimeException.class, () -> hiss.decrypt(notDecryptable)).getCause();
+        var executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            var exception = assertThrows(RuntimeException.class, () -> hiss.decryptAll(contents, executor));
+
+            // Then
+            assertEquals(RuntimeException.class, exception.getClass());
+            assertEquals(expectedCause.getClass(), exception.getCause().getClass());
+            assertEquals(2, exception.getSuppressed().length);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void hash_whenContentIsEncrypted() {
+        // Given
+        var encryptedContent = hiss.encrypt("some text");
+
+        // When & Then
+        assertEquals(encryptedContent, hiss.hash(encryptedContent));
+        assertThrows(IllegalArgumentException.class, () -> hiss.hashCompact(encryptedContent, 16));
+        assertThrows(IllegalArgumentException.class, () -> hiss.hashRaw(encryptedContent, 16));
+        assertThrows(IllegalArgumentException.class, () -> hiss.hashesCompact(encryptedContent, 16));
+        assertThrows(IllegalArgumentException.class, () -> hiss.hashesRaw(encryptedContent, 16));
+    }
+
+    @Test
+    void hashAll() {
+        // Given
+        var contents = IntStream.range(0, HissBatch.CHUNK_SIZE * 2 + 1)
+                .mapToObj(i -> i % 10 == 0 ? null : "text " + i)
+                .collect(Collectors.toList());
+
+        // When
+        var hashed = hiss.hashAll(contents);
+
+        // Then
+        assertEquals(contents.stream().map(hiss::hash).collect(Collectors.toList()), hashed);
+        assertArrayEquals(hashed.toArray(), hiss.hashAll(contents.toArray(new String[0])));
+        assertEquals(hashed, hiss.hashAll(contents, Runnable::run));
+    }
+
+    @Test
+    void hashes() {
+        // Given
+        var hiss = createHissWithAdditionalHashingScheme();
+        final var content = "+989123456789";
+
+        // When
+        var hashes = hiss.hashes(content);
+        var compactHashes = hiss.hashesCompact(content, 16);
+        var rawHashes = hiss.hashesRaw(content, 16);
+
+        // Then
+        assertEquals(2, hashes.size());
+        assertEquals(hiss.hash(content), hashes.get(0));
+        assertTrue(hashes.get(1).matches("#\\$\\$#\\{hmac-sha256:old_hashing_key}\\{.+?}#\\$\\$#"));
+        assertEquals(Arrays.asList(hiss.hashCompact(content, 16)), compactHashes.subList(0, 1));
+        assertNotEquals(compactHashes.get(0), compactHashes.get(1));
+        assertArrayEquals(hiss.hashRaw(content, 16), rawHashes.get(0));
+        assertEquals(19, rawHashes.get(1).length);
+        assertEquals(Arrays.asList(null, null), hiss.hashes(null));
+    }
+
+    @Test
+    void matchesHash() {
+        // Given
+        var hiss = createHissWithAdditionalHashingScheme();
+        final var content = "+989123456789";
+        var hashes = hiss.hashes(content);
+
+        // When & Then
+        assertTrue(hiss.matchesHash(content, hashes.get(0)));
+        assertTrue(hiss.matchesHash(content, hashes.get(1)));
+        assertTrue(hiss.matchesHash(content, hiss.hash(content, 16)));
+        assertTrue(hiss.matchesHash(content, hiss.hashesCompact(content, 16).get(1)));
+        assertTrue(hiss.matchesHash(content, hiss.hashRaw(content, 0)));
+        assertFalse(hiss.matchesHash("+989123456788", hashes.get(0)));
+        assertFalse(hiss.matchesHash("+989123456788", hiss.hashRaw(content, 0)));
+        assertFalse(hiss.matchesHash(content, hiss.encrypt(content)));
+    }
+
+    @Test
+    void searchTokens() {
+        // Given
+        var object = new EncryptedAnnotationTest.AClassHavingSearchTokens();
+        object.setPhoneNumber("09123456789");
+        object.setName("\u0639\u0644\u06cc \u0631\u0636\u0627\u06cc\u06cc");
+        hiss.encryptObject(object);
+
+        // When
+        var phoneNumberTokens = hiss.searchTokens(object.getClass(), "phoneNumber", "0912");
+        var longPhoneNumberTokens = hiss.searchTokens(object.getClass(), "phoneNumber", "09123456789");
+        var nameTokens = hiss.searchTokens(object.getClass(), "name", "\u0631\u0636\u0627");
+        var otherNameTokens = hiss.searchTokens(object.getClass(), "name", "\u0631\u0636\u06cc");
+
+        // Then
+        assertEquals(1, phoneNumberTokens.size());
+        assertTrue(object.getPhoneNumberSearchTokens().containsAll(phoneNumberTokens));
+        assertTrue(object.getPhoneNumberSearchTokens().containsAll(longPhoneNumberTokens));
+        assertFalse(object.getPhoneNumberSearchTokens().containsAll(hiss.searchTokens(object.getClass(), "phoneNumber", "0913")));
+        assertTrue(object.getNameSearchTokens().containsAll(nameTokens));
+        assertFalse(object.getNameSearchTokens().containsAll(otherNameTokens));
+        assertThrows(IllegalArgumentException.class, () -> hiss.searchTokens(object.getClass(), "phoneNumber", "09"));
+        assertThrows(IllegalArgumentException.class, () -> hiss.searchTokens(object.getClass(), "nickname", "abc"));
+    }
+}
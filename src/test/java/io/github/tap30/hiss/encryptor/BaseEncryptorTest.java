@@ -2,6 +2,9 @@ package io.github.tap30.hiss.encryptor;
 
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,9 +69,110 @@ public abstract class BaseEncryptorTest {
         assertArrayEquals(plainTextBytes, plain);
     }
 
+    @Test
+    void withKey_encryptAndDecrypt() throws Exception {
+        // Given
+        var keyedEncryptor = encryptor.withKey(key);
+
+        // When
+        var encrypted = keyedEncryptor.encrypt(plainTextBytes);
+        var plain = keyedEncryptor.decrypt(encrypted);
+
+        // Then
+        assertArrayEquals(plainTextBytes, plain);
+        assertArrayEquals(plainTextBytes, encryptor.decrypt(key, encrypted));
+        assertArrayEquals(plainTextBytes, keyedEncryptor.decrypt(encryptedTextBytes));
+    }
+
+    @Test
+    void encryptAndDecrypt_heapByteBuffersWithOffsets() throws Exception {
+        // Given
+        var content = ByteBuffer.wrap(concat(new byte[3], plainTextBytes, new byte[5]), 3, plainTextBytes.length);
+        var encrypted = ByteBuffer.allocate(7 + plainTextBytes.length + 64).position(7);
+
+        // When
+        var encryptedLength = encryptor.encrypt(key, content, encrypted);
+        encrypted.flip().position(7);
+        var plain = ByteBuffer.allocate(plainTextBytes.length + 64);
+        var plainLength = encryptor.decrypt(key, encrypted, plain);
+
+        // Then
+        assertEquals(3 + plainTextBytes.length, content.position());
+        assertEquals(7 + encryptedLength, encrypted.position());
+        assertEquals(plainTextBytes.length, plainLength);
+        assertArrayEquals(plainTextBytes, Arrays.copyOf(plain.array(), plainLength));
+    }
+
+    @Test
+    void encryptAndDecrypt_directByteBuffers() throws Exception {
+        // Given
+        var content = ByteBuffer.allocateDirect(plainTextBytes.length).put(plainTextBytes).flip();
+        var encrypted = ByteBuffer.allocateDirect(plainTextBytes.length + 64);
+        var plain = ByteBuffer.allocateDirect(plainTextBytes.length + 64);
+        var keyedEncryptor = encryptor.withKey(key);
+
+        // When
+        keyedEncryptor.encrypt(content, encrypted);
+        var encryptedBytes = new byte[encrypted.flip().remaining()];
+        encrypted.duplicate().get(encryptedBytes);
+        keyedEncryptor.decrypt(encrypted, plain);
+        var plainBytes = new byte[plain.flip().remaining()];
+        plain.get(plainBytes);
+
+        // Then
+        assertArrayEquals(plainTextBytes, plainBytes);
+        assertArrayEquals(plainTextBytes, encryptor.decrypt(key, encryptedBytes));
+    }
+
+    @Test
+    void decrypt_byteBuffer() throws Exception {
+        // Given
+        var output = ByteBuffer.allocate(encryptedTextBytes.length);
+
+        // When
+        var plainLength = encryptor.decrypt(key, ByteBuffer.wrap(encryptedTextBytes), output);
+
+        // Then
+        assertArrayEquals(plainTextBytes, Arrays.copyOf(output.array(), plainLength));
+    }
+
+    @Test
+    void encrypt_shortOutputBuffer() {
+        // Given
+        var content = ByteBuffer.wrap(plainTextBytes);
+
+        // When & Then
+        assertThrows(ShortBufferException.class, () -> encryptor.encrypt(key, content, ByteBuffer.allocate(4)));
+        assertEquals(0, content.position());
+    }
+
+    @Test
+    void getMaxEncryptedLength() throws Exception {
+        // Given
+        var maxLength = encryptor.getMaxEncryptedLength(plainTextBytes.length);
+
+        // When
+        var encrypted = encryptor.encrypt(key, plainTextBytes);
+
+        // Then
+        assertTrue(maxLength == -1 || encrypted.length <= maxLength);
+        var maxDecryptedLength = encryptor.getMaxDecryptedLength(encrypted.length);
+        assertTrue(maxDecryptedLength == -1 || plainTextBytes.length <= maxDecryptedLength);
+    }
+
     @Test
     void getName() {
         assertEquals(encryptorName, encryptor.getName());
     }
 
+    private static byte[] concat(byte[]... arrays) {
+        var result = new byte[Arrays.stream(arrays).mapToInt(a -> a.length).sum()];
+        var position = 0;
+        for (var array : arrays) {
+            System.arraycopy(array, 0, result, position, array.length);
+            position += array.length;
+        }
+        return result;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.BaseEncryptorTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AesGcm96EncryptorTest extends BaseEncryptorTest {
+
+    protected AesGcm96EncryptorTest() {
+        super(
+                new AesGcm96Encryptor(),
+                "aes-gcm-96",
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16},
+                "IuBZCdwLF9D894nocbeihXAIt5EF/wj5QccmXfM9f1fw84phxA=="
+        );
+    }
+
+    @Test
+    void encrypt_shouldBeShorterThanAesGcmNoPadding() throws Exception {
+        // When
+        var encrypted = encryptor.encrypt(key, plainTextBytes);
+
+        // Then
+        assertEquals(12 + plainTextBytes.length + 16, encrypted.length);
+        assertEquals(new AesGcmNoPaddingEncryptor().encrypt(key, plainTextBytes).length - 4, encrypted.length);
+    }
+
+}
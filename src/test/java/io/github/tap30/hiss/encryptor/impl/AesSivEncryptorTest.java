@@ -0,0 +1,99 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.BaseEncryptorTest;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.security.InvalidKeyException;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AesSivEncryptorTest extends BaseEncryptorTest {
+
+    protected AesSivEncryptorTest() {
+        super(
+                new AesSivEncryptor(),
+                "aes-siv",
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                        17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32},
+                "Xufi1Houxw6LCqeOjxl1UYv26Dsn+TQt9Q=="
+        );
+    }
+
+    @Test
+    void encrypt_shouldBeDeterministic() throws Exception {
+        // When
+        var encrypted1 = encryptor.encrypt(key, plainTextBytes);
+        var encrypted2 = encryptor.withKey(key).encrypt(plainTextBytes);
+
+        // Then
+        assertArrayEquals(encryptedTextBytes, encrypted1);
+        assertArrayEquals(encryptedTextBytes, encrypted2);
+    }
+
+    @Test
+    void encrypt_rfc5297DeterministicExample() throws Exception {
+        // Given
+        var key = hex("fffefdfcfbfaf9f8f7f6f5f4f3f2f1f0f0f1f2f3f4f5f6f7f8f9fafbfcfdfeff");
+        var associatedData = hex("101112131415161718191a1b1c1d1e1f2021222324252627");
+        var plain = hex("112233445566778899aabbccddee");
+
+        // When
+        var encrypted = new AesSivEncryptor().encrypt(key, plain, associatedData);
+
+        // Then
+        assertEquals("85632d07c6e8f37f950acd320a2ecc9340c02b9690c4dc04daef7f6afe5c", hex(encrypted));
+        assertArrayEquals(plain, new AesSivEncryptor().decrypt(key, encrypted, associatedData));
+    }
+
+    @Test
+    void encrypt_rfc5297NonceBasedExample() throws Exception {
+        // Given
+        var key = hex("7f7e7d7c7b7a79787776757473727170404142434445464748494a4b4c4d4e4f");
+        var associatedData1 = hex("00112233445566778899aabbccddeeffdeaddadadeaddadaffeeddccbbaa99887766554433221100");
+        var associatedData2 = hex("102030405060708090a0");
+        var nonce = hex("09f911029d74e35bd84156c5635688c0");
+        var plain = hex("7468697320697320736f6d6520706c61696e7465787420746f20656e6372797074207573696e67205349562d414553");
+
+        // When
+        var encrypted = new AesSivEncryptor().encrypt(key, plain, associatedData1, associatedData2, nonce);
+
+        // Then
+        assertEquals("7bdb6e3b432667eb06f4d14bff2fbd0fcb900f2fddbe404326601965c889bf17"
+                     + "dba77ceb094fa663b7a3f748ba8af829ea64ad544a272e9c485b62a3fd5c0d", hex(encrypted));
+    }
+
+    @Test
+    void decrypt_whenContentIsTampered() {
+        // Given
+        var tampered = encryptedTextBytes.clone();
+        tampered[tampered.length - 1] ^= 1;
+
+        // When & Then
+        assertThrows(AEADBadTagException.class, () -> encryptor.decrypt(key, tampered));
+        assertThrows(AEADBadTagException.class, () -> encryptor.withKey(key).decrypt(tampered));
+    }
+
+    @Test
+    void encrypt_whenKeyLengthIsInvalid() {
+        // Given
+        var keyedEncryptor = encryptor.withKey(new byte[16]);
+
+        // When & Then
+        assertThrows(InvalidKeyException.class, () -> encryptor.encrypt(new byte[16], plainTextBytes));
+        assertThrows(InvalidKeyException.class, () -> keyedEncryptor.encrypt(plainTextBytes));
+    }
+
+    private static byte[] hex(String hex) {
+        var bytes = new BigInteger("01" + hex, 16).toByteArray();
+        var result = new byte[hex.length() / 2];
+        System.arraycopy(bytes, 1, result, 0, result.length);
+        return result;
+    }
+
+    private static String hex(byte[] bytes) {
+        return String.format("%0" + bytes.length * 2 + "x", new BigInteger(1, bytes));
+    }
+
+}
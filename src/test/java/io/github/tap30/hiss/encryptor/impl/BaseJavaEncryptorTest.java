@@ -0,0 +1,76 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.nonce.CounterNonceGenerator;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.security.Security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseJavaEncryptorTest {
+
+    final byte[] key = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+    final byte[] content = "some text".getBytes();
+
+    @Test
+    void encryptAndDecrypt_shouldReuseCiphers() throws Exception {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(content, encryptor.decrypt(key, encryptor.encrypt(key, content)));
+        }
+
+        // Then
+        var statistics = encryptor.getCipherPoolStatistics();
+        assertEquals(1, statistics.getMisses());
+        assertEquals(19, statistics.getHits());
+    }
+
+    @Test
+    void setProvider_shouldDropPooledCiphers() throws Exception {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor();
+        encryptor.encrypt(key, content);
+
+        // When
+        encryptor.setProvider(Security.getProvider("SunJCE"));
+        var encrypted = encryptor.encrypt(key, content);
+
+        // Then
+        assertEquals(2, encryptor.getCipherPoolStatistics().getMisses());
+        assertEquals("SunJCE", encryptor.getProvider().getName());
+        assertArrayEquals(content, encryptor.decrypt(key, encrypted));
+    }
+
+    @Test
+    void encryptAndDecrypt_withCounterNonceGenerator() throws Exception {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor(new CounterNonceGenerator());
+
+        // When
+        var encrypted1 = encryptor.encrypt(key, content);
+        var encrypted2 = encryptor.encrypt(key, content);
+
+        // Then
+        assertEquals(0, encrypted1[15]);
+        assertEquals(1, encrypted2[15]);
+        assertArrayEquals(content, encryptor.decrypt(key, encrypted1));
+        assertArrayEquals(content, encryptor.decrypt(key, encrypted2));
+    }
+
+    @Test
+    void decrypt_whenContentIsTampered() throws Exception {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor();
+        var encrypted = encryptor.encrypt(key, content);
+        encrypted[encrypted.length - 1] ^= 1;
+
+        // When & Then
+        assertThrows(AEADBadTagException.class, () -> encryptor.decrypt(key, encrypted));
+        assertArrayEquals(content, encryptor.decrypt(key, encryptor.encrypt(key, content)));
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.BaseEncryptorTest;
+import io.github.tap30.hiss.encryptor.nonce.CounterNonceGenerator;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChaCha20Poly1305EncryptorTest extends BaseEncryptorTest {
+
+    protected ChaCha20Poly1305EncryptorTest() {
+        super(
+                new ChaCha20Poly1305Encryptor(),
+                "chacha20-poly1305",
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                        17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32},
+                "tZ+mgfTF/NcznOQ2U+wwJnGmJ/+u1Jivap1OmBT1V2h3+TNTJQ=="
+        );
+    }
+
+    @Test
+    void encrypt_shouldHave12ByteNonceAnd16ByteTag() throws Exception {
+        // Given
+        var encryptor = new ChaCha20Poly1305Encryptor(new CounterNonceGenerator());
+
+        // When
+        var encrypted1 = encryptor.encrypt(key, plainTextBytes);
+        var encrypted2 = encryptor.encrypt(key, plainTextBytes);
+
+        // Then
+        assertEquals(12 + plainTextBytes.length + 16, encrypted1.length);
+        assertEquals(encrypted1.length, encryptor.getMaxEncryptedLength(plainTextBytes.length));
+        assertArrayEquals(Arrays.copyOf(encrypted1, 4), Arrays.copyOf(encrypted2, 4));
+        assertEquals(0, encrypted1[11]);
+        assertEquals(1, encrypted2[11]);
+        assertArrayEquals(plainTextBytes, encryptor.decrypt(key, encrypted2));
+    }
+
+    @Test
+    void decrypt_sameContentRepeatedly() throws Exception {
+        // Given
+        var keyedEncryptor = encryptor.withKey(key);
+
+        // When & Then
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(plainTextBytes, keyedEncryptor.decrypt(encryptedTextBytes));
+        }
+    }
+
+    @Test
+    void decrypt_whenContentIsTampered() {
+        // Given
+        var tampered = encryptedTextBytes.clone();
+        tampered[tampered.length - 1] ^= 1;
+
+        // When & Then
+        assertThrows(AEADBadTagException.class, () -> encryptor.decrypt(key, tampered));
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.github.tap30.hiss.encryptor.impl;
+
+import io.github.tap30.hiss.encryptor.KeyedEncryptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares built-in authenticated encryptors on same content; each operation is an encryption or a decryption.
+ * <br>
+ * To compare on hosts without AES intrinsics, run with <code>-jvmArgs -XX:-UseAESIntrinsics</code>
+ * (or <code>-XX:+UnlockDiagnosticVMOptions -XX:-UseAESIntrinsics -XX:-UseGHASHIntrinsics</code>).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptorBenchmark {
+
+    @Param({"16", "64", "1024", "16384"})
+    public int contentLength;
+
+    private byte[] content;
+    private KeyedEncryptor aesGcm;
+    private KeyedEncryptor aesGcm96;
+    private KeyedEncryptor chaCha20Poly1305;
+    private byte[] aesGcmEncrypted;
+    private byte[] aesGcm96Encrypted;
+    private byte[] chaCha20Poly1305Encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        var random = new Random(0);
+        content = new byte[contentLength];
+        random.nextBytes(content);
+        var aesKey = new byte[16];
+        random.nextBytes(aesKey);
+        var chaCha20Key = new byte[32];
+        random.nextBytes(chaCha20Key);
+
+        aesGcm = new AesGcmNoPaddingEncryptor().withKey(aesKey);
+        aesGcm96 = new AesGcm96Encryptor().withKey(aesKey);
+        chaCha20Poly1305 = new ChaCha20Poly1305Encryptor().withKey(chaCha20Key);
+        aesGcmEncrypted = aesGcm.encrypt(content);
+        aesGcm96Encrypted = aesGcm96.encrypt(content);
+        chaCha20Poly1305Encrypted = chaCha20Poly1305.encrypt(content);
+    }
+
+    @Benchmark
+    public byte[] aesGcmEncrypt() throws Exception {
+        return aesGcm.encrypt(content);
+    }
+
+    @Benchmark
+    public byte[] aesGcmDecrypt() throws Exception {
+        return aesGcm.decrypt(aesGcmEncrypted);
+    }
+
+    @Benchmark
+    public byte[] aesGcm96Encrypt() throws Exception {
+        return aesGcm96.encrypt(content);
+    }
+
+    @Benchmark
+    public byte[] aesGcm96Decrypt() throws Exception {
+        return aesGcm96.decrypt(aesGcm96Encrypted);
+    }
+
+    @Benchmark
+    public byte[] chaCha20Poly1305Encrypt() throws Exception {
+        return chaCha20Poly1305.encrypt(content);
+    }
+
+    @Benchmark
+    public byte[] chaCha20Poly1305Decrypt() throws Exception {
+        return chaCha20Poly1305.decrypt(chaCha20Poly1305Encrypted);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EncryptorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CounterNonceGeneratorTest {
+
+    CounterNonceGenerator nonceGenerator = new CounterNonceGenerator();
+
+    @Test
+    void nextNonce() {
+        // Given
+        var nonce1 = new byte[12];
+        var nonce2 = new byte[12];
+        var nonce3 = new byte[12];
+
+        // When
+        nonceGenerator.nextNonce(nonce1, 0, 12);
+        nonceGenerator.nextNonce(nonce2, 0, 12);
+        nonceGenerator.nextNonce(nonce3, 0, 12);
+
+        // Then
+        assertArrayEquals(Arrays.copyOfRange(nonce1, 0, 4), Arrays.copyOfRange(nonce2, 0, 4));
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 0}, Arrays.copyOfRange(nonce1, 4, 12));
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 1}, Arrays.copyOfRange(nonce2, 4, 12));
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 2}, Arrays.copyOfRange(nonce3, 4, 12));
+    }
+
+    @Test
+    void nextNonce_withSixteenBytes() {
+        // Given
+        var output = new byte[18];
+
+        // When
+        nonceGenerator.nextNonce(output, 1, 16);
+        nonceGenerator.nextNonce(output, 1, 16);
+
+        // Then
+        assertEquals(0, output[0]);
+        assertEquals(1, output[16]);
+        assertEquals(0, output[17]);
+    }
+
+    @Test
+    void nextNonce_whenLengthIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> nonceGenerator.nextNonce(new byte[8], 0, 8));
+        assertThrows(IllegalArgumentException.class, () -> nonceGenerator.nextNonce(new byte[17], 0, 17));
+    }
+
+}
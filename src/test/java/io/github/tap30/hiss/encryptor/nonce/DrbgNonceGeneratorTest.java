@@ -0,0 +1,51 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrbgNonceGeneratorTest {
+
+    DrbgNonceGenerator nonceGenerator = new DrbgNonceGenerator();
+
+    @Test
+    void nextNonce() {
+        // Given
+        var nonces = new HashSet<String>();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            var nonce = new byte[12];
+            nonceGenerator.nextNonce(nonce, 0, nonce.length);
+            nonces.add(Arrays.toString(nonce));
+        }
+
+        // Then
+        assertEquals(1000, nonces.size());
+    }
+
+    @Test
+    void nextNonce_withOffset() {
+        // Given
+        var output = new byte[20];
+
+        // When
+        nonceGenerator.nextNonce(output, 2, 16);
+
+        // Then
+        assertEquals(0, output[0]);
+        assertEquals(0, output[1]);
+        assertEquals(0, output[18]);
+        assertEquals(0, output[19]);
+        assertFalse(Arrays.equals(new byte[16], Arrays.copyOfRange(output, 2, 18)));
+    }
+
+    @Test
+    void getInstance() {
+        assertSame(DrbgNonceGenerator.getInstance(), DrbgNonceGenerator.getInstance());
+    }
+
+}
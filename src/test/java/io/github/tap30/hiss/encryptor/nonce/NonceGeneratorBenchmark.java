@@ -0,0 +1,63 @@
+package io.github.tap30.hiss.encryptor.nonce;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how IV generation throughput scales with number of threads.
+ * <br>
+ * Run <code>main</code>; it runs all benchmarks with 1, 2, 4, ... threads up to number of available processors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NonceGeneratorBenchmark {
+
+    private final SecureRandom sharedSecureRandom = new SecureRandom();
+    private final NonceGenerator drbgNonceGenerator = new DrbgNonceGenerator();
+    private final NonceGenerator counterNonceGenerator = new CounterNonceGenerator();
+
+    @State(Scope.Thread)
+    public static class Nonce {
+        byte[] bytes = new byte[16];
+    }
+
+    /**
+     * The implementation used before nonce generators; one <code>SecureRandom</code> shared by all threads.
+     */
+    @Benchmark
+    public byte[] sharedSecureRandom(Nonce nonce) {
+        sharedSecureRandom.nextBytes(nonce.bytes);
+        return nonce.bytes;
+    }
+
+    @Benchmark
+    public byte[] drbg(Nonce nonce) {
+        drbgNonceGenerator.nextNonce(nonce.bytes, 0, nonce.bytes.length);
+        return nonce.bytes;
+    }
+
+    @Benchmark
+    public byte[] counter(Nonce nonce) {
+        counterNonceGenerator.nextNonce(nonce.bytes, 0, nonce.bytes.length);
+        return nonce.bytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(NonceGeneratorBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+}
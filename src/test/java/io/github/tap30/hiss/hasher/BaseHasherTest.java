@@ -58,6 +58,20 @@ public abstract class BaseHasherTest {
         assertArrayEquals(hashedTextBytes, hash3);
     }
 
+    @Test
+    void withKey_hash() throws Exception {
+        // Given
+        var keyedHasher = hasher.withKey(key);
+
+        // When
+        var hash1 = keyedHasher.hash(plainTextBytes);
+        var hash2 = keyedHasher.hash(plainTextBytes);
+
+        // Then
+        assertArrayEquals(hashedTextBytes, hash1);
+        assertArrayEquals(hashedTextBytes, hash2);
+    }
+
     @Test
     void getName() {
         assertEquals(hasherName, hasher.getName());
@@ -0,0 +1,66 @@
+package io.github.tap30.hiss.hasher.impl;
+
+import io.github.tap30.hiss.hasher.KeyedHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares built-in hashers on typical PII values; each operation is a hash calculation.
+ * <br>
+ * To compare on hosts without SHA extensions, run with
+ * <code>-jvmArgs "-XX:+UnlockDiagnosticVMOptions -XX:-UseSHA256Intrinsics -XX:-UseSHA512Intrinsics"</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HasherBenchmark {
+
+    /**
+     * <code>nationalId</code>: 10 bytes; <code>phoneNumber</code>: 13 bytes; <code>email</code>: 26 bytes;
+     * <code>address</code>: 200 bytes (100 Persian characters).
+     */
+    @Param({"nationalId", "phoneNumber", "email", "address"})
+    public String value;
+
+    private byte[] content;
+    private KeyedHasher hmacSha256;
+    private KeyedHasher hmacSha512t256;
+
+    @Setup
+    public void setUp() {
+        switch (value) {
+            case "nationalId":
+                content = "0012345678".getBytes(StandardCharsets.UTF_8);
+                break;
+            case "phoneNumber":
+                content = "+989123456789".getBytes(StandardCharsets.UTF_8);
+                break;
+            case "email":
+                content = "some.user.name@example.com".getBytes(StandardCharsets.UTF_8);
+                break;
+            default:
+                content = "\u062a".repeat(100).getBytes(StandardCharsets.UTF_8);
+        }
+        var key = new byte[32];
+        new Random(0).nextBytes(key);
+        hmacSha256 = new HmacSha256Hasher().withKey(key);
+        hmacSha512t256 = new HmacSha512t256Hasher().withKey(key);
+    }
+
+    @Benchmark
+    public byte[] hmacSha256() throws Exception {
+        return hmacSha256.hash(content);
+    }
+
+    @Benchmark
+    public byte[] hmacSha512t256() throws Exception {
+        return hmacSha512t256.hash(content);
+    }
+
+}
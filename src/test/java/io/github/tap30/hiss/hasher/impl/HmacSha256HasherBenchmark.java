@@ -0,0 +1,67 @@
+package io.github.tap30.hiss.hasher.impl;
+
+import io.github.tap30.hiss.hasher.KeyedHasher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hashing using pooled clones of a keyed prototype {@link Mac} with creating and initializing
+ * a new Mac per hash, which is what {@link HmacSha256Hasher} did before.
+ * <br>
+ * Run <code>main</code>; it runs all benchmarks with 1, 2, 4, ... threads up to number of available processors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HmacSha256HasherBenchmark {
+
+    @Param({"16", "64", "1024"})
+    public int contentLength;
+
+    private byte[] content;
+    private SecretKeySpec secretKeySpec;
+    private KeyedHasher keyedHasher;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(0);
+        content = new byte[contentLength];
+        random.nextBytes(content);
+        var key = new byte[32];
+        random.nextBytes(key);
+        secretKeySpec = new SecretKeySpec(key, "HmacSHA256");
+        keyedHasher = new HmacSha256Hasher().withKey(key);
+    }
+
+    @Benchmark
+    public byte[] newMacPerHash() throws Exception {
+        var mac = Mac.getInstance("HmacSHA256");
+        mac.init(secretKeySpec);
+        return mac.doFinal(content);
+    }
+
+    @Benchmark
+    public byte[] pooledKeyedMac() throws Exception {
+        return keyedHasher.hash(content);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(HmacSha256HasherBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+}
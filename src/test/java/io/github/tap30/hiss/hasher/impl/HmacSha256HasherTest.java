@@ -1,6 +1,16 @@
 package io.github.tap30.hiss.hasher.impl;
 
 import io.github.tap30.hiss.hasher.BaseHasherTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 class HmacSha256HasherTest extends BaseHasherTest {
 
@@ -12,4 +22,60 @@ class HmacSha256HasherTest extends BaseHasherTest {
                 "ZjSgZLB+ebSU/dD72P6HULVSl6HoRFIEZNoYP9aqIRU="
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void withKey_hash_fromMultipleThreads() throws Exception {
+        // Given
+        var keyedHasher = hasher.withKey(key);
+        var executor = Executors.newFixedThreadPool(8);
+        var tasks = new ArrayList<Callable<byte[]>>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(() -> keyedHasher.hash(plainTextBytes));
+        }
+
+        try {
+            // When
+            var hashes = executor.invokeAll(tasks);
+
+            // Then
+            for (var hash : hashes) {
+                assertArrayEquals(hashedTextBytes, hash.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void withKey_hash_whenProviderIsChanged() throws Exception {
+        // Given
+        var hmacSha256Hasher = new HmacSha256Hasher();
+        var keyedHasher = hmacSha256Hasher.withKey(key);
+        keyedHasher.hash(plainTextBytes);
+
+        // When
+        hmacSha256Hasher.setProvider(Security.getProvider("SunJCE"));
+        var hash = keyedHasher.hash(plainTextBytes);
+
+        // Then
+        assertArrayEquals(hashedTextBytes, hash);
+    }
+
+    @Test
+    void withKey_hashRangeAndPrefixes() throws Exception {
+        // Given
+        var keyedHasher = hasher.withKey(key);
+        var content = "0912345678".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        var rangeHash = keyedHasher.hash(content, 2, 5);
+        var prefixHashes = keyedHasher.hashPrefixes(content, new int[]{3, 4, 10});
+
+        // Then
+        assertArrayEquals(hasher.hash(key, Arrays.copyOfRange(content, 2, 7)), rangeHash);
+        assertArrayEquals(hasher.hash(key, Arrays.copyOf(content, 3)), prefixHashes[0]);
+        assertArrayEquals(hasher.hash(key, Arrays.copyOf(content, 4)), prefixHashes[1]);
+        assertArrayEquals(hasher.hash(key, content), prefixHashes[2]);
+        assertArrayEquals(hashedTextBytes, keyedHasher.hash(plainTextBytes));
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.tap30.hiss.hasher.impl;
+
+import io.github.tap30.hiss.hasher.BaseHasherTest;
+
+class HmacSha512t256HasherTest extends BaseHasherTest {
+
+    public HmacSha512t256HasherTest() {
+        super(
+                new HmacSha512t256Hasher(),
+                "hmac-sha512-256",
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32},
+                "N1FEerCBecQl2RA/KXjPeuRCcLSHgymtUrG4RjBtnVY="
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.tap30.hiss.hasher.impl;
+
+import io.github.tap30.hiss.hasher.KeyedHasher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares hashing all prefixes of content in one pass over it, as prefix search tokens are calculated,
+ * with hashing each prefix separately.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrefixHashBenchmark {
+
+    @Param({"11", "32"})
+    public int contentLength;
+
+    private byte[] content;
+    private int[] lengths;
+    private KeyedHasher keyedHasher;
+    private KeyedHasher separateKeyedHasher;
+
+    @Setup
+    public void setUp() {
+        content = "09123456789 Valiasr Street, Tehran".substring(0, contentLength).getBytes(StandardCharsets.UTF_8);
+        lengths = IntStream.rangeClosed(3, contentLength).toArray();
+        keyedHasher = new HmacSha256Hasher().withKey(new byte[32]);
+        separateKeyedHasher = keyedHasher::hash;
+    }
+
+    @Benchmark
+    public byte[][] onePass() throws Exception {
+        return keyedHasher.hashPrefixes(content, lengths);
+    }
+
+    @Benchmark
+    public byte[][] separately() throws Exception {
+        return separateKeyedHasher.hashPrefixes(content, lengths);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PrefixHashBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
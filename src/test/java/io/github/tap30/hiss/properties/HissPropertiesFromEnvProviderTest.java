@@ -7,9 +7,12 @@ import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SystemStubsExtension.class)
 class HissPropertiesFromEnvProviderTest {
@@ -20,11 +23,21 @@ class HissPropertiesFromEnvProviderTest {
             "HISS_DEFAULT_ENCRYPTION_ALGORITHM", "aes-128-gcm",
             "HISS_DEFAULT_HASHING_KEY_ID", "default_hash_key",
             "HISS_DEFAULT_HASHING_ALGORITHM", "hmac-sha256",
+            "HISS_ADDITIONAL_HASHING_SCHEMES", "hmac-sha256:other_key, TAPSI-HMAC-SHA256:default_key",
+            "HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_KEY_ID", "deterministic_key",
+            "HISS_DEFAULT_DETERMINISTIC_ENCRYPTION_ALGORITHM", "AES-SIV",
             "HISS_KEYS_DEFAULT_KEY", "dGhlIGFjdHVhbCBrZXkK",
             "HISS_KEYS_DEFAULT_KEY___HASH", "some hash",
             "HISS_KEYS_OTHER_KEY", "dGhlIGFjdHVhbCBvdGhlciBrZXkK",
             "HISS_KEYS_OTHER_KEY___HASH", "other key hash",
-            "HISS_KEY_HASH_GENERATION_ENABLED", "true"
+            "HISS_KEY_HASH_GENERATION_ENABLED", "true",
+            "HISS_CRYPTO_PROVIDER_PROBING_ENABLED", "true",
+            "HISS_COMPRESSION_ENABLED", "true",
+            "HISS_COMPRESSION_THRESHOLD", "256",
+            "HISS_COMPRESSION_MAX_LENGTH", "1048576",
+            "HISS_COMPACT_ENVELOPE_ENABLED", "true",
+            "HISS_HASH_CACHE_MAX_SIZE", "10000",
+            "HISS_HASH_CACHE_TTL", "PT5M"
     );
 
     @Test
@@ -44,6 +57,18 @@ class HissPropertiesFromEnvProviderTest {
         assertEquals("aes-128-gcm", hissProperties.getDefaultEncryptionAlgorithm());
         assertEquals("default_hash_key", hissProperties.getDefaultHashingKeyId());
         assertEquals("hmac-sha256", hissProperties.getDefaultHashingAlgorithm());
+        assertEquals(List.of(HashingScheme.of("hmac-sha256", "other_key"),
+                        HashingScheme.of("tapsi-hmac-sha256", "default_key")),
+                hissProperties.getAdditionalHashingSchemes());
+        assertEquals("deterministic_key", hissProperties.getDefaultDeterministicEncryptionKeyId());
+        assertEquals("aes-siv", hissProperties.getDefaultDeterministicEncryptionAlgorithm());
+        assertTrue(hissProperties.isCryptoProviderProbingEnabled());
+        assertTrue(hissProperties.isCompressionEnabled());
+        assertEquals(256, hissProperties.getCompressionThreshold());
+        assertEquals(1048576, hissProperties.getCompressionMaxLength());
+        assertTrue(hissProperties.isCompactEnvelopeEnabled());
+        assertEquals(10000, hissProperties.getHashCacheMaxSize());
+        assertEquals(Duration.ofMinutes(5), hissProperties.getHashCacheTtl());
     }
 
 }
\ No newline at end of file
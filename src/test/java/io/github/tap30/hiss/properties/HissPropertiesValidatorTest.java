@@ -1,13 +1,16 @@
 package io.github.tap30.hiss.properties;
 
 import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.impl.AesSivEncryptor;
 import io.github.tap30.hiss.hasher.Hasher;
 import io.github.tap30.hiss.key.Key;
 import io.github.tap30.hiss.key.KeyHashGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,7 +23,7 @@ class HissPropertiesValidatorTest {
     KeyHashGenerator keyHashGenerator = mock(KeyHashGenerator.class);
     HissPropertiesValidator hissPropertiesValidator = new HissPropertiesValidator(
             keyHashGenerator,
-            Map.of("aes-128-gcm", mock(Encryptor.class)),
+            Map.of("aes-128-gcm", mock(Encryptor.class), "aes-siv", new AesSivEncryptor()),
             Map.of("hmac-sha256", mock(Hasher.class))
     );
 
@@ -171,6 +174,106 @@ class HissPropertiesValidatorTest {
         assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
     }
 
+    // Default Deterministic Encryption Key and Algorithm Validation
+
+    @Test
+    void validate_whenDefaultDeterministicEncryptionKeyIdIsValid() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn("deterministic_key").when(properties).getDefaultDeterministicEncryptionKeyId();
+        doReturn(Map.of("default_key", Key.builder().key(new byte[16]).build(),
+                "deterministic_key", Key.builder().key(new byte[32]).build()))
+                .when(properties).getKeys();
+
+        // When & Then
+        assertDoesNotThrow(() -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenDefaultDeterministicEncryptionKeyIdIsInvalid() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn("some unknown key").when(properties).getDefaultDeterministicEncryptionKeyId();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenDefaultDeterministicEncryptionAlgorithmIsInvalid() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn("default_key").when(properties).getDefaultDeterministicEncryptionKeyId();
+        doReturn("some unknown algorithm").when(properties).getDefaultDeterministicEncryptionAlgorithm();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenDefaultDeterministicEncryptionKeyLengthIsInvalid() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn("default_key").when(properties).getDefaultDeterministicEncryptionKeyId();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    // Additional Hashing Schemes Validation
+
+    @Test
+    void validate_whenAdditionalHashingSchemeKeyIsMissing() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn(List.of(HashingScheme.of("hmac-sha256", "old_key"))).when(properties).getAdditionalHashingSchemes();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenAdditionalHashingSchemeAlgorithmIsNotSupported() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn(List.of(HashingScheme.of("md5", "default_key"))).when(properties).getAdditionalHashingSchemes();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenAdditionalHashingSchemeIsDefaultScheme() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn(List.of(HashingScheme.of("hmac-sha256", "default_key"))).when(properties).getAdditionalHashingSchemes();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    // Hash Cache Validation
+
+    @Test
+    void validate_whenHashCacheMaxSizeIsNegative() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn(-1).when(properties).getHashCacheMaxSize();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
+    @Test
+    void validate_whenHashCacheTtlIsNotPositive() {
+        // Given
+        var properties = spy(createValidProperties());
+        doReturn(Duration.ZERO).when(properties).getHashCacheTtl();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> hissPropertiesValidator.validate(properties));
+    }
+
     HissProperties createValidProperties() {
         return HissProperties.builder()
                 .keys(Set.of(Key.builder()
@@ -0,0 +1,77 @@
+package io.github.tap30.hiss.provider;
+
+import io.github.tap30.hiss.encryptor.Encryptor;
+import io.github.tap30.hiss.encryptor.impl.AesGcmNoPaddingEncryptor;
+import io.github.tap30.hiss.hasher.impl.HmacSha256Hasher;
+import org.junit.jupiter.api.Test;
+
+import java.security.Provider;
+import java.security.Security;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CryptoProviderProberTest {
+
+    final byte[] key = new byte[16];
+    final byte[] content = "some text".getBytes();
+
+    @Test
+    void probe() throws Exception {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor();
+        var hasher = new HmacSha256Hasher();
+        var prober = new CryptoProviderProber(Duration.ofMillis(2));
+
+        // When
+        var report = prober.probe(List.of(encryptor, mock(Encryptor.class)), List.of(hasher));
+
+        // Then
+        assertEquals(2, report.getResults().size());
+        assertEquals("AES/GCM/NoPadding", report.getResults().get(0).getServiceAlgorithm());
+        assertNotNull(encryptor.getProvider());
+        assertEquals(encryptor.getProvider().getName(), report.getResults().get(0).getProvider());
+        assertNotNull(hasher.getProvider());
+        assertArrayEquals(content, encryptor.decrypt(key, encryptor.encrypt(key, content)));
+        assertNotNull(hasher.hash(key, content));
+        assertTrue(report.format().contains("UseAESIntrinsics"));
+        System.out.print(report.format());
+    }
+
+    @Test
+    void probe_whenHavingMultipleCandidates() {
+        // Given
+        var sunJce = Security.getProvider("SunJCE");
+        var emptyProvider = new Provider("Empty", "1", "") {
+        };
+        var encryptor = new AesGcmNoPaddingEncryptor();
+        var prober = new CryptoProviderProber(Duration.ofMillis(2), () -> new Provider[]{emptyProvider, sunJce, sunJce});
+
+        // When
+        var report = prober.probe(List.of(encryptor), List.of());
+
+        // Then
+        var result = report.getResults().get(0);
+        assertSame(sunJce, encryptor.getProvider());
+        assertEquals("SunJCE", result.getProvider());
+        assertTrue(result.getThroughputs().get("SunJCE") > 0);
+    }
+
+    @Test
+    void probe_whenNoProviderSupportsService() {
+        // Given
+        var encryptor = new AesGcmNoPaddingEncryptor();
+        encryptor.setProvider(Security.getProvider("SunJCE"));
+        var prober = new CryptoProviderProber(Duration.ofMillis(2), () -> new Provider[0]);
+
+        // When
+        var report = prober.probe(List.of(encryptor), List.of());
+
+        // Then
+        assertNull(report.getResults().get(0).getProvider());
+        assertNull(encryptor.getProvider());
+    }
+
+}
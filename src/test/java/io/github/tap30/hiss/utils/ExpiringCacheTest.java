@@ -0,0 +1,114 @@
+package io.github.tap30.hiss.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void constructor_whenArgumentsAreInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiringCache<>(0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiringCache<>(1, Duration.ZERO));
+    }
+
+    @Test
+    void getAndPut() {
+        // Given
+        var cache = new ExpiringCache<String, String>(4, Duration.ofMinutes(1), now::get);
+
+        // When
+        var missed = cache.get("key");
+        cache.put("key", "value");
+        var hit = cache.get("key");
+
+        // Then
+        assertNull(missed);
+        assertEquals("value", hit);
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+        assertEquals(0.5, cache.getStatistics().getHitRate());
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void get_whenEntryIsExpired() {
+        // Given
+        var cache = new ExpiringCache<String, String>(4, Duration.ofSeconds(10), now::get);
+        cache.put("key", "value");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        var expired = cache.get("key");
+        cache.put("key", "new value");
+        var renewed = cache.get("key");
+
+        // Then
+        assertNull(expired);
+        assertEquals("new value", renewed);
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void getAndPut_shouldRemoveExpiredEntries() {
+        // Given
+        var cache = new ExpiringCache<Integer, String>(4, Duration.ofSeconds(10), now::get);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.put(3, "three");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.get(1);
+        var sizeAfterGet = cache.getStatistics().getSize();
+        cache.put(4, "four");
+        var sizeAfterPut = cache.getStatistics().getSize();
+
+        // Then
+        assertEquals(2, sizeAfterGet);
+        assertEquals(2, sizeAfterPut);
+        assertEquals("three", cache.get(3));
+        assertEquals("four", cache.get(4));
+        assertEquals(0, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    void put_whenCacheIsFull_shouldEvictOldestEntries() {
+        // Given
+        var cache = new ExpiringCache<Integer, String>(2, Duration.ofMinutes(1), now::get);
+
+        // When
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(1, "one again");
+        cache.put(3, "three");
+
+        // Then
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+        assertEquals("three", cache.get(3));
+        assertEquals(1, cache.getStatistics().getEvictions());
+        assertEquals(2, cache.getStatistics().getSize());
+    }
+
+    @Test
+    void clear() {
+        // Given
+        var cache = new ExpiringCache<String, String>(4, Duration.ofMinutes(1), now::get);
+        cache.put("key", "value");
+
+        // When
+        cache.clear();
+
+        // Then
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.getStatistics().getSize());
+    }
+
+}
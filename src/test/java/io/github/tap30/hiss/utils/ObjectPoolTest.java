@@ -0,0 +1,114 @@
+package io.github.tap30.hiss.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    @Test
+    void constructor_shouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(1, new ObjectPool<>(1).getCapacity());
+        assertEquals(8, new ObjectPool<>(5).getCapacity());
+        assertEquals(16, new ObjectPool<>(16).getCapacity());
+    }
+
+    @Test
+    void constructor_whenCapacityIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ObjectPool<>(0));
+    }
+
+    @Test
+    void poll_whenPoolIsEmpty() {
+        // Given
+        var pool = new ObjectPool<String>(4);
+
+        // When
+        var object = pool.poll();
+
+        // Then
+        assertNull(object);
+        assertEquals(0, pool.getStatistics().getHits());
+        assertEquals(1, pool.getStatistics().getMisses());
+        assertEquals(0, pool.getStatistics().getHitRate());
+    }
+
+    @Test
+    void pollAndOffer() {
+        // Given
+        var pool = new ObjectPool<String>(4);
+        pool.offer("object");
+
+        // When
+        var object1 = pool.poll();
+        var object2 = pool.poll();
+
+        // Then
+        assertEquals("object", object1);
+        assertNull(object2);
+        assertEquals(1, pool.getStatistics().getHits());
+        assertEquals(1, pool.getStatistics().getMisses());
+        assertEquals(0.5, pool.getStatistics().getHitRate());
+    }
+
+    @Test
+    void offer_whenPoolIsFull() {
+        // Given
+        var pool = new ObjectPool<String>(2);
+
+        // When
+        pool.offer("1");
+        pool.offer("2");
+        pool.offer("3");
+
+        // Then
+        var polled = new HashSet<String>();
+        polled.add(pool.poll());
+        polled.add(pool.poll());
+        assertNull(pool.poll());
+        assertEquals(2, polled.size());
+        assertEquals(1, pool.getStatistics().getDiscards());
+    }
+
+    @Test
+    void clear() {
+        // Given
+        var pool = new ObjectPool<String>(2);
+        pool.offer("1");
+
+        // When
+        pool.clear();
+
+        // Then
+        assertNull(pool.poll());
+    }
+
+    @Test
+    void pollAndOffer_fromManyThreads() throws Exception {
+        // Given
+        var pool = new ObjectPool<Object>(8);
+        var executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    var object = pool.poll();
+                    pool.offer(object != null ? object : new Object());
+                }
+            });
+        }
+        executor.shutdown();
+
+        // Then
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        var statistics = pool.getStatistics();
+        assertEquals(80_000, statistics.getHits() + statistics.getMisses());
+        assertTrue(statistics.getMisses() <= 8 + statistics.getDiscards());
+    }
+
+}